@@ -0,0 +1,65 @@
+package bank.benchmark;
+
+import bank.core.models.Account;
+import bank.core.models.Transaction;
+import bank.patterns.strategy.TransactionActionType;
+import bank.repository.StripedAccountRepository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+// Общий набор счетов для бенчмарков. Баланс большой, чтобы списания не упирались в нехватку средств.
+public class BankFixture {
+
+    public static final String HOT_SKEW = "HOT";
+    public static final String UNIFORM_SKEW = "UNIFORM";
+
+    private static final long INITIAL_BALANCE_IN_MINOR_UNITS = 1_000_000_000_000L;
+    private static final BigDecimal OPERATION_AMOUNT = new BigDecimal("0.01");
+
+    private final List<Account> accounts;
+    private final StripedAccountRepository repository;
+
+    public BankFixture(int accountCount) {
+        this.accounts = new ArrayList<>(accountCount);
+        for (int i = 0; i < accountCount; i++) {
+            Account account = new Account();
+            account.setCurrentBalanceInMinorUnits(INITIAL_BALANCE_IN_MINOR_UNITS);
+            accounts.add(account);
+        }
+        this.repository = new StripedAccountRepository(accounts);
+    }
+
+    public StripedAccountRepository getRepository() {
+        return repository;
+    }
+
+    public Account getAccount(int index) {
+        return accounts.get(index);
+    }
+
+    public int getAccountCount() {
+        return accounts.size();
+    }
+
+    // HOT: все операции идут с первого счета на второй; UNIFORM: случайная пара различных счетов.
+    public int pickSourceIndex(String accountSkew, SplittableRandom random) {
+        return HOT_SKEW.equals(accountSkew) ? 0 : random.nextInt(accounts.size());
+    }
+
+    public int pickTargetIndex(String accountSkew, int sourceIndex, SplittableRandom random) {
+        if (HOT_SKEW.equals(accountSkew)) {
+            return 1;
+        }
+        return (sourceIndex + 1 + random.nextInt(accounts.size() - 1)) % accounts.size();
+    }
+
+    public Transaction newTransaction(TransactionActionType actionType, int sourceIndex, int targetIndex) {
+        BigDecimal amount = actionType == TransactionActionType.FREEZE ? BigDecimal.ZERO : OPERATION_AMOUNT;
+        UUID targetIdentifier = actionType == TransactionActionType.TRANSFER ? accounts.get(targetIndex).getAccountIdentifier() : null;
+        return new Transaction(actionType, amount, accounts.get(sourceIndex).getAccountIdentifier(), targetIdentifier);
+    }
+}
@@ -0,0 +1,89 @@
+package bank.benchmark;
+
+import bank.core.models.Transaction;
+import bank.patterns.factory.TransactionStrategyFactory;
+import bank.patterns.strategy.TransactionActionType;
+import bank.service.ExecutionMode;
+import bank.service.ListenerOverflowPolicy;
+import bank.service.TransactionEventDispatcher;
+import bank.service.TransactionProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+// Сквозной путь: submitTransaction -> движок исполнения -> стратегия -> уведомление слушателя.
+// Одна итерация - пачка BURST_SIZE транзакций (не больше емкости полосы счета), результат нормирован на одну транзакцию.
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProcessorBurstBenchmark {
+
+    private static final int BURST_SIZE = 1_000;
+
+    @Param({"SHARED_POOL", "ACCOUNT_LANES", "GROUP_COMMIT", "VIRTUAL_THREADS"})
+    public ExecutionMode executionMode;
+
+    @Param({"DEPOSIT", "WITHDRAWAL", "FREEZE", "TRANSFER"})
+    public TransactionActionType actionType;
+
+    @Param({BankFixture.HOT_SKEW, BankFixture.UNIFORM_SKEW})
+    public String accountSkew;
+
+    private BankFixture fixture;
+    private TransactionProcessor processor;
+    private Transaction[] burst;
+    private volatile CountDownLatch burstCompletion;
+
+    @Setup(Level.Trial)
+    public void startProcessor() {
+        fixture = new BankFixture(1024);
+        processor = new TransactionProcessor(fixture.getRepository(), new TransactionStrategyFactory(), executionMode);
+        // Защелка ждет каждое завершение, поэтому события не должны вытесняться.
+        processor.registerListener(completedTransaction -> burstCompletion.countDown(),
+                TransactionEventDispatcher.DEFAULT_BUFFER_CAPACITY, ListenerOverflowPolicy.BLOCK);
+        burst = new Transaction[BURST_SIZE];
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareBurst() {
+        SplittableRandom random = new SplittableRandom();
+        for (int i = 0; i < BURST_SIZE; i++) {
+            int sourceIndex = fixture.pickSourceIndex(accountSkew, random);
+            int targetIndex = fixture.pickTargetIndex(accountSkew, sourceIndex, random);
+            burst[i] = fixture.newTransaction(actionType, sourceIndex, targetIndex);
+        }
+        burstCompletion = new CountDownLatch(BURST_SIZE);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST_SIZE)
+    public void processBurst() throws InterruptedException {
+        for (Transaction transaction : burst) {
+            processor.submitTransaction(transaction);
+        }
+        burstCompletion.await();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopProcessor() {
+        processor.shutdown();
+    }
+}
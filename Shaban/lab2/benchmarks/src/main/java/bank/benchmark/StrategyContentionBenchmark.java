@@ -0,0 +1,82 @@
+package bank.benchmark;
+
+import bank.core.models.Account;
+import bank.core.models.Transaction;
+import bank.patterns.factory.TransactionStrategyFactory;
+import bank.patterns.strategy.TransactionActionType;
+import bank.patterns.strategy.TransactionStrategy;
+import bank.repository.AccountRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Прямой вызов стратегии без процессора: изолирует стоимость блокировок счета и самой операции.
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class StrategyContentionBenchmark {
+
+    private static final int TRANSACTIONS_PER_THREAD = 4096;
+
+    @Param({"DEPOSIT", "WITHDRAWAL", "FREEZE", "TRANSFER"})
+    public TransactionActionType actionType;
+
+    @Param({BankFixture.HOT_SKEW, BankFixture.UNIFORM_SKEW})
+    public String accountSkew;
+
+    private BankFixture fixture;
+    private TransactionStrategy strategy;
+
+    @Setup(Level.Trial)
+    public void createAccounts() {
+        fixture = new BankFixture(1024);
+        strategy = new TransactionStrategyFactory().createStrategy(actionType);
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadWorkload {
+
+        Account[] sourceAccounts;
+        Transaction[] transactions;
+        int cursor;
+
+        @Setup(Level.Trial)
+        public void prepare(StrategyContentionBenchmark benchmark) {
+            SplittableRandom random = new SplittableRandom(Thread.currentThread().getId());
+            sourceAccounts = new Account[TRANSACTIONS_PER_THREAD];
+            transactions = new Transaction[TRANSACTIONS_PER_THREAD];
+
+            for (int i = 0; i < TRANSACTIONS_PER_THREAD; i++) {
+                int sourceIndex = benchmark.fixture.pickSourceIndex(benchmark.accountSkew, random);
+                int targetIndex = benchmark.fixture.pickTargetIndex(benchmark.accountSkew, sourceIndex, random);
+                sourceAccounts[i] = benchmark.fixture.getAccount(sourceIndex);
+                transactions[i] = benchmark.fixture.newTransaction(benchmark.actionType, sourceIndex, targetIndex);
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean executeStrategy(ThreadWorkload workload) {
+        int index = workload.cursor++ & (TRANSACTIONS_PER_THREAD - 1);
+        Transaction transaction = workload.transactions[index];
+        AccountRepository repository = fixture.getRepository();
+        return strategy.executeTransaction(workload.sourceAccounts[index], transaction, repository);
+    }
+}
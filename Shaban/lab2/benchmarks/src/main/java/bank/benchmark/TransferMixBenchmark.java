@@ -0,0 +1,102 @@
+package bank.benchmark;
+
+import bank.core.models.Account;
+import bank.core.models.Transaction;
+import bank.patterns.factory.TransactionStrategyFactory;
+import bank.patterns.strategy.TransactionActionType;
+import bank.patterns.strategy.TransactionStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Смесь операций с заданной долей переводов: чем она выше, тем чаще потоки сходятся
+// на упорядоченном захвате двух блокировок в TransferStrategy.
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class TransferMixBenchmark {
+
+    private static final int TRANSACTIONS_PER_THREAD = 4096;
+
+    @Param({"0", "50", "90"})
+    public int transferShare;
+
+    @Param({BankFixture.HOT_SKEW, BankFixture.UNIFORM_SKEW})
+    public String accountSkew;
+
+    @Param({"16", "1024"})
+    public int accountCount;
+
+    private BankFixture fixture;
+    private TransactionStrategy[] strategiesByAction;
+
+    @Setup(Level.Trial)
+    public void createAccounts() {
+        fixture = new BankFixture(accountCount);
+        TransactionStrategyFactory factory = new TransactionStrategyFactory();
+        TransactionActionType[] actionTypes = TransactionActionType.values();
+        strategiesByAction = new TransactionStrategy[actionTypes.length];
+        for (TransactionActionType actionType : actionTypes) {
+            strategiesByAction[actionType.ordinal()] = factory.createStrategy(actionType);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadWorkload {
+
+        Account[] sourceAccounts;
+        Transaction[] transactions;
+        int cursor;
+
+        @Setup(Level.Trial)
+        public void prepare(TransferMixBenchmark benchmark) {
+            SplittableRandom random = new SplittableRandom(Thread.currentThread().getId());
+            sourceAccounts = new Account[TRANSACTIONS_PER_THREAD];
+            transactions = new Transaction[TRANSACTIONS_PER_THREAD];
+
+            for (int i = 0; i < TRANSACTIONS_PER_THREAD; i++) {
+                int sourceIndex = benchmark.fixture.pickSourceIndex(benchmark.accountSkew, random);
+                int targetIndex = benchmark.fixture.pickTargetIndex(benchmark.accountSkew, sourceIndex, random);
+                TransactionActionType actionType;
+                if (random.nextInt(100) < benchmark.transferShare) {
+                    actionType = TransactionActionType.TRANSFER;
+                    // Встречные переводы между одной парой счетов проверяют, что порядок блокировок исключает deadlock.
+                    if (random.nextBoolean()) {
+                        int swappedIndex = sourceIndex;
+                        sourceIndex = targetIndex;
+                        targetIndex = swappedIndex;
+                    }
+                } else {
+                    actionType = random.nextBoolean() ? TransactionActionType.DEPOSIT : TransactionActionType.WITHDRAWAL;
+                }
+                sourceAccounts[i] = benchmark.fixture.getAccount(sourceIndex);
+                transactions[i] = benchmark.fixture.newTransaction(actionType, sourceIndex, targetIndex);
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean executeMix(ThreadWorkload workload) {
+        int index = workload.cursor++ & (TRANSACTIONS_PER_THREAD - 1);
+        Transaction transaction = workload.transactions[index];
+        return strategiesByAction[transaction.getActionType().ordinal()]
+                .executeTransaction(workload.sourceAccounts[index], transaction, fixture.getRepository());
+    }
+}
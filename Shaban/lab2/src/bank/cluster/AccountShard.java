@@ -0,0 +1,221 @@
+package bank.cluster;
+
+import bank.core.models.Account;
+import bank.core.models.TransactionOutcome;
+import bank.patterns.factory.TransactionStrategyFactory;
+import bank.repository.StripedAccountRepository;
+import bank.service.ExecutionMode;
+import bank.service.TransactionProcessor;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Один шард кластера: свое хранилище, свой процессор и свой движок. Операции внутри шарда идут
+// обычным путем процессора; для межшардовых переводов шард выступает участником двухфазной фиксации.
+// Подготовка сразу списывает деньги со счетов шарда (они лежат в резерве до решения),
+// а зачисления применяются только при фиксации - так ни одна сторона не может потратить
+// ни зарезервированные, ни еще не зафиксированные деньги. Место под зачисление тоже резервируется
+// при подготовке (Account.creditOverflows), чтобы депозит между фазами не переполнил баланс.
+// Межшардовые фазы берут те же блокировки счетов, что и стратегии, поэтому шарду нужны
+// стратегии на блокировках (TransactionStrategyFactory), а не оптимистичные.
+public class AccountShard {
+
+    private final int shardIndex;
+    private final StripedAccountRepository shardRepository;
+    private final TransactionProcessor shardProcessor;
+    private final Map<UUID, PreparedChanges> preparedTransactions = new ConcurrentHashMap<>();
+    private volatile boolean isAvailable = true;
+
+    public AccountShard(int shardIndex, int expectedAccountCount, ExecutionMode mode) {
+        this.shardIndex = shardIndex;
+        this.shardRepository = new StripedAccountRepository(expectedAccountCount);
+        this.shardProcessor = new TransactionProcessor(shardRepository, new TransactionStrategyFactory(), mode);
+    }
+
+    public int getShardIndex() {
+        return shardIndex;
+    }
+
+    public StripedAccountRepository getRepository() {
+        return shardRepository;
+    }
+
+    public TransactionProcessor getProcessor() {
+        return shardProcessor;
+    }
+
+    public boolean isAvailable() {
+        return isAvailable;
+    }
+
+    // Имитация отказа узла: недоступный шард отклоняет операции и не отвечает на фазы фиксации.
+    public void setAvailable(boolean available) {
+        this.isAvailable = available;
+    }
+
+    // Фаза 1. null - голос "да": списания применены и зарезервированы, зачисления ждут фиксации;
+    // иначе - итог отказа, и в шарде ничего не изменено.
+    TransactionOutcome prepare(UUID transactionIdentifier, UUID[] accountIdentifiers, long[] netDeltasInMinorUnits) {
+        if (!isAvailable) {
+            return TransactionOutcome.FAILED_SHARD_UNAVAILABLE;
+        }
+
+        Account[] accounts = new Account[accountIdentifiers.length];
+        for (int i = 0; i < accountIdentifiers.length; i++) {
+            accounts[i] = shardRepository.findAccountOrNull(accountIdentifiers[i]);
+            if (accounts[i] == null) {
+                return netDeltasInMinorUnits[i] < 0 ? TransactionOutcome.FAILED_ACCOUNT_NOT_FOUND : TransactionOutcome.FAILED_TARGET_NOT_FOUND;
+            }
+        }
+        PreparedChanges changes = new PreparedChanges(accounts, netDeltasInMinorUnits);
+
+        changes.lockAll();
+        try {
+            for (int i = 0; i < changes.accounts.length; i++) {
+                Account account = changes.accounts[i];
+                long netDelta = changes.netDeltasInMinorUnits[i];
+                if (account.getIsFrozen()) {
+                    return netDelta < 0 ? TransactionOutcome.FAILED_SOURCE_FROZEN : TransactionOutcome.FAILED_TARGET_FROZEN;
+                }
+                long currentBalance = account.getCurrentBalanceInMinorUnits();
+                if (netDelta < 0 && currentBalance + netDelta < 0) {
+                    return TransactionOutcome.FAILED_INSUFFICIENT_FUNDS;
+                }
+                if (netDelta > 0 && account.creditOverflows(netDelta)) {
+                    return TransactionOutcome.FAILED_BALANCE_OVERFLOW;
+                }
+            }
+            changes.apply(true);
+            preparedTransactions.put(transactionIdentifier, changes);
+            return null;
+        } finally {
+            changes.unlockAll();
+        }
+    }
+
+    // Фаза 2, решение "фиксировать": зачисляет суммы. false - шард недоступен, координатор повторит.
+    boolean commit(UUID transactionIdentifier) {
+        if (!isAvailable) {
+            return false;
+        }
+        PreparedChanges changes = preparedTransactions.remove(transactionIdentifier);
+        if (changes != null) {
+            changes.lockAll();
+            try {
+                changes.apply(false);
+            } finally {
+                changes.unlockAll();
+            }
+        }
+        return true;
+    }
+
+    // Фаза 2, решение "откатить": возвращает зарезервированные списания.
+    boolean abort(UUID transactionIdentifier) {
+        if (!isAvailable) {
+            return false;
+        }
+        PreparedChanges changes = preparedTransactions.remove(transactionIdentifier);
+        if (changes != null) {
+            changes.lockAll();
+            try {
+                changes.refundDebits();
+            } finally {
+                changes.unlockAll();
+            }
+        }
+        return true;
+    }
+
+    // Деньги, списанные подготовленными, но еще не завершенными переводами; нужны для сверки баланса кластера.
+    public long getEscrowedInMinorUnits() {
+        long escrowed = 0;
+        for (PreparedChanges changes : preparedTransactions.values()) {
+            for (long netDelta : changes.netDeltasInMinorUnits) {
+                if (netDelta < 0) {
+                    escrowed -= netDelta;
+                }
+            }
+        }
+        return escrowed;
+    }
+
+    public int getPreparedCount() {
+        return preparedTransactions.size();
+    }
+
+    public void shutdown() {
+        shardProcessor.shutdown();
+    }
+
+    // Изменения одной транзакции в этом шарде; счета упорядочены по UUID - глобальный порядок блокировок.
+    private final class PreparedChanges {
+
+        final Account[] accounts;
+        final long[] netDeltasInMinorUnits;
+
+        PreparedChanges(Account[] unorderedAccounts, long[] unorderedDeltas) {
+            Integer[] order = new Integer[unorderedAccounts.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparing(i -> unorderedAccounts[i].getAccountIdentifier()));
+            this.accounts = new Account[order.length];
+            this.netDeltasInMinorUnits = new long[order.length];
+            for (int i = 0; i < order.length; i++) {
+                accounts[i] = unorderedAccounts[order[i]];
+                netDeltasInMinorUnits[i] = unorderedDeltas[order[i]];
+            }
+        }
+
+        void lockAll() {
+            for (Account account : accounts) {
+                account.getAccountOperationLock().lock();
+            }
+        }
+
+        void unlockAll() {
+            for (int i = accounts.length - 1; i >= 0; i--) {
+                accounts[i].getAccountOperationLock().unlock();
+            }
+        }
+
+        // Вызывается под блокировками: applyDebits - фаза подготовки (списания и резерв зачислений),
+        // иначе - зачисления при фиксации в счет резерва.
+        void apply(boolean applyDebits) {
+            for (int i = 0; i < accounts.length; i++) {
+                Account account = accounts[i];
+                long netDelta = netDeltasInMinorUnits[i];
+                if (applyDebits && netDelta < 0) {
+                    account.setCurrentBalanceInMinorUnits(account.getCurrentBalanceInMinorUnits() + netDelta);
+                    shardRepository.saveAccount(account);
+                } else if (applyDebits && netDelta > 0) {
+                    account.setReservedCreditsInMinorUnits(account.getReservedCreditsInMinorUnits() + netDelta);
+                } else if (!applyDebits && netDelta > 0) {
+                    account.setReservedCreditsInMinorUnits(account.getReservedCreditsInMinorUnits() - netDelta);
+                    // Резерв гарантирует место под зачисление; переполнение здесь - нарушенный инвариант, а не отказ.
+                    if (account.creditOverflows(netDelta)) {
+                        throw new IllegalStateException("Reserved credit of " + netDelta + " overflows account " + account.getAccountIdentifier());
+                    }
+                    account.setCurrentBalanceInMinorUnits(account.getCurrentBalanceInMinorUnits() + netDelta);
+                    shardRepository.saveAccount(account);
+                }
+            }
+        }
+
+        void refundDebits() {
+            for (int i = 0; i < accounts.length; i++) {
+                long netDelta = netDeltasInMinorUnits[i];
+                if (netDelta < 0) {
+                    accounts[i].setCurrentBalanceInMinorUnits(accounts[i].getCurrentBalanceInMinorUnits() - netDelta);
+                    shardRepository.saveAccount(accounts[i]);
+                } else if (netDelta > 0) {
+                    accounts[i].setReservedCreditsInMinorUnits(accounts[i].getReservedCreditsInMinorUnits() - netDelta);
+                }
+            }
+        }
+    }
+}
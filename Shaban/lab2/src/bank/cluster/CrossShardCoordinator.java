@@ -0,0 +1,225 @@
+package bank.cluster;
+
+import bank.core.models.Account;
+import bank.core.models.Transaction;
+import bank.core.models.TransactionOutcome;
+import bank.core.models.TransferLeg;
+import bank.patterns.strategy.TransactionActionType;
+import bank.service.TransactionEventDispatcher;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Координатор двухфазной фиксации для переводов между шардами.
+// Фаза 1 опрашивает шарды по очереди (сначала шарды со списаниями: отказ по остатку обычно там);
+// первый же отказ откатывает уже подготовленные шарды. Фаза 2 рассылает решение; шарду,
+// который в этот момент недоступен, решение повторяется, пока он не ответит, - подготовленный
+// участник обязан дождаться решения, поэтому деньги не теряются и не удваиваются.
+// Future фиксированного перевода завершается после зачисления во всех шардах, отклоненного - сразу.
+class CrossShardCoordinator {
+
+    private static final long DECISION_RETRY_MILLIS = 50;
+
+    private final ShardedTransactionCluster cluster;
+    private final ExecutorService coordinatorExecutor;
+    private final ScheduledExecutorService decisionRetryExecutor;
+    private final TransactionEventDispatcher eventDispatcher;
+    private final LongAdder committedCount = new LongAdder();
+    private final LongAdder abortedCount = new LongAdder();
+    private final AtomicInteger unresolvedDecisionCount = new AtomicInteger();
+
+    CrossShardCoordinator(ShardedTransactionCluster cluster, int threadCount, TransactionEventDispatcher dispatcher) {
+        this.cluster = cluster;
+        this.coordinatorExecutor = Executors.newFixedThreadPool(threadCount);
+        this.decisionRetryExecutor = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread retryThread = new Thread(task, "cross-shard-decision-retry");
+            retryThread.setDaemon(true);
+            return retryThread;
+        });
+        this.eventDispatcher = dispatcher;
+    }
+
+    CompletableFuture<Transaction> submitAsync(Transaction crossShardTransaction) {
+        CompletableFuture<Transaction> completionFuture = new CompletableFuture<>();
+        crossShardTransaction.attachCompletionFuture(completionFuture);
+        crossShardTransaction.markSubmitted();
+        coordinatorExecutor.execute(() -> execute(crossShardTransaction));
+        return completionFuture;
+    }
+
+    private void execute(Transaction transaction) {
+        Map<UUID, Long> netDeltas = resolveNetDeltas(transaction);
+        if (netDeltas == null) {
+            complete(transaction);
+            return;
+        }
+
+        // Ноги взаимно погасились: менять нечего, перевод успешен без фаз фиксации.
+        if (netDeltas.isEmpty()) {
+            committedCount.increment();
+            recordCommitOutcome(transaction);
+            complete(transaction);
+            return;
+        }
+
+        List<ShardParticipation> participations = groupByShard(netDeltas);
+        List<ShardParticipation> preparedParticipations = new ArrayList<>(participations.size());
+        for (ShardParticipation participation : participations) {
+            TransactionOutcome rejection = participation.shard.prepare(
+                    transaction.getTransactionIdentifier(), participation.accountIdentifiers, participation.netDeltasInMinorUnits);
+            if (rejection != null) {
+                transaction.recordOutcome(rejection);
+                abortedCount.increment();
+                for (ShardParticipation prepared : preparedParticipations) {
+                    deliverDecision(transaction, prepared.shard, false, null);
+                }
+                complete(transaction);
+                return;
+            }
+            preparedParticipations.add(participation);
+        }
+
+        committedCount.increment();
+        AtomicInteger pendingCommits = new AtomicInteger(preparedParticipations.size());
+        for (ShardParticipation prepared : preparedParticipations) {
+            deliverDecision(transaction, prepared.shard, true, pendingCommits);
+        }
+    }
+
+    private void deliverDecision(Transaction transaction, AccountShard shard, boolean isCommit, AtomicInteger pendingCommits) {
+        UUID transactionIdentifier = transaction.getTransactionIdentifier();
+        boolean delivered = isCommit ? shard.commit(transactionIdentifier) : shard.abort(transactionIdentifier);
+        if (!delivered) {
+            unresolvedDecisionCount.incrementAndGet();
+            decisionRetryExecutor.schedule(() -> {
+                unresolvedDecisionCount.decrementAndGet();
+                deliverDecision(transaction, shard, isCommit, pendingCommits);
+            }, DECISION_RETRY_MILLIS, TimeUnit.MILLISECONDS);
+            return;
+        }
+        if (isCommit && pendingCommits.decrementAndGet() == 0) {
+            recordCommitOutcome(transaction);
+            complete(transaction);
+        }
+    }
+
+    private void recordCommitOutcome(Transaction transaction) {
+        Account initiatingAccount = cluster.findAccountOrNull(transaction.getAccountIdentifier());
+        long resultingBalance = initiatingAccount == null ? 0 : initiatingAccount.getCurrentBalanceInMinorUnits();
+        transaction.recordOutcome(transaction.getActionType() == TransactionActionType.MULTI_TRANSFER
+                ? TransactionOutcome.SUCCESS_MULTI_TRANSFERRED
+                : TransactionOutcome.SUCCESS_TRANSFERRED, resultingBalance);
+    }
+
+    // Итоговое изменение каждого счета после взаимозачета ног; null - транзакция отклонена до подготовки.
+    private Map<UUID, Long> resolveNetDeltas(Transaction transaction) {
+        if (cluster.findAccountOrNull(transaction.getAccountIdentifier()) == null) {
+            transaction.recordOutcome(TransactionOutcome.FAILED_ACCOUNT_NOT_FOUND);
+            return null;
+        }
+
+        List<TransferLeg> legs = transaction.getActionType() == TransactionActionType.MULTI_TRANSFER
+                ? transaction.getTransferLegs()
+                : List.of(new TransferLeg(transaction.getAccountIdentifier(), transaction.getTargetAccountIdentifier(),
+                        transaction.getTransactionAmountInMinorUnits()));
+        if (legs.isEmpty()) {
+            transaction.recordOutcome(TransactionOutcome.FAILED_NO_TRANSFER_LEGS);
+            return null;
+        }
+
+        Map<UUID, Long> netDeltas = new LinkedHashMap<>();
+        for (TransferLeg leg : legs) {
+            if (leg.getAmountInMinorUnits() <= 0) {
+                transaction.recordOutcome(TransactionOutcome.FAILED_NON_POSITIVE_AMOUNT);
+                return null;
+            }
+            if (leg.getSourceAccountIdentifier().equals(leg.getTargetAccountIdentifier())) {
+                transaction.recordOutcome(TransactionOutcome.FAILED_SAME_ACCOUNT);
+                return null;
+            }
+            netDeltas.merge(leg.getSourceAccountIdentifier(), -leg.getAmountInMinorUnits(), Long::sum);
+            netDeltas.merge(leg.getTargetAccountIdentifier(), leg.getAmountInMinorUnits(), Long::sum);
+        }
+        // Счета с нулевым итогом в подготовку не попадут, поэтому их существование проверяется здесь, как и в MultiTransferPlan.
+        for (Map.Entry<UUID, Long> netDelta : netDeltas.entrySet()) {
+            if (netDelta.getValue() == 0 && cluster.findAccountOrNull(netDelta.getKey()) == null) {
+                transaction.recordOutcome(TransactionOutcome.FAILED_TARGET_NOT_FOUND);
+                return null;
+            }
+        }
+        netDeltas.values().removeIf(netDelta -> netDelta == 0);
+        return netDeltas;
+    }
+
+    private List<ShardParticipation> groupByShard(Map<UUID, Long> netDeltas) {
+        Map<Integer, List<Map.Entry<UUID, Long>>> entriesByShard = new LinkedHashMap<>();
+        for (Map.Entry<UUID, Long> netDelta : netDeltas.entrySet()) {
+            entriesByShard.computeIfAbsent(cluster.shardIndexOf(netDelta.getKey()), ignored -> new ArrayList<>()).add(netDelta);
+        }
+
+        List<ShardParticipation> participations = new ArrayList<>(entriesByShard.size());
+        for (Map.Entry<Integer, List<Map.Entry<UUID, Long>>> shardEntries : entriesByShard.entrySet()) {
+            participations.add(new ShardParticipation(cluster.getShard(shardEntries.getKey()), shardEntries.getValue()));
+        }
+        participations.sort((first, second) -> Boolean.compare(second.hasDebits, first.hasDebits));
+        return participations;
+    }
+
+    private void complete(Transaction transaction) {
+        transaction.markCompleted();
+        eventDispatcher.publish(transaction);
+    }
+
+    long getCommittedCount() {
+        return committedCount.sum();
+    }
+
+    long getAbortedCount() {
+        return abortedCount.sum();
+    }
+
+    int getUnresolvedDecisionCount() {
+        return unresolvedDecisionCount.get();
+    }
+
+    void shutdown() {
+        coordinatorExecutor.shutdown();
+        try {
+            coordinatorExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        decisionRetryExecutor.shutdown();
+    }
+
+    private static final class ShardParticipation {
+
+        final AccountShard shard;
+        final UUID[] accountIdentifiers;
+        final long[] netDeltasInMinorUnits;
+        final boolean hasDebits;
+
+        ShardParticipation(AccountShard shard, List<Map.Entry<UUID, Long>> netDeltas) {
+            this.shard = shard;
+            this.accountIdentifiers = new UUID[netDeltas.size()];
+            this.netDeltasInMinorUnits = new long[netDeltas.size()];
+            boolean anyDebit = false;
+            for (int i = 0; i < netDeltas.size(); i++) {
+                accountIdentifiers[i] = netDeltas.get(i).getKey();
+                netDeltasInMinorUnits[i] = netDeltas.get(i).getValue();
+                anyDebit |= netDeltasInMinorUnits[i] < 0;
+            }
+            this.hasDebits = anyDebit;
+        }
+    }
+}
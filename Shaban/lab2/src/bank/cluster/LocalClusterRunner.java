@@ -0,0 +1,78 @@
+package bank.cluster;
+
+import bank.core.models.Account;
+import bank.core.models.Transaction;
+import bank.core.models.TransactionOutcome;
+import bank.patterns.strategy.TransactionActionType;
+import bank.service.ExecutionMode;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+// Локальный режим кластера: N шардов в одном процессе, поток случайных переводов
+// (большая часть - межшардовые), на середине прогона один шард временно "падает".
+// В конце печатает статистику по шардам и сверяет, что сумма денег в кластере не изменилась.
+// Аргументы: [число шардов] [число счетов] [число переводов].
+public class LocalClusterRunner {
+
+    public static void main(String[] arguments) throws Exception {
+        int shardCount = arguments.length > 0 ? Integer.parseInt(arguments[0]) : 4;
+        int accountCount = arguments.length > 1 ? Integer.parseInt(arguments[1]) : 1000;
+        int transferCount = arguments.length > 2 ? Integer.parseInt(arguments[2]) : 200_000;
+
+        try (ShardedTransactionCluster cluster = new ShardedTransactionCluster(shardCount, accountCount / shardCount + 1, ExecutionMode.ACCOUNT_LANES)) {
+            List<Account> accounts = new ArrayList<>(accountCount);
+            for (int i = 0; i < accountCount; i++) {
+                Account account = new Account();
+                account.setCurrentBalanceInMinorUnits(1_000_000);
+                cluster.openAccount(account);
+                accounts.add(account);
+            }
+            long initialTotal = cluster.getTotalMoneyInMinorUnits();
+
+            Random random = new Random(42);
+            List<CompletableFuture<Transaction>> pendingTransfers = new ArrayList<>(transferCount);
+            long startNanos = System.nanoTime();
+            for (int i = 0; i < transferCount; i++) {
+                if (i == transferCount / 2) {
+                    cluster.getShard(0).setAvailable(false);
+                } else if (i == transferCount / 2 + transferCount / 10) {
+                    cluster.getShard(0).setAvailable(true);
+                }
+                Account source = accounts.get(random.nextInt(accountCount));
+                Account target = accounts.get(random.nextInt(accountCount));
+                BigDecimal amount = BigDecimal.valueOf(1 + random.nextInt(5000), 2);
+                pendingTransfers.add(cluster.submitAsync(new Transaction(TransactionActionType.TRANSFER, amount,
+                        source.getAccountIdentifier(), target.getAccountIdentifier())));
+            }
+            CompletableFuture.allOf(pendingTransfers.toArray(new CompletableFuture<?>[0])).join();
+            long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+
+            Map<TransactionOutcome, Integer> outcomeCounts = new EnumMap<>(TransactionOutcome.class);
+            for (CompletableFuture<Transaction> pendingTransfer : pendingTransfers) {
+                outcomeCounts.merge(pendingTransfer.join().getOutcome(), 1, Integer::sum);
+            }
+
+            System.out.println("Transfers: " + transferCount + " in " + elapsedMillis + " ms");
+            for (int i = 0; i < cluster.getShardCount(); i++) {
+                AccountShard shard = cluster.getShard(i);
+                System.out.println("Shard " + i + ": accounts=" + shard.getRepository().size()
+                        + ", prepared=" + shard.getPreparedCount()
+                        + ", escrowed=" + shard.getEscrowedInMinorUnits());
+            }
+            System.out.println("Cross-shard committed=" + cluster.getCrossShardCommittedCount()
+                    + ", aborted=" + cluster.getCrossShardAbortedCount()
+                    + ", unresolved decisions=" + cluster.getUnresolvedDecisionCount());
+            outcomeCounts.forEach((outcome, count) -> System.out.println(outcome.name() + ": " + count));
+
+            long finalTotal = cluster.getTotalMoneyInMinorUnits();
+            System.out.println("Money conservation: " + (initialTotal == finalTotal ? "OK" : "VIOLATED")
+                    + " (" + initialTotal + " -> " + finalTotal + ")");
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package bank.cluster;
+
+import bank.core.models.Account;
+import bank.core.models.Transaction;
+import bank.core.models.TransactionOutcome;
+import bank.core.models.TransferLeg;
+import bank.patterns.observer.TransactionStatusListener;
+import bank.service.ExecutionMode;
+import bank.service.TransactionEventDispatcher;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+// Локальный кластер из N шардов в одной JVM. Счет принадлежит шарду по хешу UUID; операции,
+// все счета которых лежат в одном шарде, уходят в процессор этого шарда, а переводы между шардами
+// (TRANSFER и MULTI_TRANSFER) проходят двухфазную фиксацию через CrossShardCoordinator.
+public final class ShardedTransactionCluster implements AutoCloseable {
+
+    private final AccountShard[] accountShards;
+    private final CrossShardCoordinator crossShardCoordinator;
+    private final TransactionEventDispatcher crossShardDispatcher;
+
+    public ShardedTransactionCluster(int shardCount, int expectedAccountsPerShard, ExecutionMode mode) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be positive");
+        }
+        this.accountShards = new AccountShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            accountShards[i] = new AccountShard(i, expectedAccountsPerShard, mode);
+        }
+        this.crossShardDispatcher = new TransactionEventDispatcher();
+        this.crossShardCoordinator = new CrossShardCoordinator(this, Runtime.getRuntime().availableProcessors(), crossShardDispatcher);
+    }
+
+    public int getShardCount() {
+        return accountShards.length;
+    }
+
+    public AccountShard getShard(int shardIndex) {
+        return accountShards[shardIndex];
+    }
+
+    public int shardIndexOf(UUID accountIdentifier) {
+        // Финализатор SplitMix64, как и в StripedAccountRepository: шард не должен зависеть от структуры UUID.
+        long mixed = accountIdentifier.getMostSignificantBits() * 0x9E3779B97F4A7C15L ^ accountIdentifier.getLeastSignificantBits();
+        mixed = (mixed ^ (mixed >>> 30)) * 0xBF58476D1CE4E5B9L;
+        mixed = (mixed ^ (mixed >>> 27)) * 0x94D049BB133111EBL;
+        mixed ^= mixed >>> 31;
+        return (int) Math.floorMod(mixed, (long) accountShards.length);
+    }
+
+    public void openAccount(Account newAccount) {
+        accountShards[shardIndexOf(newAccount.getAccountIdentifier())].getRepository().saveAccount(newAccount);
+    }
+
+    public Account findAccountOrNull(UUID accountIdentifier) {
+        return accountShards[shardIndexOf(accountIdentifier)].getRepository().findAccountOrNull(accountIdentifier);
+    }
+
+    public void forEachAccount(Consumer<Account> accountConsumer) {
+        for (AccountShard shard : accountShards) {
+            shard.getRepository().forEachAccount(accountConsumer);
+        }
+    }
+
+    // Слушатель получает завершения всех шардов и межшардовых переводов.
+    public void registerListener(TransactionStatusListener listener) {
+        for (AccountShard shard : accountShards) {
+            shard.getProcessor().registerListener(listener);
+        }
+        crossShardDispatcher.register(listener);
+    }
+
+    public CompletableFuture<Transaction> submitAsync(Transaction newTransaction) {
+        int homeShardIndex = shardIndexOf(newTransaction.getAccountIdentifier());
+        if (!isLocalTo(homeShardIndex, newTransaction)) {
+            return crossShardCoordinator.submitAsync(newTransaction);
+        }
+
+        AccountShard homeShard = accountShards[homeShardIndex];
+        if (!homeShard.isAvailable()) {
+            CompletableFuture<Transaction> rejectedFuture = new CompletableFuture<>();
+            newTransaction.attachCompletionFuture(rejectedFuture);
+            newTransaction.markSubmitted();
+            newTransaction.recordOutcome(TransactionOutcome.FAILED_SHARD_UNAVAILABLE);
+            newTransaction.markCompleted();
+            return rejectedFuture;
+        }
+        return homeShard.getProcessor().submitAsync(newTransaction);
+    }
+
+    private boolean isLocalTo(int homeShardIndex, Transaction transaction) {
+        UUID targetIdentifier = transaction.getTargetAccountIdentifier();
+        if (targetIdentifier != null && shardIndexOf(targetIdentifier) != homeShardIndex) {
+            return false;
+        }
+        for (TransferLeg leg : transaction.getTransferLegs()) {
+            if (shardIndexOf(leg.getSourceAccountIdentifier()) != homeShardIndex
+                    || shardIndexOf(leg.getTargetAccountIdentifier()) != homeShardIndex) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Сумма балансов плюс деньги в резерве незавершенных межшардовых переводов; в покое не меняется
+    // ни от каких переводов.
+    public long getTotalMoneyInMinorUnits() {
+        long[] totalBalance = {0};
+        forEachAccount(account -> totalBalance[0] += account.getCurrentBalanceInMinorUnits());
+        for (AccountShard shard : accountShards) {
+            totalBalance[0] += shard.getEscrowedInMinorUnits();
+        }
+        return totalBalance[0];
+    }
+
+    public long getCrossShardCommittedCount() {
+        return crossShardCoordinator.getCommittedCount();
+    }
+
+    public long getCrossShardAbortedCount() {
+        return crossShardCoordinator.getAbortedCount();
+    }
+
+    public int getUnresolvedDecisionCount() {
+        return crossShardCoordinator.getUnresolvedDecisionCount();
+    }
+
+    @Override
+    public void close() {
+        crossShardCoordinator.shutdown();
+        for (AccountShard shard : accountShards) {
+            shard.shutdown();
+        }
+        crossShardDispatcher.shutdown();
+    }
+}
@@ -2,19 +2,32 @@ package bank.core.models;
 
 import java.math.BigDecimal;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 public class Account {
 
     private final UUID accountIdentifier;
-    private BigDecimal currentBalance;
-    private boolean isFrozen;
+    // volatile: баланс и флаг заморозки читаются UI и стратегиями без блокировки.
+    private volatile long currentBalanceInMinorUnits;
+    private volatile boolean isFrozen;
+    // Версия seqlock для баланса и флага заморозки: нечетное значение - идет запись.
+    // Читатель readBalanceSnapshot не берет блокировок и повторяет чтение, если версия сменилась.
+    private final AtomicLong stateVersion = new AtomicLong();
+    // Номер последней записи журнала, примененной к счету; меняется под блокировкой счета.
+    private volatile long journalSequenceNumber;
+    // Зачисления межшардовых переводов: подготовлены, но еще не зафиксированы. Меняется под блокировкой счета.
+    private long reservedCreditsInMinorUnits;
     private final Lock accountOperationLock;
 
     public Account() {
-        this.accountIdentifier = UUID.randomUUID();
-        this.currentBalance = new BigDecimal("0.00");
+        this(UUID.randomUUID());
+    }
+
+    public Account(UUID accountIdentifier) {
+        this.accountIdentifier = accountIdentifier;
+        this.currentBalanceInMinorUnits = 0L;
         this.isFrozen = false;
         this.accountOperationLock = new ReentrantLock();
     }
@@ -24,11 +37,21 @@ public class Account {
     }
 
     public BigDecimal getCurrentBalance() {
-        return currentBalance;
+        return MinorUnits.toBigDecimal(getCurrentBalanceInMinorUnits());
     }
 
     public void setCurrentBalance(BigDecimal currentBalance) {
-        this.currentBalance = currentBalance;
+        setCurrentBalanceInMinorUnits(MinorUnits.fromBigDecimal(currentBalance));
+    }
+
+    public long getCurrentBalanceInMinorUnits() {
+        return currentBalanceInMinorUnits;
+    }
+
+    public void setCurrentBalanceInMinorUnits(long currentBalanceInMinorUnits) {
+        long writeVersion = beginStateWrite();
+        this.currentBalanceInMinorUnits = currentBalanceInMinorUnits;
+        stateVersion.set(writeVersion + 1);
     }
 
     public boolean getIsFrozen() {
@@ -36,17 +59,66 @@ public class Account {
     }
 
     public void setIsFrozen(boolean isFrozen) {
+        long writeVersion = beginStateWrite();
         this.isFrozen = isFrozen;
+        stateVersion.set(writeVersion + 1);
+    }
+
+    public AccountBalanceSnapshot readBalanceSnapshot() {
+        while (true) {
+            long versionBefore = stateVersion.get();
+            if ((versionBefore & 1L) == 0) {
+                long balance = currentBalanceInMinorUnits;
+                boolean frozen = isFrozen;
+                if (stateVersion.get() == versionBefore) {
+                    return new AccountBalanceSnapshot(accountIdentifier, balance, frozen, versionBefore);
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    // Стратегии пишут под блокировкой счета, но запись бывает и вне ее (открытие счета, восстановление),
+    // поэтому нечетную версию захватываем через CAS. Секция записи - одно поле, ожидание короткое.
+    private long beginStateWrite() {
+        while (true) {
+            long observedVersion = stateVersion.get();
+            if ((observedVersion & 1L) == 0 && stateVersion.compareAndSet(observedVersion, observedVersion + 1)) {
+                return observedVersion + 1;
+            }
+            Thread.onSpinWait();
+        }
     }
     
+    public long getJournalSequenceNumber() {
+        return journalSequenceNumber;
+    }
+
+    public void setJournalSequenceNumber(long journalSequenceNumber) {
+        this.journalSequenceNumber = journalSequenceNumber;
+    }
+
+    public long getReservedCreditsInMinorUnits() {
+        return reservedCreditsInMinorUnits;
+    }
+
+    public void setReservedCreditsInMinorUnits(long reservedCreditsInMinorUnits) {
+        this.reservedCreditsInMinorUnits = reservedCreditsInMinorUnits;
+    }
+
+    // Переполнит ли зачисление баланс с учетом зарезервированных зачислений; вызывается под блокировкой счета.
+    public boolean creditOverflows(long creditAmountInMinorUnits) {
+        long currentBalance = currentBalanceInMinorUnits;
+        return MinorUnits.sumOverflows(currentBalance, reservedCreditsInMinorUnits)
+                || MinorUnits.sumOverflows(currentBalance + reservedCreditsInMinorUnits, creditAmountInMinorUnits);
+    }
+
     public Lock getAccountOperationLock() {
         return accountOperationLock;
     }
 
     @Override
     public String toString() {
-        return "AccountIdentifier: " + accountIdentifier.toString().substring(0, 8) + 
-               ", Balance: " + currentBalance.toPlainString() + 
-               ", Frozen: " + isFrozen;
+        return readBalanceSnapshot().toString();
     }
 }
@@ -0,0 +1,49 @@
+package bank.core.models;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+// Согласованный снимок счета: баланс и флаг заморозки, которые действительно были у счета
+// одновременно. stateVersion меняется при каждом изменении состояния - по нему читатель
+// может понять, что перерисовывать нечего.
+public final class AccountBalanceSnapshot {
+
+    private final UUID accountIdentifier;
+    private final long balanceInMinorUnits;
+    private final boolean isFrozen;
+    private final long stateVersion;
+
+    public AccountBalanceSnapshot(UUID accountIdentifier, long balanceInMinorUnits, boolean isFrozen, long stateVersion) {
+        this.accountIdentifier = accountIdentifier;
+        this.balanceInMinorUnits = balanceInMinorUnits;
+        this.isFrozen = isFrozen;
+        this.stateVersion = stateVersion;
+    }
+
+    public UUID getAccountIdentifier() {
+        return accountIdentifier;
+    }
+
+    public long getBalanceInMinorUnits() {
+        return balanceInMinorUnits;
+    }
+
+    public BigDecimal getBalance() {
+        return MinorUnits.toBigDecimal(balanceInMinorUnits);
+    }
+
+    public boolean getIsFrozen() {
+        return isFrozen;
+    }
+
+    public long getStateVersion() {
+        return stateVersion;
+    }
+
+    @Override
+    public String toString() {
+        return "AccountIdentifier: " + accountIdentifier.toString().substring(0, 8) +
+               ", Balance: " + MinorUnits.format(balanceInMinorUnits) +
+               ", Frozen: " + isFrozen;
+    }
+}
@@ -0,0 +1,85 @@
+package bank.core.models;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Вариант счета без блокировки: баланс и флаг заморозки упакованы в одно значение long
+// (старшие 63 бита - баланс в минимальных единицах, младший бит - заморозка) и меняются через CAS.
+public class AtomicAccount extends Account {
+
+    public static final long MAX_BALANCE_IN_MINOR_UNITS = Long.MAX_VALUE >> 1;
+    public static final long MIN_BALANCE_IN_MINOR_UNITS = Long.MIN_VALUE >> 1;
+
+    private static final long FROZEN_BIT = 1L;
+
+    private final AtomicLong packedAccountState;
+
+    public AtomicAccount() {
+        this(UUID.randomUUID());
+    }
+
+    public AtomicAccount(UUID accountIdentifier) {
+        super(accountIdentifier);
+        this.packedAccountState = new AtomicLong(packState(0L, false));
+    }
+
+    public static long packState(long balanceInMinorUnits, boolean frozen) {
+        if (!isBalanceInRange(balanceInMinorUnits)) {
+            throw new ArithmeticException("Balance " + balanceInMinorUnits + " does not fit into the packed account state.");
+        }
+        return (balanceInMinorUnits << 1) | (frozen ? FROZEN_BIT : 0L);
+    }
+
+    public static long balanceOf(long packedState) {
+        return packedState >> 1;
+    }
+
+    public static boolean isFrozen(long packedState) {
+        return (packedState & FROZEN_BIT) != 0;
+    }
+
+    public static boolean isBalanceInRange(long balanceInMinorUnits) {
+        return balanceInMinorUnits >= MIN_BALANCE_IN_MINOR_UNITS && balanceInMinorUnits <= MAX_BALANCE_IN_MINOR_UNITS;
+    }
+
+    public long readState() {
+        return packedAccountState.get();
+    }
+
+    public boolean compareAndSetState(long expectedState, long updatedState) {
+        return packedAccountState.compareAndSet(expectedState, updatedState);
+    }
+
+    @Override
+    public long getCurrentBalanceInMinorUnits() {
+        return balanceOf(packedAccountState.get());
+    }
+
+    @Override
+    public void setCurrentBalanceInMinorUnits(long currentBalanceInMinorUnits) {
+        long observedState;
+        do {
+            observedState = packedAccountState.get();
+        } while (!packedAccountState.compareAndSet(observedState, packState(currentBalanceInMinorUnits, isFrozen(observedState))));
+    }
+
+    // Баланс и заморозка и так лежат в одном слове: снимок - одно чтение, версией служит само упакованное состояние.
+    @Override
+    public AccountBalanceSnapshot readBalanceSnapshot() {
+        long observedState = packedAccountState.get();
+        return new AccountBalanceSnapshot(getAccountIdentifier(), balanceOf(observedState), isFrozen(observedState), observedState);
+    }
+
+    @Override
+    public boolean getIsFrozen() {
+        return isFrozen(packedAccountState.get());
+    }
+
+    @Override
+    public void setIsFrozen(boolean isFrozen) {
+        long observedState;
+        do {
+            observedState = packedAccountState.get();
+        } while (!packedAccountState.compareAndSet(observedState, packState(balanceOf(observedState), isFrozen)));
+    }
+}
@@ -0,0 +1,51 @@
+package bank.core.models;
+
+import java.math.BigDecimal;
+
+// Денежные суммы внутри ядра хранятся как long в минимальных единицах (копейках/центах).
+// BigDecimal используется только на границах: при создании Transaction и при выводе.
+public final class MinorUnits {
+
+    public static final int SCALE = 2;
+
+    private static final long UNITS_PER_MAJOR = 100;
+
+    private MinorUnits() {
+    }
+
+    public static long fromBigDecimal(BigDecimal amount) {
+        if (amount == null) {
+            throw new IllegalArgumentException("Amount must not be null.");
+        }
+        try {
+            return amount.movePointRight(SCALE).longValueExact();
+        } catch (ArithmeticException conversionException) {
+            throw new IllegalArgumentException("Amount " + amount.toPlainString()
+                    + " has more than " + SCALE + " decimal places or is out of range.", conversionException);
+        }
+    }
+
+    public static BigDecimal toBigDecimal(long amountInMinorUnits) {
+        return BigDecimal.valueOf(amountInMinorUnits, SCALE);
+    }
+
+    public static boolean sumOverflows(long firstAmount, long secondAmount) {
+        long sum = firstAmount + secondAmount;
+        return ((firstAmount ^ sum) & (secondAmount ^ sum)) < 0;
+    }
+
+    public static String format(long amountInMinorUnits) {
+        StringBuilder formatted = new StringBuilder(24);
+        if (amountInMinorUnits < 0) {
+            formatted.append('-');
+        }
+        // Long.MIN_VALUE нельзя взять по модулю, поэтому делим с учетом знака.
+        long majorPart = Math.abs(amountInMinorUnits / UNITS_PER_MAJOR);
+        long minorPart = Math.abs(amountInMinorUnits % UNITS_PER_MAJOR);
+        formatted.append(majorPart).append('.');
+        if (minorPart < 10) {
+            formatted.append('0');
+        }
+        return formatted.append(minorPart).toString();
+    }
+}
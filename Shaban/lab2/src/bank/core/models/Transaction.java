@@ -4,25 +4,92 @@ import bank.patterns.strategy.TransactionActionType;
 import bank.patterns.visitor.TransactionVisitor;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public class Transaction {
 
+    // Фиксированная ширина: LocalTime.toString() опускает нулевые секунды, и обрезка строки ломалась на ровной минуте.
+    static final DateTimeFormatter TIME_OF_DAY_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss");
+
     private final UUID transactionIdentifier;
-    private final LocalDateTime transactionTimestamp;
+    // Время хранится числом: LocalDateTime собирается только при показе.
+    private final long transactionTimestampMillis;
     private final TransactionActionType actionType;
     private final BigDecimal transactionAmount;
+    private final long transactionAmountInMinorUnits;
     private final UUID accountIdentifier;
-    private String statusMessage;
+    private final UUID targetAccountIdentifier;
+    private final List<TransferLeg> transferLegs;
+    private TransactionOutcome outcome;
+    private long resultingBalanceInMinorUnits;
+    private String outcomeDetail;
+    private long submittedAtNanos;
+    private long completedAtNanos;
+    private long executionNanos;
+    private long lockWaitNanos;
+    private CompletableFuture<Transaction> completionFuture;
+    private TransactionPriority schedulingPriority;
+    private boolean hasDeadline;
+    private long deadlineNanos;
 
     public Transaction(TransactionActionType actionType, BigDecimal amount, UUID accountIdentifier) {
-        this.transactionIdentifier = UUID.randomUUID();
-        this.transactionTimestamp = LocalDateTime.now();
+        this(actionType, amount, accountIdentifier, null);
+    }
+
+    public Transaction(TransactionActionType actionType, BigDecimal amount, UUID accountIdentifier, UUID targetAccountIdentifier) {
+        this.transactionTimestampMillis = System.currentTimeMillis();
+        this.transactionIdentifier = TransactionIdGenerator.nextIdentifier(transactionTimestampMillis);
         this.actionType = actionType;
         this.transactionAmount = amount;
+        this.transactionAmountInMinorUnits = MinorUnits.fromBigDecimal(amount);
+        this.accountIdentifier = accountIdentifier;
+        this.targetAccountIdentifier = targetAccountIdentifier;
+        this.transferLegs = List.of();
+        this.outcome = TransactionOutcome.PENDING;
+    }
+
+    // Для массовой загрузки: сумма уже разобрана в копейки, BigDecimal строится из них без разбора строки.
+    public Transaction(TransactionActionType actionType, long amountInMinorUnits, UUID accountIdentifier, UUID targetAccountIdentifier) {
+        this.transactionTimestampMillis = System.currentTimeMillis();
+        this.transactionIdentifier = TransactionIdGenerator.nextIdentifier(transactionTimestampMillis);
+        this.actionType = actionType;
+        this.transactionAmountInMinorUnits = amountInMinorUnits;
+        this.transactionAmount = MinorUnits.toBigDecimal(amountInMinorUnits);
         this.accountIdentifier = accountIdentifier;
-        this.statusMessage = "Pending";
+        this.targetAccountIdentifier = targetAccountIdentifier;
+        this.transferLegs = List.of();
+        this.outcome = TransactionOutcome.PENDING;
+    }
+
+    // Многоадресный перевод: все ноги применяются атомарно. Счет-инициатор определяет, в какой
+    // полосе исполняется операция; сам он не обязан участвовать в ногах.
+    public Transaction(UUID initiatingAccountIdentifier, List<TransferLeg> legs) {
+        this.transactionTimestampMillis = System.currentTimeMillis();
+        this.transactionIdentifier = TransactionIdGenerator.nextIdentifier(transactionTimestampMillis);
+        this.actionType = TransactionActionType.MULTI_TRANSFER;
+        this.transferLegs = List.copyOf(legs);
+        this.transactionAmountInMinorUnits = totalLegAmount(transferLegs);
+        this.transactionAmount = MinorUnits.toBigDecimal(transactionAmountInMinorUnits);
+        this.accountIdentifier = initiatingAccountIdentifier;
+        this.targetAccountIdentifier = null;
+        this.outcome = TransactionOutcome.PENDING;
+    }
+
+    private static long totalLegAmount(List<TransferLeg> legs) {
+        long totalAmount = 0;
+        for (TransferLeg leg : legs) {
+            if (MinorUnits.sumOverflows(totalAmount, leg.getAmountInMinorUnits())) {
+                throw new IllegalArgumentException("Total amount of transfer legs is out of range");
+            }
+            totalAmount += leg.getAmountInMinorUnits();
+        }
+        return totalAmount;
     }
 
     public UUID getTransactionIdentifier() {
@@ -30,7 +97,11 @@ public class Transaction {
     }
 
     public LocalDateTime getTransactionTimestamp() {
-        return transactionTimestamp;
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(transactionTimestampMillis), ZoneId.systemDefault());
+    }
+
+    public long getTransactionTimestampMillis() {
+        return transactionTimestampMillis;
     }
 
     public TransactionActionType getActionType() {
@@ -41,16 +112,136 @@ public class Transaction {
         return transactionAmount;
     }
 
+    public long getTransactionAmountInMinorUnits() {
+        return transactionAmountInMinorUnits;
+    }
+
     public UUID getAccountIdentifier() {
         return accountIdentifier;
     }
 
-    public String getStatusMessage() {
-        return statusMessage;
+    public UUID getTargetAccountIdentifier() {
+        return targetAccountIdentifier;
+    }
+
+    public List<TransferLeg> getTransferLegs() {
+        return transferLegs;
+    }
+
+    public TransactionOutcome getOutcome() {
+        return outcome;
+    }
+
+    // Баланс счета-источника после операции (для отказа по остатку - текущий баланс).
+    public long getResultingBalanceInMinorUnits() {
+        return resultingBalanceInMinorUnits;
+    }
+
+    public void recordOutcome(TransactionOutcome outcome) {
+        this.outcome = outcome;
+    }
+
+    public void recordOutcome(TransactionOutcome outcome, long resultingBalanceInMinorUnits) {
+        this.outcome = outcome;
+        this.resultingBalanceInMinorUnits = resultingBalanceInMinorUnits;
+    }
+
+    // Только для ERROR_*: текст исключения сохраняется как есть, без форматирования.
+    public void recordFailure(TransactionOutcome outcome, String outcomeDetail) {
+        this.outcome = outcome;
+        this.outcomeDetail = outcomeDetail;
+    }
+
+    public void markSubmitted() {
+        this.submittedAtNanos = System.nanoTime();
+    }
+
+    public long getSubmittedAtNanos() {
+        return submittedAtNanos;
+    }
+
+    public long getCompletedAtNanos() {
+        return completedAtNanos;
+    }
+
+    // Время от приема процессором до завершения; 0, пока транзакция не завершена.
+    public long getEndToEndLatencyNanos() {
+        return completedAtNanos == 0 ? 0 : completedAtNanos - submittedAtNanos;
+    }
+
+    public long getExecutionNanos() {
+        return executionNanos;
+    }
+
+    public void recordExecutionNanos(long executionNanos) {
+        this.executionNanos = executionNanos;
+    }
+
+    public long getLockWaitNanos() {
+        return lockWaitNanos;
+    }
+
+    // Перевод ждет две блокировки, поэтому время ожидания накапливается.
+    public void addLockWaitNanos(long waitedNanos) {
+        this.lockWaitNanos += waitedNanos;
+    }
+
+    public TransactionPriority getSchedulingPriority() {
+        return schedulingPriority != null ? schedulingPriority : TransactionPriority.defaultFor(actionType);
     }
 
-    public void setStatusMessage(String statusMessage) {
-        this.statusMessage = statusMessage;
+    // Задается отправителем до отправки; без этого приоритет определяется типом операции.
+    public void setSchedulingPriority(TransactionPriority schedulingPriority) {
+        this.schedulingPriority = schedulingPriority;
+    }
+
+    public boolean hasDeadline() {
+        return hasDeadline;
+    }
+
+    public long getDeadlineNanos() {
+        return deadlineNanos;
+    }
+
+    // Срок - момент по часам System.nanoTime(); транзакция, не начавшая исполнение к этому моменту,
+    // завершается с FAILED_DEADLINE_EXPIRED и счета не трогает.
+    public void setDeadlineNanos(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+        this.hasDeadline = true;
+    }
+
+    public boolean isPastDeadline(long nowNanos) {
+        return hasDeadline && nowNanos - deadlineNanos > 0;
+    }
+
+    // Future создается только для submitAsync, поэтому обычная отправка за него не платит.
+    public void attachCompletionFuture(CompletableFuture<Transaction> future) {
+        this.completionFuture = future;
+    }
+
+    public void markCompleted() {
+        this.completedAtNanos = System.nanoTime();
+        if (completionFuture != null) {
+            completionFuture.complete(this);
+        }
+    }
+
+    // Человекочитаемый статус собирается только здесь - по запросу UI или логов.
+    public String getStatusMessage() {
+        String statusText = outcome.getStatusText();
+        if (outcome.isError()) {
+            return statusText + " " + outcomeDetail;
+        }
+
+        StringBuilder statusBuilder = new StringBuilder(statusText);
+        if (outcome == TransactionOutcome.SUCCESS_TRANSFERRED && targetAccountIdentifier != null) {
+            statusBuilder.append(' ').append(targetAccountIdentifier.toString(), 0, 4).append('.');
+        }
+        if (outcome.getBalanceLabel() != null) {
+            statusBuilder.append(' ').append(outcome.getBalanceLabel()).append(": ")
+                    .append(MinorUnits.format(resultingBalanceInMinorUnits));
+        }
+        return statusBuilder.toString();
     }
     
     public void accept(TransactionVisitor visitor) {
@@ -60,9 +251,9 @@ public class Transaction {
     @Override
     public String toString() {
         return transactionIdentifier.toString().substring(0, 4) + 
-               " - " + transactionTimestamp.toLocalTime().toString().substring(0, 8) + 
+               " - " + TIME_OF_DAY_FORMAT.format(getTransactionTimestamp()) + 
                " | Action: " + actionType.name() + 
                " | Amount: " + transactionAmount.toPlainString() + 
-               " | Status: " + statusMessage;
+               " | Status: " + getStatusMessage();
     }
 }
@@ -0,0 +1,84 @@
+package bank.core.models;
+
+import bank.patterns.strategy.TransactionActionType;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
+
+// Запись истории, собранная из колонок TransactionHistoryStore по запросу. Сам Transaction
+// в истории не хранится: у него тяжелые поля (BigDecimal, future, тайминги), нужные только в полете.
+public final class TransactionHistoryEntry {
+
+    private final UUID transactionIdentifier;
+    private final long timestampMillis;
+    private final TransactionActionType actionType;
+    private final long amountInMinorUnits;
+    private final UUID accountIdentifier;
+    private final UUID targetAccountIdentifier;
+    private final TransactionOutcome outcome;
+    private final long resultingBalanceInMinorUnits;
+
+    public TransactionHistoryEntry(UUID transactionIdentifier, long timestampMillis, TransactionActionType actionType,
+                                   long amountInMinorUnits, UUID accountIdentifier, UUID targetAccountIdentifier,
+                                   TransactionOutcome outcome, long resultingBalanceInMinorUnits) {
+        this.transactionIdentifier = transactionIdentifier;
+        this.timestampMillis = timestampMillis;
+        this.actionType = actionType;
+        this.amountInMinorUnits = amountInMinorUnits;
+        this.accountIdentifier = accountIdentifier;
+        this.targetAccountIdentifier = targetAccountIdentifier;
+        this.outcome = outcome;
+        this.resultingBalanceInMinorUnits = resultingBalanceInMinorUnits;
+    }
+
+    public UUID getTransactionIdentifier() {
+        return transactionIdentifier;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    public LocalDateTime getTransactionTimestamp() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(timestampMillis), ZoneId.systemDefault());
+    }
+
+    public TransactionActionType getActionType() {
+        return actionType;
+    }
+
+    public long getAmountInMinorUnits() {
+        return amountInMinorUnits;
+    }
+
+    public UUID getAccountIdentifier() {
+        return accountIdentifier;
+    }
+
+    public UUID getTargetAccountIdentifier() {
+        return targetAccountIdentifier;
+    }
+
+    public TransactionOutcome getOutcome() {
+        return outcome;
+    }
+
+    public long getResultingBalanceInMinorUnits() {
+        return resultingBalanceInMinorUnits;
+    }
+
+    @Override
+    public String toString() {
+        String entryText = transactionIdentifier.toString().substring(0, 4) +
+               " - " + Transaction.TIME_OF_DAY_FORMAT.format(getTransactionTimestamp()) +
+               " | Action: " + actionType.name() +
+               " | Amount: " + MinorUnits.format(amountInMinorUnits) +
+               " | Outcome: " + outcome.name();
+        if (outcome.getBalanceLabel() != null) {
+            entryText += " | " + outcome.getBalanceLabel() + ": " + MinorUnits.format(resultingBalanceInMinorUnits);
+        }
+        return entryText;
+    }
+}
@@ -0,0 +1,73 @@
+package bank.core.models;
+
+// Итог транзакции. Текст статуса собирается только по запросу (Transaction.getStatusMessage),
+// поэтому на горячем пути фиксируется лишь код и числовые поля.
+public enum TransactionOutcome {
+    PENDING("Pending", null),
+
+    SUCCESS_DEPOSITED("SUCCESS: Funds deposited.", "New Balance"),
+    SUCCESS_WITHDRAWN("SUCCESS: Funds withdrawn.", "New Balance"),
+    SUCCESS_FROZEN("SUCCESS: Account has been FROZEN.", null),
+    SUCCESS_TRANSFERRED("SUCCESS: Funds transferred to", "Source New Balance"),
+    SUCCESS_MULTI_TRANSFERRED("SUCCESS: All transfer legs applied.", "Initiator New Balance"),
+
+    FAILED_ACCOUNT_NOT_FOUND("FAILED: Target account not found in repository.", null),
+    FAILED_ACCOUNT_FROZEN("FAILED: Account is frozen and cannot be modified.", null),
+    FAILED_SOURCE_FROZEN("FAILED: Source account is frozen.", null),
+    FAILED_TARGET_FROZEN("FAILED: Target account is frozen.", null),
+    FAILED_TARGET_NOT_FOUND("FAILED: Target account not found.", null),
+    FAILED_SAME_ACCOUNT("FAILED: Source and target accounts must be different.", null),
+    FAILED_NON_POSITIVE_AMOUNT("FAILED: Amount must be positive.", null),
+    FAILED_NO_TRANSFER_LEGS("FAILED: Multi-transfer has no legs.", null),
+    FAILED_INSUFFICIENT_FUNDS("FAILED: Insufficient funds.", "Current Balance"),
+    FAILED_BALANCE_OVERFLOW("FAILED: Operation would overflow the account balance.", null),
+    FAILED_UNSUPPORTED_ACCOUNT("FAILED: Account type is not supported by this strategy.", null),
+    FAILED_EXECUTION_INCOMPLETE("FAILED: Execution could not be completed.", null),
+    FAILED_ENGINE_REJECTED("FAILED: Execution engine rejected the transaction, retry later.", null),
+    FAILED_ACCOUNT_RATE_LIMITED("FAILED: Account rate limit exceeded, retry later.", null),
+    FAILED_GLOBAL_RATE_LIMITED("FAILED: System rate limit exceeded, retry later.", null),
+    FAILED_OVERLOADED("FAILED: Too many transactions in flight, retry later.", null),
+    FAILED_SHARD_UNAVAILABLE("FAILED: Account shard is unavailable, retry later.", null),
+    FAILED_DEADLINE_EXPIRED("FAILED: Deadline expired before execution.", null),
+
+    ERROR_EXECUTION("ERROR: System failure during execution:", null),
+    ERROR_SETUP("ERROR: System failure during setup:", null);
+
+    private final String statusText;
+    private final String balanceLabel;
+    private final boolean isSuccessful;
+
+    TransactionOutcome(String statusText, String balanceLabel) {
+        this.statusText = statusText;
+        this.balanceLabel = balanceLabel;
+        this.isSuccessful = statusText.startsWith("SUCCESS");
+    }
+
+    public String getStatusText() {
+        return statusText;
+    }
+
+    // null, если к статусу не прикладывается баланс.
+    public String getBalanceLabel() {
+        return balanceLabel;
+    }
+
+    public boolean isPending() {
+        return this == PENDING;
+    }
+
+    public boolean isSuccess() {
+        return isSuccessful;
+    }
+
+    public boolean isError() {
+        return this == ERROR_EXECUTION || this == ERROR_SETUP;
+    }
+
+    // Операция не исполнялась из-за временной перегрузки: повтор с тем же ключом должен исполниться заново.
+    public boolean isRetryable() {
+        return this == FAILED_ENGINE_REJECTED || this == FAILED_ACCOUNT_RATE_LIMITED
+                || this == FAILED_GLOBAL_RATE_LIMITED || this == FAILED_OVERLOADED || this == FAILED_SHARD_UNAVAILABLE
+                || this == FAILED_DEADLINE_EXPIRED;
+    }
+}
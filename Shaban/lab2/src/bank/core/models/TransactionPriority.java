@@ -0,0 +1,17 @@
+package bank.core.models;
+
+import bank.patterns.strategy.TransactionActionType;
+
+// Класс приоритета для PriorityExecutionEngine; порядок констант - порядок обслуживания.
+// URGENT обслуживает еще и выделенный поток движка и не ограничивается контролем допуска.
+public enum TransactionPriority {
+    URGENT,
+    NORMAL,
+    BACKGROUND;
+
+    // Приоритет по умолчанию, если отправитель не задал свой: заморозка (реакция на мошенничество)
+    // не должна стоять в очереди за обычными операциями.
+    public static TransactionPriority defaultFor(TransactionActionType actionType) {
+        return actionType == TransactionActionType.FREEZE ? URGENT : NORMAL;
+    }
+}
@@ -0,0 +1,34 @@
+package bank.core.models;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+// Одна нога многоадресного перевода: сумма переходит со счета-источника на счет-получатель.
+public final class TransferLeg {
+
+    private final UUID sourceAccountIdentifier;
+    private final UUID targetAccountIdentifier;
+    private final long amountInMinorUnits;
+
+    public TransferLeg(UUID sourceAccountIdentifier, UUID targetAccountIdentifier, BigDecimal amount) {
+        this(sourceAccountIdentifier, targetAccountIdentifier, MinorUnits.fromBigDecimal(amount));
+    }
+
+    public TransferLeg(UUID sourceAccountIdentifier, UUID targetAccountIdentifier, long amountInMinorUnits) {
+        this.sourceAccountIdentifier = sourceAccountIdentifier;
+        this.targetAccountIdentifier = targetAccountIdentifier;
+        this.amountInMinorUnits = amountInMinorUnits;
+    }
+
+    public UUID getSourceAccountIdentifier() {
+        return sourceAccountIdentifier;
+    }
+
+    public UUID getTargetAccountIdentifier() {
+        return targetAccountIdentifier;
+    }
+
+    public long getAmountInMinorUnits() {
+        return amountInMinorUnits;
+    }
+}
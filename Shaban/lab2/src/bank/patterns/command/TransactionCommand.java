@@ -2,6 +2,7 @@ package bank.patterns.command;
 
 import bank.core.models.Account;
 import bank.core.models.Transaction;
+import bank.core.models.TransactionOutcome;
 import bank.patterns.strategy.TransactionStrategy;
 import bank.repository.AccountRepository;
 
@@ -9,31 +10,86 @@ import java.util.function.Consumer;
 
 public class TransactionCommand implements Runnable {
 
-    private final Account targetAccount;
-    private final Transaction transactionData;
-    private final TransactionStrategy executionStrategy;
+    // Изменяемы только у команд из пула: их перезаписывает TransactionCommandPool.acquire,
+    // а видимость для рабочего потока обеспечивает очередь движка.
+    private Account targetAccount;
+    private Transaction transactionData;
+    private TransactionStrategy executionStrategy;
     private final Consumer<Transaction> completionHandler;
     private final AccountRepository repository;
+    private final TransactionCommandPool ownerPool;
 
     public TransactionCommand(Account account, Transaction transaction, TransactionStrategy strategy, Consumer<Transaction> handler, AccountRepository accountRepository) {
+        this(account, transaction, strategy, handler, accountRepository, null);
+    }
+
+    TransactionCommand(Account account, Transaction transaction, TransactionStrategy strategy, Consumer<Transaction> handler,
+                       AccountRepository accountRepository, TransactionCommandPool pool) {
         this.targetAccount = account;
         this.transactionData = transaction;
         this.executionStrategy = strategy;
         this.completionHandler = handler;
         this.repository = accountRepository;
+        this.ownerPool = pool;
     }
 
-    @Override
-    public void run() {
+    void assign(Account account, Transaction transaction, TransactionStrategy strategy) {
+        this.targetAccount = account;
+        this.transactionData = transaction;
+        this.executionStrategy = strategy;
+    }
+
+    // Возвращает команду в пул. После вызова команду нельзя ни выполнять, ни читать:
+    // ее может сразу забрать другой поток. Для команд вне пула ничего не делает.
+    public void recycle() {
+        if (ownerPool == null) {
+            return;
+        }
+        targetAccount = null;
+        transactionData = null;
+        executionStrategy = null;
+        ownerPool.release(this);
+    }
+
+    public Account getTargetAccount() {
+        return targetAccount;
+    }
+
+    public Transaction getTransactionData() {
+        return transactionData;
+    }
+
+    // Выполняет только стратегию, без уведомления: используется пакетной обработкой,
+    // которая сама сохраняет счет и рассылает завершения сразу для всей пачки.
+    public void executeStrategy() {
+        long executionStartNanos = System.nanoTime();
+        // Просроченная транзакция не исполняется: отправитель результата уже не ждет.
+        if (transactionData.isPastDeadline(executionStartNanos)) {
+            transactionData.recordOutcome(TransactionOutcome.FAILED_DEADLINE_EXPIRED);
+            return;
+        }
         try {
             boolean result = executionStrategy.executeTransaction(targetAccount, transactionData, repository);
-            if (!result && transactionData.getStatusMessage().contains("Pending")) {
-                transactionData.setStatusMessage("FAILED: Execution could not be completed.");
+            if (!result && transactionData.getOutcome().isPending()) {
+                transactionData.recordOutcome(TransactionOutcome.FAILED_EXECUTION_INCOMPLETE);
             }
         } catch (Exception executionException) {
-            transactionData.setStatusMessage("ERROR: System failure during execution: " + executionException.getMessage());
+            transactionData.recordFailure(TransactionOutcome.ERROR_EXECUTION, executionException.getMessage());
+        } finally {
+            transactionData.recordExecutionNanos(System.nanoTime() - executionStartNanos);
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            executeStrategy();
         } finally {
-            completionHandler.accept(transactionData);
+            try {
+                completionHandler.accept(transactionData);
+            } finally {
+                recycle();
+            }
         }
     }
 }
\ No newline at end of file
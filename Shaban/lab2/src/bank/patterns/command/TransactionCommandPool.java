@@ -0,0 +1,60 @@
+package bank.patterns.command;
+
+import bank.core.models.Account;
+import bank.core.models.Transaction;
+import bank.patterns.strategy.TransactionStrategy;
+import bank.repository.AccountRepository;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+// Пул команд без блокировок и с потерями: команду берет поток-отправитель, а возвращает рабочий поток
+// движка, поэтому и взятие, и возврат пробуют несколько случайных ячеек одним CAS каждая.
+// Не нашли свободную команду - создается новая; некуда вернуть - команда достается сборщику мусора.
+public class TransactionCommandPool {
+
+    private static final int DEFAULT_SLOT_COUNT = 1024;
+    private static final int PROBE_COUNT = 4;
+
+    private final AtomicReferenceArray<TransactionCommand> pooledCommands;
+    private final int slotMask;
+    private final Consumer<Transaction> completionHandler;
+    private final AccountRepository repository;
+
+    public TransactionCommandPool(Consumer<Transaction> handler, AccountRepository accountRepository) {
+        this(DEFAULT_SLOT_COUNT, handler, accountRepository);
+    }
+
+    public TransactionCommandPool(int requestedSlotCount, Consumer<Transaction> handler, AccountRepository accountRepository) {
+        int slotCount = Integer.highestOneBit(Math.max(PROBE_COUNT, requestedSlotCount));
+        this.pooledCommands = new AtomicReferenceArray<>(slotCount);
+        this.slotMask = slotCount - 1;
+        this.completionHandler = handler;
+        this.repository = accountRepository;
+    }
+
+    public TransactionCommand acquire(Account account, Transaction transaction, TransactionStrategy strategy) {
+        int firstSlot = ThreadLocalRandom.current().nextInt();
+        for (int probe = 0; probe < PROBE_COUNT; probe++) {
+            int slot = (firstSlot + probe) & slotMask;
+            TransactionCommand pooledCommand = pooledCommands.get(slot);
+            if (pooledCommand != null && pooledCommands.compareAndSet(slot, pooledCommand, null)) {
+                pooledCommand.assign(account, transaction, strategy);
+                return pooledCommand;
+            }
+        }
+        return new TransactionCommand(account, transaction, strategy, completionHandler, repository, this);
+    }
+
+    // Вызывается командой, когда на нее больше никто не ссылается: после run() или после отказа движка.
+    void release(TransactionCommand finishedCommand) {
+        int firstSlot = ThreadLocalRandom.current().nextInt();
+        for (int probe = 0; probe < PROBE_COUNT; probe++) {
+            int slot = (firstSlot + probe) & slotMask;
+            if (pooledCommands.get(slot) == null && pooledCommands.compareAndSet(slot, null, finishedCommand)) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package bank.patterns.factory;
+
+import bank.patterns.strategy.OptimisticDepositStrategy;
+import bank.patterns.strategy.OptimisticFreezeStrategy;
+import bank.patterns.strategy.OptimisticMultiTransferStrategy;
+import bank.patterns.strategy.OptimisticTransferStrategy;
+import bank.patterns.strategy.OptimisticWithdrawalStrategy;
+import bank.patterns.strategy.TransactionActionType;
+import bank.patterns.strategy.TransactionStrategy;
+
+public class OptimisticTransactionStrategyFactory extends TransactionStrategyFactory {
+
+    // Изменения применяются CAS без блокировок счетов.
+    @Override
+    public boolean appliesUnderAccountLocks() {
+        return false;
+    }
+
+    @Override
+    protected TransactionStrategy newStrategy(TransactionActionType actionType) {
+        switch (actionType) {
+            case DEPOSIT:
+                return new OptimisticDepositStrategy();
+            case WITHDRAWAL:
+                return new OptimisticWithdrawalStrategy();
+            case FREEZE:
+                return new OptimisticFreezeStrategy();
+            case TRANSFER:
+                return new OptimisticTransferStrategy();
+            case MULTI_TRANSFER:
+                return new OptimisticMultiTransferStrategy();
+            default:
+                throw new IllegalArgumentException("Unknown action type: " + actionType);
+        }
+    }
+}
@@ -6,10 +6,40 @@ import bank.patterns.strategy.DepositStrategy;
 import bank.patterns.strategy.WithdrawalStrategy;
 import bank.patterns.strategy.FreezeStrategy;
 import bank.patterns.strategy.TransferStrategy;
+import bank.patterns.strategy.MultiTransferStrategy;
+
+import java.util.EnumMap;
+import java.util.Map;
 
 public class TransactionStrategyFactory {
 
-    public TransactionStrategy createStrategy(TransactionActionType actionType) {
+    // Стратегии без состояния, поэтому на каждый тип операции достаточно одного экземпляра.
+    // Кэш строится при первом обращении и публикуется целиком через volatile, после чего только читается.
+    private volatile Map<TransactionActionType, TransactionStrategy> cachedStrategies;
+
+    public final TransactionStrategy createStrategy(TransactionActionType actionType) {
+        Map<TransactionActionType, TransactionStrategy> strategies = cachedStrategies;
+        if (strategies == null) {
+            strategies = buildStrategyCache();
+            cachedStrategies = strategies;
+        }
+        return strategies.get(actionType);
+    }
+
+    // Стратегии этой фабрики проверяют и меняют счета под их блокировками.
+    public boolean appliesUnderAccountLocks() {
+        return true;
+    }
+
+    private Map<TransactionActionType, TransactionStrategy> buildStrategyCache() {
+        Map<TransactionActionType, TransactionStrategy> strategies = new EnumMap<>(TransactionActionType.class);
+        for (TransactionActionType actionType : TransactionActionType.values()) {
+            strategies.put(actionType, newStrategy(actionType));
+        }
+        return strategies;
+    }
+
+    protected TransactionStrategy newStrategy(TransactionActionType actionType) {
         switch (actionType) {
             case DEPOSIT:
                 return new DepositStrategy();
@@ -19,6 +49,8 @@ public class TransactionStrategyFactory {
                 return new FreezeStrategy();
             case TRANSFER:
                 return new TransferStrategy();
+            case MULTI_TRANSFER:
+                return new MultiTransferStrategy();
             default:
                 throw new IllegalArgumentException("Unknown action type: " + actionType);
         }
@@ -2,7 +2,15 @@ package bank.patterns.observer;
 
 import bank.core.models.Transaction;
 
+import java.util.List;
+
 public interface TransactionStatusListener {
 
     void notifyTransactionUpdate(Transaction updatedTransaction);
+
+    default void notifyTransactionBatch(List<Transaction> completedBatch) {
+        for (Transaction completedTransaction : completedBatch) {
+            notifyTransactionUpdate(completedTransaction);
+        }
+    }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package bank.patterns.strategy;
 
 import bank.core.models.Account;
 import bank.core.models.Transaction;
+import bank.core.models.TransactionOutcome;
 import bank.repository.AccountRepository;
 
 public class DepositStrategy implements TransactionStrategy {
@@ -9,19 +10,30 @@ public class DepositStrategy implements TransactionStrategy {
     @Override
     public boolean executeTransaction(Account targetAccount, Transaction transactionData, AccountRepository repository) {
         if (targetAccount.getIsFrozen()) {
-            transactionData.setStatusMessage("FAILED: Account is frozen and cannot be modified.");
+            transactionData.recordOutcome(TransactionOutcome.FAILED_ACCOUNT_FROZEN);
             return false;
         }
 
-        if (transactionData.getTransactionAmount().signum() <= 0) {
-            transactionData.setStatusMessage("FAILED: Deposit amount must be positive.");
+        long depositAmount = transactionData.getTransactionAmountInMinorUnits();
+        if (depositAmount <= 0) {
+            transactionData.recordOutcome(TransactionOutcome.FAILED_NON_POSITIVE_AMOUNT);
             return false;
         }
 
+        long lockRequestedNanos = System.nanoTime();
         targetAccount.getAccountOperationLock().lock();
+        transactionData.addLockWaitNanos(System.nanoTime() - lockRequestedNanos);
         try {
-            targetAccount.setCurrentBalance(targetAccount.getCurrentBalance().add(transactionData.getTransactionAmount()));
-            transactionData.setStatusMessage("SUCCESS: Funds deposited. New Balance: " + targetAccount.getCurrentBalance().toPlainString());
+            long currentBalance = targetAccount.getCurrentBalanceInMinorUnits();
+            if (targetAccount.creditOverflows(depositAmount)) {
+                transactionData.recordOutcome(TransactionOutcome.FAILED_BALANCE_OVERFLOW);
+                return false;
+            }
+
+            long resultingBalance = currentBalance + depositAmount;
+            repository.recordAppliedTransaction(transactionData);
+            targetAccount.setCurrentBalanceInMinorUnits(resultingBalance);
+            transactionData.recordOutcome(TransactionOutcome.SUCCESS_DEPOSITED, resultingBalance);
             return true;
         } finally {
             targetAccount.getAccountOperationLock().unlock();
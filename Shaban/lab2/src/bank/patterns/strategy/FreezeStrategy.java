@@ -2,16 +2,20 @@ package bank.patterns.strategy;
 
 import bank.core.models.Account;
 import bank.core.models.Transaction;
+import bank.core.models.TransactionOutcome;
 import bank.repository.AccountRepository;
 
 public class FreezeStrategy implements TransactionStrategy {
 
     @Override
     public boolean executeTransaction(Account targetAccount, Transaction transactionData, AccountRepository repository) {
+        long lockRequestedNanos = System.nanoTime();
         targetAccount.getAccountOperationLock().lock();
+        transactionData.addLockWaitNanos(System.nanoTime() - lockRequestedNanos);
         try {
+            repository.recordAppliedTransaction(transactionData);
             targetAccount.setIsFrozen(true);
-            transactionData.setStatusMessage("SUCCESS: Account has been FROZEN.");
+            transactionData.recordOutcome(TransactionOutcome.SUCCESS_FROZEN);
             return true;
         } finally {
             targetAccount.getAccountOperationLock().unlock();
@@ -0,0 +1,94 @@
+package bank.patterns.strategy;
+
+import bank.core.models.Account;
+import bank.core.models.Transaction;
+import bank.core.models.TransactionOutcome;
+import bank.core.models.TransferLeg;
+import bank.repository.AccountRepository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Разбор многоадресного перевода: различные счета-участники, упорядоченные по UUID
+// (глобальный порядок захвата блокировок), и итоговое изменение баланса каждого из них после взаимозачета.
+final class MultiTransferPlan {
+
+    final Account[] participants;
+    final long[] netDeltaInMinorUnits;
+    final boolean[] isDebited;
+    final boolean[] isCredited;
+    private final Map<UUID, Integer> participantIndexes;
+
+    private MultiTransferPlan(Account[] participants) {
+        this.participants = participants;
+        this.participantIndexes = new HashMap<>(participants.length * 2);
+        for (int i = 0; i < participants.length; i++) {
+            participantIndexes.put(participants[i].getAccountIdentifier(), i);
+        }
+        this.netDeltaInMinorUnits = new long[participants.length];
+        this.isDebited = new boolean[participants.length];
+        this.isCredited = new boolean[participants.length];
+    }
+
+    // Возвращает null и записывает итог в транзакцию, если ноги некорректны.
+    static MultiTransferPlan resolve(Transaction transactionData, AccountRepository repository) {
+        List<TransferLeg> legs = transactionData.getTransferLegs();
+        if (legs.isEmpty()) {
+            transactionData.recordOutcome(TransactionOutcome.FAILED_NO_TRANSFER_LEGS);
+            return null;
+        }
+
+        Map<UUID, Account> participantsByIdentifier = new HashMap<>();
+        for (TransferLeg leg : legs) {
+            if (leg.getAmountInMinorUnits() <= 0) {
+                transactionData.recordOutcome(TransactionOutcome.FAILED_NON_POSITIVE_AMOUNT);
+                return null;
+            }
+            if (leg.getSourceAccountIdentifier().equals(leg.getTargetAccountIdentifier())) {
+                transactionData.recordOutcome(TransactionOutcome.FAILED_SAME_ACCOUNT);
+                return null;
+            }
+            if (!addParticipant(participantsByIdentifier, leg.getSourceAccountIdentifier(), repository)
+                    || !addParticipant(participantsByIdentifier, leg.getTargetAccountIdentifier(), repository)) {
+                transactionData.recordOutcome(TransactionOutcome.FAILED_TARGET_NOT_FOUND);
+                return null;
+            }
+        }
+
+        List<Account> orderedParticipants = new ArrayList<>(participantsByIdentifier.values());
+        orderedParticipants.sort((first, second) -> first.getAccountIdentifier().compareTo(second.getAccountIdentifier()));
+        MultiTransferPlan plan = new MultiTransferPlan(orderedParticipants.toArray(new Account[0]));
+
+        for (TransferLeg leg : legs) {
+            int sourceIndex = plan.indexOf(leg.getSourceAccountIdentifier());
+            int targetIndex = plan.indexOf(leg.getTargetAccountIdentifier());
+            long amount = leg.getAmountInMinorUnits();
+            // Сумма всех ног уже проверена на переполнение в Transaction, поэтому частичные суммы тоже в диапазоне.
+            plan.netDeltaInMinorUnits[sourceIndex] -= amount;
+            plan.netDeltaInMinorUnits[targetIndex] += amount;
+            plan.isDebited[sourceIndex] = true;
+            plan.isCredited[targetIndex] = true;
+        }
+        return plan;
+    }
+
+    private static boolean addParticipant(Map<UUID, Account> participantsByIdentifier, UUID identifier, AccountRepository repository) {
+        if (participantsByIdentifier.containsKey(identifier)) {
+            return true;
+        }
+        Account account = repository.findAccountOrNull(identifier);
+        if (account == null) {
+            return false;
+        }
+        participantsByIdentifier.put(identifier, account);
+        return true;
+    }
+
+    int indexOf(UUID identifier) {
+        Integer participantIndex = participantIndexes.get(identifier);
+        return participantIndex == null ? -1 : participantIndex;
+    }
+}
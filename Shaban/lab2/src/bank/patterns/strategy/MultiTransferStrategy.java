@@ -0,0 +1,71 @@
+package bank.patterns.strategy;
+
+import bank.core.models.Account;
+import bank.core.models.Transaction;
+import bank.core.models.TransactionOutcome;
+import bank.repository.AccountRepository;
+
+// Атомарный перевод по многим ногам: блокировки всех участников берутся в порядке UUID,
+// как и в TransferStrategy, поэтому взаимная блокировка невозможна. Проверки идут по итоговым
+// изменениям после взаимозачета, и применяются либо все ноги, либо ни одной.
+public class MultiTransferStrategy implements TransactionStrategy {
+
+    @Override
+    public boolean executeTransaction(Account initiatingAccount, Transaction transactionData, AccountRepository repository) {
+        MultiTransferPlan plan = MultiTransferPlan.resolve(transactionData, repository);
+        if (plan == null) {
+            return false;
+        }
+        Account[] participants = plan.participants;
+
+        long lockRequestedNanos = System.nanoTime();
+        int lockedCount = 0;
+        try {
+            for (Account participant : participants) {
+                participant.getAccountOperationLock().lock();
+                lockedCount++;
+            }
+            transactionData.addLockWaitNanos(System.nanoTime() - lockRequestedNanos);
+
+            for (int i = 0; i < participants.length; i++) {
+                Account participant = participants[i];
+                if (participant.getIsFrozen() && (plan.isDebited[i] || plan.isCredited[i])) {
+                    transactionData.recordOutcome(plan.isDebited[i] ? TransactionOutcome.FAILED_SOURCE_FROZEN : TransactionOutcome.FAILED_TARGET_FROZEN);
+                    return false;
+                }
+
+                long currentBalance = participant.getCurrentBalanceInMinorUnits();
+                long netDelta = plan.netDeltaInMinorUnits[i];
+                if (netDelta < 0 && currentBalance + netDelta < 0) {
+                    transactionData.recordOutcome(TransactionOutcome.FAILED_INSUFFICIENT_FUNDS, currentBalance);
+                    return false;
+                }
+                if (netDelta > 0 && participant.creditOverflows(netDelta)) {
+                    transactionData.recordOutcome(TransactionOutcome.FAILED_BALANCE_OVERFLOW);
+                    return false;
+                }
+            }
+
+            repository.recordAppliedTransaction(transactionData);
+            for (int i = 0; i < participants.length; i++) {
+                if (plan.netDeltaInMinorUnits[i] != 0) {
+                    participants[i].setCurrentBalanceInMinorUnits(participants[i].getCurrentBalanceInMinorUnits() + plan.netDeltaInMinorUnits[i]);
+                }
+            }
+
+            // Счет-инициатор сохраняет процессор, остальных участников - сама стратегия, как и получателя перевода.
+            for (Account participant : participants) {
+                if (participant != initiatingAccount) {
+                    repository.saveAccount(participant);
+                }
+            }
+
+            transactionData.recordOutcome(TransactionOutcome.SUCCESS_MULTI_TRANSFERRED, initiatingAccount.getCurrentBalanceInMinorUnits());
+            return true;
+        } finally {
+            for (int i = lockedCount - 1; i >= 0; i--) {
+                participants[i].getAccountOperationLock().unlock();
+            }
+        }
+    }
+}
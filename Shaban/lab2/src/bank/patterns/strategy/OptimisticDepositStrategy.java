@@ -0,0 +1,48 @@
+package bank.patterns.strategy;
+
+import bank.core.models.Account;
+import bank.core.models.AtomicAccount;
+import bank.core.models.MinorUnits;
+import bank.core.models.Transaction;
+import bank.core.models.TransactionOutcome;
+import bank.repository.AccountRepository;
+
+public class OptimisticDepositStrategy implements TransactionStrategy {
+
+    @Override
+    public boolean executeTransaction(Account targetAccount, Transaction transactionData, AccountRepository repository) {
+        if (!(targetAccount instanceof AtomicAccount)) {
+            transactionData.recordOutcome(TransactionOutcome.FAILED_UNSUPPORTED_ACCOUNT);
+            return false;
+        }
+        AtomicAccount atomicAccount = (AtomicAccount) targetAccount;
+
+        long depositAmount = transactionData.getTransactionAmountInMinorUnits();
+        if (depositAmount <= 0) {
+            transactionData.recordOutcome(TransactionOutcome.FAILED_NON_POSITIVE_AMOUNT);
+            return false;
+        }
+
+        while (true) {
+            long observedState = atomicAccount.readState();
+            // Заморозка проверяется на том же снимке состояния, который затем подтверждается CAS.
+            if (AtomicAccount.isFrozen(observedState)) {
+                transactionData.recordOutcome(TransactionOutcome.FAILED_ACCOUNT_FROZEN);
+                return false;
+            }
+
+            long currentBalance = AtomicAccount.balanceOf(observedState);
+            if (MinorUnits.sumOverflows(currentBalance, depositAmount) || !AtomicAccount.isBalanceInRange(currentBalance + depositAmount)) {
+                transactionData.recordOutcome(TransactionOutcome.FAILED_BALANCE_OVERFLOW);
+                return false;
+            }
+
+            long resultingBalance = currentBalance + depositAmount;
+            if (atomicAccount.compareAndSetState(observedState, AtomicAccount.packState(resultingBalance, false))) {
+                repository.recordAppliedTransaction(transactionData);
+                transactionData.recordOutcome(TransactionOutcome.SUCCESS_DEPOSITED, resultingBalance);
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package bank.patterns.strategy;
+
+import bank.core.models.Account;
+import bank.core.models.AtomicAccount;
+import bank.core.models.Transaction;
+import bank.core.models.TransactionOutcome;
+import bank.repository.AccountRepository;
+
+public class OptimisticFreezeStrategy implements TransactionStrategy {
+
+    @Override
+    public boolean executeTransaction(Account targetAccount, Transaction transactionData, AccountRepository repository) {
+        if (!(targetAccount instanceof AtomicAccount)) {
+            transactionData.recordOutcome(TransactionOutcome.FAILED_UNSUPPORTED_ACCOUNT);
+            return false;
+        }
+        AtomicAccount atomicAccount = (AtomicAccount) targetAccount;
+
+        while (true) {
+            long observedState = atomicAccount.readState();
+            if (AtomicAccount.isFrozen(observedState)
+                    || atomicAccount.compareAndSetState(observedState, AtomicAccount.packState(AtomicAccount.balanceOf(observedState), true))) {
+                repository.recordAppliedTransaction(transactionData);
+                transactionData.recordOutcome(TransactionOutcome.SUCCESS_FROZEN);
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package bank.patterns.strategy;
+
+import bank.core.models.Account;
+import bank.core.models.AtomicAccount;
+import bank.core.models.MinorUnits;
+import bank.core.models.Transaction;
+import bank.core.models.TransactionOutcome;
+import bank.repository.AccountRepository;
+
+// Многоадресный перевод между AtomicAccount без блокировок, по схеме OptimisticTransferStrategy:
+// 1) предварительная проверка участников (заморозка, переполнение у получателей);
+// 2) CAS-списание итоговых сумм со всех плательщиков; при первом отказе уже списанное возвращается;
+// 3) CAS-зачисление получателям. Перевод считается совершенным в конце шага 2, поэтому
+//    заморозка получателя, случившаяся позже, зачисление не отменяет (как и возврат в refundSource).
+public class OptimisticMultiTransferStrategy implements TransactionStrategy {
+
+    @Override
+    public boolean executeTransaction(Account initiatingAccount, Transaction transactionData, AccountRepository repository) {
+        MultiTransferPlan plan = MultiTransferPlan.resolve(transactionData, repository);
+        if (plan == null) {
+            return false;
+        }
+        Account[] participants = plan.participants;
+        long[] netDelta = plan.netDeltaInMinorUnits;
+
+        for (int i = 0; i < participants.length; i++) {
+            if (!(participants[i] instanceof AtomicAccount)) {
+                transactionData.recordOutcome(TransactionOutcome.FAILED_UNSUPPORTED_ACCOUNT);
+                return false;
+            }
+            long observedState = ((AtomicAccount) participants[i]).readState();
+            if (AtomicAccount.isFrozen(observedState) && (plan.isDebited[i] || plan.isCredited[i])) {
+                transactionData.recordOutcome(plan.isDebited[i] ? TransactionOutcome.FAILED_SOURCE_FROZEN : TransactionOutcome.FAILED_TARGET_FROZEN);
+                return false;
+            }
+            if (netDelta[i] > 0 && !canCredit(AtomicAccount.balanceOf(observedState), netDelta[i])) {
+                transactionData.recordOutcome(TransactionOutcome.FAILED_BALANCE_OVERFLOW);
+                return false;
+            }
+        }
+
+        for (int i = 0; i < participants.length; i++) {
+            if (netDelta[i] < 0 && !tryDebit((AtomicAccount) participants[i], -netDelta[i], transactionData)) {
+                refundDebits(plan, i);
+                return false;
+            }
+        }
+
+        for (int i = 0; i < participants.length; i++) {
+            if (netDelta[i] > 0) {
+                addUnconditionally((AtomicAccount) participants[i], netDelta[i]);
+            }
+        }
+
+        repository.recordAppliedTransaction(transactionData);
+        for (Account participant : participants) {
+            if (participant != initiatingAccount) {
+                repository.saveAccount(participant);
+            }
+        }
+        transactionData.recordOutcome(TransactionOutcome.SUCCESS_MULTI_TRANSFERRED, initiatingAccount.getCurrentBalanceInMinorUnits());
+        return true;
+    }
+
+    private boolean tryDebit(AtomicAccount debitedAccount, long debitAmount, Transaction transactionData) {
+        while (true) {
+            long observedState = debitedAccount.readState();
+            if (AtomicAccount.isFrozen(observedState)) {
+                transactionData.recordOutcome(TransactionOutcome.FAILED_SOURCE_FROZEN);
+                return false;
+            }
+            long currentBalance = AtomicAccount.balanceOf(observedState);
+            if (currentBalance < debitAmount) {
+                transactionData.recordOutcome(TransactionOutcome.FAILED_INSUFFICIENT_FUNDS, currentBalance);
+                return false;
+            }
+            if (debitedAccount.compareAndSetState(observedState, AtomicAccount.packState(currentBalance - debitAmount, false))) {
+                return true;
+            }
+        }
+    }
+
+    // Возвращает списания участников с индексами меньше failedIndex.
+    private void refundDebits(MultiTransferPlan plan, int failedIndex) {
+        for (int i = 0; i < failedIndex; i++) {
+            if (plan.isDebited[i] && plan.netDeltaInMinorUnits[i] < 0) {
+                addUnconditionally((AtomicAccount) plan.participants[i], -plan.netDeltaInMinorUnits[i]);
+            }
+        }
+    }
+
+    // Зачисление и возврат не проверяют заморозку: решение о переводе к этому моменту уже принято.
+    // Переполнение отсечено на шаге 1; нарушить его может только одновременный приток почти в 2^62 единиц,
+    // и тогда packState выбросит ArithmeticException, который команда превратит в ERROR.
+    private void addUnconditionally(AtomicAccount account, long amount) {
+        long observedState;
+        do {
+            observedState = account.readState();
+        } while (!account.compareAndSetState(observedState,
+                AtomicAccount.packState(AtomicAccount.balanceOf(observedState) + amount, AtomicAccount.isFrozen(observedState))));
+    }
+
+    private static boolean canCredit(long currentBalance, long creditAmount) {
+        return !MinorUnits.sumOverflows(currentBalance, creditAmount) && AtomicAccount.isBalanceInRange(currentBalance + creditAmount);
+    }
+}
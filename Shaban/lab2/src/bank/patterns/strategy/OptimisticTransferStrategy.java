@@ -0,0 +1,103 @@
+package bank.patterns.strategy;
+
+import bank.core.models.Account;
+import bank.core.models.AtomicAccount;
+import bank.core.models.MinorUnits;
+import bank.core.models.Transaction;
+import bank.core.models.TransactionOutcome;
+import bank.repository.AccountRepository;
+
+import java.util.UUID;
+
+// Перевод между двумя AtomicAccount без блокировок:
+// 1) CAS-списание с источника (проверка заморозки и остатка);
+// 2) CAS-зачисление получателю (проверка заморозки и переполнения);
+// 3) если зачисление отклонено - компенсирующий CAS-возврат на источник, даже если его успели заморозить.
+// Между шагами 1 и 2 сумма не видна ни на одном из счетов, но итог всегда "всё или ничего".
+public class OptimisticTransferStrategy implements TransactionStrategy {
+
+    @Override
+    public boolean executeTransaction(Account sourceAccount, Transaction transactionData, AccountRepository repository) {
+        long transferAmount = transactionData.getTransactionAmountInMinorUnits();
+        if (transferAmount <= 0) {
+            transactionData.recordOutcome(TransactionOutcome.FAILED_NON_POSITIVE_AMOUNT);
+            return false;
+        }
+
+        UUID targetIdentifier = transactionData.getTargetAccountIdentifier();
+        Account targetAccount = targetIdentifier == null ? null : repository.findAccountOrNull(targetIdentifier);
+        if (targetAccount == null) {
+            transactionData.recordOutcome(TransactionOutcome.FAILED_TARGET_NOT_FOUND);
+            return false;
+        }
+
+        if (!(sourceAccount instanceof AtomicAccount) || !(targetAccount instanceof AtomicAccount)) {
+            transactionData.recordOutcome(TransactionOutcome.FAILED_UNSUPPORTED_ACCOUNT);
+            return false;
+        }
+
+        if (sourceAccount.getAccountIdentifier().equals(targetAccount.getAccountIdentifier())) {
+            transactionData.recordOutcome(TransactionOutcome.FAILED_SAME_ACCOUNT);
+            return false;
+        }
+
+        AtomicAccount atomicSource = (AtomicAccount) sourceAccount;
+        AtomicAccount atomicTarget = (AtomicAccount) targetAccount;
+
+        long sourceResultingBalance;
+        while (true) {
+            long observedSourceState = atomicSource.readState();
+            if (AtomicAccount.isFrozen(observedSourceState)) {
+                transactionData.recordOutcome(TransactionOutcome.FAILED_SOURCE_FROZEN);
+                return false;
+            }
+
+            long sourceBalance = AtomicAccount.balanceOf(observedSourceState);
+            if (sourceBalance < transferAmount) {
+                transactionData.recordOutcome(TransactionOutcome.FAILED_INSUFFICIENT_FUNDS, sourceBalance);
+                return false;
+            }
+
+            sourceResultingBalance = sourceBalance - transferAmount;
+            if (atomicSource.compareAndSetState(observedSourceState, AtomicAccount.packState(sourceResultingBalance, false))) {
+                break;
+            }
+        }
+
+        while (true) {
+            long observedTargetState = atomicTarget.readState();
+            long targetBalance = AtomicAccount.balanceOf(observedTargetState);
+            TransactionOutcome rejectionReason = null;
+
+            if (AtomicAccount.isFrozen(observedTargetState)) {
+                rejectionReason = TransactionOutcome.FAILED_TARGET_FROZEN;
+            } else if (MinorUnits.sumOverflows(targetBalance, transferAmount) || !AtomicAccount.isBalanceInRange(targetBalance + transferAmount)) {
+                rejectionReason = TransactionOutcome.FAILED_BALANCE_OVERFLOW;
+            }
+
+            if (rejectionReason != null) {
+                refundSource(atomicSource, transferAmount);
+                transactionData.recordOutcome(rejectionReason);
+                return false;
+            }
+
+            if (atomicTarget.compareAndSetState(observedTargetState, AtomicAccount.packState(targetBalance + transferAmount, false))) {
+                break;
+            }
+        }
+
+        repository.recordAppliedTransaction(transactionData);
+        repository.saveAccount(targetAccount);
+
+        transactionData.recordOutcome(TransactionOutcome.SUCCESS_TRANSFERRED, sourceResultingBalance);
+        return true;
+    }
+
+    private void refundSource(AtomicAccount sourceAccount, long transferAmount) {
+        long observedState;
+        do {
+            observedState = sourceAccount.readState();
+        } while (!sourceAccount.compareAndSetState(observedState,
+                AtomicAccount.packState(AtomicAccount.balanceOf(observedState) + transferAmount, AtomicAccount.isFrozen(observedState))));
+    }
+}
@@ -0,0 +1,46 @@
+package bank.patterns.strategy;
+
+import bank.core.models.Account;
+import bank.core.models.AtomicAccount;
+import bank.core.models.Transaction;
+import bank.core.models.TransactionOutcome;
+import bank.repository.AccountRepository;
+
+public class OptimisticWithdrawalStrategy implements TransactionStrategy {
+
+    @Override
+    public boolean executeTransaction(Account targetAccount, Transaction transactionData, AccountRepository repository) {
+        if (!(targetAccount instanceof AtomicAccount)) {
+            transactionData.recordOutcome(TransactionOutcome.FAILED_UNSUPPORTED_ACCOUNT);
+            return false;
+        }
+        AtomicAccount atomicAccount = (AtomicAccount) targetAccount;
+
+        long withdrawalAmount = transactionData.getTransactionAmountInMinorUnits();
+        if (withdrawalAmount <= 0) {
+            transactionData.recordOutcome(TransactionOutcome.FAILED_NON_POSITIVE_AMOUNT);
+            return false;
+        }
+
+        while (true) {
+            long observedState = atomicAccount.readState();
+            if (AtomicAccount.isFrozen(observedState)) {
+                transactionData.recordOutcome(TransactionOutcome.FAILED_ACCOUNT_FROZEN);
+                return false;
+            }
+
+            long currentBalance = AtomicAccount.balanceOf(observedState);
+            if (currentBalance < withdrawalAmount) {
+                transactionData.recordOutcome(TransactionOutcome.FAILED_INSUFFICIENT_FUNDS, currentBalance);
+                return false;
+            }
+
+            long resultingBalance = currentBalance - withdrawalAmount;
+            if (atomicAccount.compareAndSetState(observedState, AtomicAccount.packState(resultingBalance, false))) {
+                repository.recordAppliedTransaction(transactionData);
+                transactionData.recordOutcome(TransactionOutcome.SUCCESS_WITHDRAWN, resultingBalance);
+                return true;
+            }
+        }
+    }
+}
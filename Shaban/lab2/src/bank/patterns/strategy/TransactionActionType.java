@@ -4,5 +4,6 @@ public enum TransactionActionType {
     DEPOSIT,
     WITHDRAWAL,
     FREEZE,
-    TRANSFER
+    TRANSFER,
+    MULTI_TRANSFER
 }
\ No newline at end of file
@@ -2,10 +2,9 @@ package bank.patterns.strategy;
 
 import bank.core.models.Account;
 import bank.core.models.Transaction;
+import bank.core.models.TransactionOutcome;
 import bank.repository.AccountRepository;
 
-import java.math.BigDecimal;
-import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.locks.Lock;
 
@@ -14,35 +13,29 @@ public class TransferStrategy implements TransactionStrategy {
     @Override
     public boolean executeTransaction(Account sourceAccount, Transaction transactionData, AccountRepository repository) {
         if (sourceAccount.getIsFrozen()) {
-            transactionData.setStatusMessage("FAILED: Source account is frozen.");
+            transactionData.recordOutcome(TransactionOutcome.FAILED_SOURCE_FROZEN);
             return false;
         }
-        if (transactionData.getTransactionAmount().signum() <= 0) {
-            transactionData.setStatusMessage("FAILED: Transfer amount must be positive.");
+        long transferAmount = transactionData.getTransactionAmountInMinorUnits();
+        if (transferAmount <= 0) {
+            transactionData.recordOutcome(TransactionOutcome.FAILED_NON_POSITIVE_AMOUNT);
             return false;
         }
 
-        Optional<Account> targetAccountOptional = Optional.empty();
-
-        try {
-            targetAccountOptional = repository.findAccountByIdentifier(UUID.fromString(transactionData.getStatusMessage()));
-        } catch (IllegalArgumentException idException) {
-        }
-
-        Account targetAccount = targetAccountOptional.orElse(null);
-
+        UUID targetIdentifier = transactionData.getTargetAccountIdentifier();
+        Account targetAccount = targetIdentifier == null ? null : repository.findAccountOrNull(targetIdentifier);
         if (targetAccount == null) {
-            transactionData.setStatusMessage("FAILED: Target account not found.");
+            transactionData.recordOutcome(TransactionOutcome.FAILED_TARGET_NOT_FOUND);
             return false;
         }
 
         if (targetAccount.getIsFrozen()) {
-            transactionData.setStatusMessage("FAILED: Target account is frozen.");
+            transactionData.recordOutcome(TransactionOutcome.FAILED_TARGET_FROZEN);
             return false;
         }
 
         if (sourceAccount.getAccountIdentifier().equals(targetAccount.getAccountIdentifier())) {
-            transactionData.setStatusMessage("FAILED: Source and target accounts must be different.");
+            transactionData.recordOutcome(TransactionOutcome.FAILED_SAME_ACCOUNT);
             return false;
         }
 
@@ -56,24 +49,32 @@ public class TransferStrategy implements TransactionStrategy {
             secondLock = sourceAccount.getAccountOperationLock();
         }
 
+        long lockRequestedNanos = System.nanoTime();
         firstLock.lock();
         secondLock.lock();
+        transactionData.addLockWaitNanos(System.nanoTime() - lockRequestedNanos);
 
         try {
-            BigDecimal transferAmount = transactionData.getTransactionAmount();
-            BigDecimal withdrawalResult = sourceAccount.getCurrentBalance().subtract(transferAmount);
-            if (withdrawalResult.signum() < 0) {
-                transactionData.setStatusMessage("FAILED: Source account has insufficient funds. Balance: " + sourceAccount.getCurrentBalance().toPlainString());
+            long sourceBalance = sourceAccount.getCurrentBalanceInMinorUnits();
+            if (sourceBalance < transferAmount) {
+                transactionData.recordOutcome(TransactionOutcome.FAILED_INSUFFICIENT_FUNDS, sourceBalance);
+                return false;
+            }
+
+            long targetBalance = targetAccount.getCurrentBalanceInMinorUnits();
+            if (targetAccount.creditOverflows(transferAmount)) {
+                transactionData.recordOutcome(TransactionOutcome.FAILED_BALANCE_OVERFLOW);
                 return false;
             }
 
-            sourceAccount.setCurrentBalance(withdrawalResult);
-            targetAccount.setCurrentBalance(targetAccount.getCurrentBalance().add(transferAmount));
+            long sourceResultingBalance = sourceBalance - transferAmount;
+            repository.recordAppliedTransaction(transactionData);
+            sourceAccount.setCurrentBalanceInMinorUnits(sourceResultingBalance);
+            targetAccount.setCurrentBalanceInMinorUnits(targetBalance + transferAmount);
 
             repository.saveAccount(targetAccount);
 
-            transactionData.setStatusMessage("SUCCESS: Funds transfered to " + targetAccount.getAccountIdentifier().toString().substring(0, 4) +
-                    ". Source New Balance: " + sourceAccount.getCurrentBalance().toPlainString());
+            transactionData.recordOutcome(TransactionOutcome.SUCCESS_TRANSFERRED, sourceResultingBalance);
             return true;
         } finally {
             secondLock.unlock();
@@ -2,34 +2,38 @@ package bank.patterns.strategy;
 
 import bank.core.models.Account;
 import bank.core.models.Transaction;
+import bank.core.models.TransactionOutcome;
 import bank.repository.AccountRepository;
 
-import java.math.BigDecimal;
-
 public class WithdrawalStrategy implements TransactionStrategy {
 
     @Override
     public boolean executeTransaction(Account targetAccount, Transaction transactionData, AccountRepository repository) {
         if (targetAccount.getIsFrozen()) {
-            transactionData.setStatusMessage("FAILED: Account is frozen and cannot be modified.");
+            transactionData.recordOutcome(TransactionOutcome.FAILED_ACCOUNT_FROZEN);
             return false;
         }
 
-        if (transactionData.getTransactionAmount().signum() <= 0) {
-            transactionData.setStatusMessage("FAILED: Withdrawal amount must be positive.");
+        long withdrawalAmount = transactionData.getTransactionAmountInMinorUnits();
+        if (withdrawalAmount <= 0) {
+            transactionData.recordOutcome(TransactionOutcome.FAILED_NON_POSITIVE_AMOUNT);
             return false;
         }
 
+        long lockRequestedNanos = System.nanoTime();
         targetAccount.getAccountOperationLock().lock();
+        transactionData.addLockWaitNanos(System.nanoTime() - lockRequestedNanos);
         try {
-            BigDecimal resultingBalance = targetAccount.getCurrentBalance().subtract(transactionData.getTransactionAmount());
-            if (resultingBalance.signum() < 0) {
-                transactionData.setStatusMessage("FAILED: Insufficient funds. Current Balance: " + targetAccount.getCurrentBalance().toPlainString());
+            long currentBalance = targetAccount.getCurrentBalanceInMinorUnits();
+            if (currentBalance < withdrawalAmount) {
+                transactionData.recordOutcome(TransactionOutcome.FAILED_INSUFFICIENT_FUNDS, currentBalance);
                 return false;
             }
 
-            targetAccount.setCurrentBalance(resultingBalance);
-            transactionData.setStatusMessage("SUCCESS: Funds withdrawn. New Balance: " + targetAccount.getCurrentBalance().toPlainString());
+            long resultingBalance = currentBalance - withdrawalAmount;
+            repository.recordAppliedTransaction(transactionData);
+            targetAccount.setCurrentBalanceInMinorUnits(resultingBalance);
+            transactionData.recordOutcome(TransactionOutcome.SUCCESS_WITHDRAWN, resultingBalance);
             return true;
         } finally {
             targetAccount.getAccountOperationLock().unlock();
@@ -0,0 +1,74 @@
+package bank.patterns.visitor;
+
+import bank.core.models.Transaction;
+import bank.patterns.strategy.TransactionActionType;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Потокобезопасная сводка, которая обновляется по мере завершения транзакций.
+// LongAdder держит отдельные ячейки для конкурирующих потоков и складывает их только при чтении,
+// поэтому запись не упирается в общий счетчик, а отчет можно строить в любой момент под нагрузкой.
+public class StreamingSummaryVisitor implements TransactionVisitor {
+
+    private static final int MINUTE_WINDOW_BUCKETS = 60;
+    private static final long MINUTE_WINDOW_BUCKET_MILLIS = 1_000;
+    private static final int HOUR_WINDOW_BUCKETS = 60;
+    private static final long HOUR_WINDOW_BUCKET_MILLIS = 60_000;
+
+    private final LongAdder totalProcessedCount;
+    private final LongAdder totalDepositsInMinorUnits;
+    private final LongAdder totalWithdrawalsInMinorUnits;
+    private final LongAdder failedCount;
+    private final SummaryWindow lastMinuteWindow;
+    private final SummaryWindow lastHourWindow;
+
+    public StreamingSummaryVisitor() {
+        this.totalProcessedCount = new LongAdder();
+        this.totalDepositsInMinorUnits = new LongAdder();
+        this.totalWithdrawalsInMinorUnits = new LongAdder();
+        this.failedCount = new LongAdder();
+        this.lastMinuteWindow = new SummaryWindow(MINUTE_WINDOW_BUCKETS, MINUTE_WINDOW_BUCKET_MILLIS);
+        this.lastHourWindow = new SummaryWindow(HOUR_WINDOW_BUCKETS, HOUR_WINDOW_BUCKET_MILLIS);
+    }
+
+    @Override
+    public void visit(Transaction transactionElement) {
+        totalProcessedCount.increment();
+
+        boolean isFailed = !transactionElement.getOutcome().isSuccess();
+        long depositAmount = 0;
+        long withdrawalAmount = 0;
+        if (isFailed) {
+            failedCount.increment();
+        } else if (transactionElement.getActionType() == TransactionActionType.DEPOSIT) {
+            depositAmount = transactionElement.getTransactionAmountInMinorUnits();
+            totalDepositsInMinorUnits.add(depositAmount);
+        } else if (transactionElement.getActionType() == TransactionActionType.WITHDRAWAL) {
+            withdrawalAmount = transactionElement.getTransactionAmountInMinorUnits();
+            totalWithdrawalsInMinorUnits.add(withdrawalAmount);
+        }
+
+        long nowMillis = System.currentTimeMillis();
+        lastMinuteWindow.record(nowMillis, depositAmount, withdrawalAmount, isFailed);
+        lastHourWindow.record(nowMillis, depositAmount, withdrawalAmount, isFailed);
+    }
+
+    public SummarySnapshot snapshotTotals() {
+        return new SummarySnapshot("all time", totalProcessedCount.sum(), totalDepositsInMinorUnits.sum(),
+                totalWithdrawalsInMinorUnits.sum(), failedCount.sum());
+    }
+
+    public SummarySnapshot snapshotLastMinute() {
+        return lastMinuteWindow.snapshot("last minute", System.currentTimeMillis());
+    }
+
+    public SummarySnapshot snapshotLastHour() {
+        return lastHourWindow.snapshot("last hour", System.currentTimeMillis());
+    }
+
+    public String getSummaryReport() {
+        return snapshotTotals().getSummaryReport() + "\n\n" +
+                snapshotLastMinute().getSummaryReport() + "\n\n" +
+                snapshotLastHour().getSummaryReport();
+    }
+}
@@ -0,0 +1,50 @@
+package bank.patterns.visitor;
+
+import bank.core.models.MinorUnits;
+
+// Неизменяемый срез сводки на момент чтения.
+public final class SummarySnapshot {
+
+    private final String periodLabel;
+    private final long totalProcessedCount;
+    private final long totalDepositsInMinorUnits;
+    private final long totalWithdrawalsInMinorUnits;
+    private final long failedCount;
+
+    public SummarySnapshot(String periodLabel, long processedCount, long depositsInMinorUnits,
+                           long withdrawalsInMinorUnits, long failedTransactionCount) {
+        this.periodLabel = periodLabel;
+        this.totalProcessedCount = processedCount;
+        this.totalDepositsInMinorUnits = depositsInMinorUnits;
+        this.totalWithdrawalsInMinorUnits = withdrawalsInMinorUnits;
+        this.failedCount = failedTransactionCount;
+    }
+
+    public String getPeriodLabel() {
+        return periodLabel;
+    }
+
+    public long getTotalProcessedCount() {
+        return totalProcessedCount;
+    }
+
+    public long getTotalDepositsInMinorUnits() {
+        return totalDepositsInMinorUnits;
+    }
+
+    public long getTotalWithdrawalsInMinorUnits() {
+        return totalWithdrawalsInMinorUnits;
+    }
+
+    public long getFailedCount() {
+        return failedCount;
+    }
+
+    public String getSummaryReport() {
+        return "=== Transaction Summary (" + periodLabel + ") ===\n" +
+                "Total Transactions Processed: " + totalProcessedCount + "\n" +
+                "Successful Deposits: " + MinorUnits.format(totalDepositsInMinorUnits) + "\n" +
+                "Successful Withdrawals: " + MinorUnits.format(totalWithdrawalsInMinorUnits) + "\n" +
+                "Failed Transactions Count: " + failedCount;
+    }
+}
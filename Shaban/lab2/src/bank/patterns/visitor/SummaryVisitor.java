@@ -1,20 +1,19 @@
 package bank.patterns.visitor;
 
+import bank.core.models.MinorUnits;
 import bank.core.models.Transaction;
 import bank.patterns.strategy.TransactionActionType;
 
-import java.math.BigDecimal;
-
 public class SummaryVisitor implements TransactionVisitor {
 
-    private BigDecimal totalDeposits;
-    private BigDecimal totalWithdrawals;
+    private long totalDepositsInMinorUnits;
+    private long totalWithdrawalsInMinorUnits;
     private long failedCount;
     private long totalProcessedCount;
 
     public SummaryVisitor() {
-        this.totalDeposits = BigDecimal.ZERO;
-        this.totalWithdrawals = BigDecimal.ZERO;
+        this.totalDepositsInMinorUnits = 0L;
+        this.totalWithdrawalsInMinorUnits = 0L;
         this.failedCount = 0;
         this.totalProcessedCount = 0;
     }
@@ -23,23 +22,23 @@ public class SummaryVisitor implements TransactionVisitor {
     public void visit(Transaction transactionElement) {
         totalProcessedCount++;
 
-        if (transactionElement.getStatusMessage().contains("FAILED")) {
+        if (!transactionElement.getOutcome().isSuccess()) {
             failedCount++;
             return;
         }
 
         if (transactionElement.getActionType() == TransactionActionType.DEPOSIT) {
-            totalDeposits = totalDeposits.add(transactionElement.getTransactionAmount());
+            totalDepositsInMinorUnits += transactionElement.getTransactionAmountInMinorUnits();
         } else if (transactionElement.getActionType() == TransactionActionType.WITHDRAWAL) {
-            totalWithdrawals = totalWithdrawals.add(transactionElement.getTransactionAmount());
+            totalWithdrawalsInMinorUnits += transactionElement.getTransactionAmountInMinorUnits();
         }
     }
 
     public String getSummaryReport() {
         return "=== Transaction Summary ===\n" +
                 "Total Transactions Processed: " + totalProcessedCount + "\n" +
-                "Successful Deposits: " + totalDeposits.toPlainString() + "\n" +
-                "Successful Withdrawals: " + totalWithdrawals.toPlainString() + "\n" +
+                "Successful Deposits: " + MinorUnits.format(totalDepositsInMinorUnits) + "\n" +
+                "Successful Withdrawals: " + MinorUnits.format(totalWithdrawalsInMinorUnits) + "\n" +
                 "Failed Transactions Count: " + failedCount;
     }
 }
\ No newline at end of file
@@ -0,0 +1,79 @@
+package bank.patterns.visitor;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Скользящее окно из кольца корзин фиксированной длительности (например, 60 корзин по секунде).
+// Корзина помечена номером своего интервала; устаревшая корзина обнуляется первым писателем нового интервала.
+// Запись, попавшая ровно на момент обнуления, может потеряться - для оконной статистики это допустимо.
+class SummaryWindow {
+
+    private final long bucketMillis;
+    private final AtomicLong[] bucketIntervals;
+    private final LongAdder[] processedCounts;
+    private final LongAdder[] depositsInMinorUnits;
+    private final LongAdder[] withdrawalsInMinorUnits;
+    private final LongAdder[] failedCounts;
+
+    SummaryWindow(int bucketCount, long bucketDurationMillis) {
+        this.bucketMillis = bucketDurationMillis;
+        this.bucketIntervals = new AtomicLong[bucketCount];
+        this.processedCounts = new LongAdder[bucketCount];
+        this.depositsInMinorUnits = new LongAdder[bucketCount];
+        this.withdrawalsInMinorUnits = new LongAdder[bucketCount];
+        this.failedCounts = new LongAdder[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            bucketIntervals[i] = new AtomicLong(-1);
+            processedCounts[i] = new LongAdder();
+            depositsInMinorUnits[i] = new LongAdder();
+            withdrawalsInMinorUnits[i] = new LongAdder();
+            failedCounts[i] = new LongAdder();
+        }
+    }
+
+    void record(long nowMillis, long depositAmount, long withdrawalAmount, boolean isFailed) {
+        int bucketIndex = currentBucket(nowMillis);
+        processedCounts[bucketIndex].increment();
+        if (isFailed) {
+            failedCounts[bucketIndex].increment();
+        } else if (depositAmount != 0) {
+            depositsInMinorUnits[bucketIndex].add(depositAmount);
+        } else if (withdrawalAmount != 0) {
+            withdrawalsInMinorUnits[bucketIndex].add(withdrawalAmount);
+        }
+    }
+
+    private int currentBucket(long nowMillis) {
+        long interval = nowMillis / bucketMillis;
+        int bucketIndex = (int) (interval % bucketIntervals.length);
+        AtomicLong bucketInterval = bucketIntervals[bucketIndex];
+        long observedInterval = bucketInterval.get();
+        if (observedInterval < interval && bucketInterval.compareAndSet(observedInterval, interval)) {
+            processedCounts[bucketIndex].reset();
+            depositsInMinorUnits[bucketIndex].reset();
+            withdrawalsInMinorUnits[bucketIndex].reset();
+            failedCounts[bucketIndex].reset();
+        }
+        return bucketIndex;
+    }
+
+    // Суммирует только корзины, чей интервал попадает в окно относительно nowMillis.
+    SummarySnapshot snapshot(String periodLabel, long nowMillis) {
+        long currentInterval = nowMillis / bucketMillis;
+        long oldestInterval = currentInterval - bucketIntervals.length + 1;
+        long processed = 0;
+        long deposits = 0;
+        long withdrawals = 0;
+        long failed = 0;
+        for (int i = 0; i < bucketIntervals.length; i++) {
+            long bucketInterval = bucketIntervals[i].get();
+            if (bucketInterval >= oldestInterval && bucketInterval <= currentInterval) {
+                processed += processedCounts[i].sum();
+                deposits += depositsInMinorUnits[i].sum();
+                withdrawals += withdrawalsInMinorUnits[i].sum();
+                failed += failedCounts[i].sum();
+            }
+        }
+        return new SummarySnapshot(periodLabel, processed, deposits, withdrawals, failed);
+    }
+}
@@ -1,13 +1,40 @@
 package bank.repository;
 
 import bank.core.models.Account;
+import bank.core.models.Transaction;
 
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface AccountRepository {
 
     Optional<Account> findAccountByIdentifier(UUID identifier);
 
     void saveAccount(Account accountToSave);
+
+    // Поиск без создания Optional для горячего пути; реализации могут переопределить его без аллокаций.
+    default Account findAccountOrNull(UUID identifier) {
+        return findAccountByIdentifier(identifier).orElse(null);
+    }
+
+    // Вызывается стратегией под блокировкой счета после всех проверок, но до изменения счета (упреждающая запись):
+    // если запись бросила исключение, счет остается нетронутым. Хранилища в памяти его игнорируют.
+    default void recordAppliedTransaction(Transaction appliedTransaction) {
+    }
+
+    // true - хранилищу нужны стратегии, которые пишут и меняют счет под его блокировкой: тогда порядок записей
+    // совпадает с порядком применения, и снимок с хвостом журнала восстанавливаются верно.
+    default boolean requiresLockedWrites() {
+        return false;
+    }
+
+    // Выполняет completion, когда все уже записанные изменения надежно сохранены. Процессор завершает через него
+    // транзакции, чтобы клиент и слушатели не видели результат, который может пропасть при сбое.
+    // Хранилищам без журнала ждать нечего.
+    default void runWhenDurable(Runnable completion) {
+        completion.run();
+    }
+
+    void forEachAccount(Consumer<Account> accountConsumer);
 }
\ No newline at end of file
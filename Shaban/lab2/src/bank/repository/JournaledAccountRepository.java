@@ -0,0 +1,305 @@
+package bank.repository;
+
+import bank.core.models.Account;
+import bank.core.models.Transaction;
+import bank.core.models.TransferLeg;
+import bank.patterns.strategy.TransactionActionType;
+import bank.repository.journal.AccountSnapshotFile;
+import bank.repository.journal.JournalRecord;
+import bank.repository.journal.JournalSyncPolicy;
+import bank.repository.journal.TransactionJournal;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+// Долговечное хранилище: счета живут в памяти (accountStore), а каждое примененное изменение
+// дописывается в TransactionJournal. При запуске загружается последний снимок, после чего
+// повторяется только хвост журнала.
+public class JournaledAccountRepository implements AccountRepository, AutoCloseable {
+
+    private static final String JOURNAL_DIRECTORY = "journal";
+    private static final String SNAPSHOT_DIRECTORY = "snapshots";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+    private static final int RETAINED_SNAPSHOT_COUNT = 2;
+
+    private final AccountRepository accountStore;
+    private final Function<UUID, Account> accountFactory;
+    private final Path snapshotDirectory;
+    private final List<String> skippedSnapshots = new ArrayList<>();
+    private TransactionJournal transactionJournal;
+    private ScheduledExecutorService snapshotScheduler;
+    private volatile IOException lastSnapshotFailure;
+
+    private JournaledAccountRepository(AccountRepository store, Function<UUID, Account> factory, Path snapshots) {
+        this.accountStore = store;
+        this.accountFactory = factory;
+        this.snapshotDirectory = snapshots;
+    }
+
+    public static JournaledAccountRepository open(Path dataDirectory, AccountRepository store,
+                                                  JournalSyncPolicy syncPolicy) throws IOException {
+        return open(dataDirectory, store, syncPolicy, Account::new);
+    }
+
+    public static JournaledAccountRepository open(Path dataDirectory, AccountRepository store, JournalSyncPolicy syncPolicy,
+                                                  Function<UUID, Account> accountFactory) throws IOException {
+        Path snapshots = dataDirectory.resolve(SNAPSHOT_DIRECTORY);
+        Files.createDirectories(snapshots);
+
+        JournaledAccountRepository repository = new JournaledAccountRepository(store, accountFactory, snapshots);
+        long replayFromSequence = repository.loadLatestSnapshot();
+        repository.transactionJournal = TransactionJournal.open(dataDirectory.resolve(JOURNAL_DIRECTORY),
+                TransactionJournal.DEFAULT_SEGMENT_SIZE, syncPolicy, replayFromSequence, repository::replayRecord);
+        return repository;
+    }
+
+    @Override
+    public Optional<Account> findAccountByIdentifier(UUID identifier) {
+        return accountStore.findAccountByIdentifier(identifier);
+    }
+
+    @Override
+    public Account findAccountOrNull(UUID identifier) {
+        return accountStore.findAccountOrNull(identifier);
+    }
+
+    @Override
+    public void saveAccount(Account accountToSave) {
+        // Изменения баланса попадают в журнал через recordAppliedTransaction, здесь фиксируется только открытие счета.
+        if (accountStore.findAccountOrNull(accountToSave.getAccountIdentifier()) == null) {
+            accountToSave.setJournalSequenceNumber(transactionJournal.appendAccountOpened(accountToSave));
+        }
+        accountStore.saveAccount(accountToSave);
+    }
+
+    @Override
+    public void recordAppliedTransaction(Transaction appliedTransaction) {
+        long sequenceNumber = transactionJournal.appendTransaction(appliedTransaction);
+
+        // Номер отмечается только у счетов, которые операция держит под блокировкой и меняет:
+        // у многоадресного перевода это участники ног, а инициатор может в них и не входить.
+        if (appliedTransaction.getActionType() != TransactionActionType.MULTI_TRANSFER) {
+            markJournaled(appliedTransaction.getAccountIdentifier(), sequenceNumber);
+            if (appliedTransaction.getTargetAccountIdentifier() != null) {
+                markJournaled(appliedTransaction.getTargetAccountIdentifier(), sequenceNumber);
+            }
+            return;
+        }
+        for (TransferLeg leg : appliedTransaction.getTransferLegs()) {
+            markJournaled(leg.getSourceAccountIdentifier(), sequenceNumber);
+            markJournaled(leg.getTargetAccountIdentifier(), sequenceNumber);
+        }
+    }
+
+    // Завершение операции отдается наружу только после того, как ее запись покрыта fsync.
+    @Override
+    public void runWhenDurable(Runnable completion) {
+        transactionJournal.whenDurable(completion);
+    }
+
+    // Оптимистичные стратегии пишут в журнал вне блокировок, и номер записи может разойтись с порядком
+    // применения; повтор хвоста после снимка тогда пропустил бы изменения, поэтому они здесь не допускаются.
+    @Override
+    public boolean requiresLockedWrites() {
+        return true;
+    }
+
+    private void markJournaled(UUID identifier, long sequenceNumber) {
+        Account account = accountStore.findAccountOrNull(identifier);
+        if (account != null && sequenceNumber > account.getJournalSequenceNumber()) {
+            account.setJournalSequenceNumber(sequenceNumber);
+        }
+    }
+
+    @Override
+    public void forEachAccount(Consumer<Account> accountConsumer) {
+        accountStore.forEachAccount(accountConsumer);
+    }
+
+    public TransactionJournal getTransactionJournal() {
+        return transactionJournal;
+    }
+
+    // Ошибка последнего периодического снимка; null, если следующий снимок прошел успешно.
+    public IOException getLastSnapshotFailure() {
+        return lastSnapshotFailure;
+    }
+
+    // Снимки, пропущенные при запуске как нечитаемые, с причиной.
+    public List<String> getSkippedSnapshots() {
+        return List.copyOf(skippedSnapshots);
+    }
+
+    // Снимок делается на ходу: номер начала повтора фиксируется до обхода счетов.
+    public synchronized Path writeSnapshot() throws IOException {
+        long replayFromSequence = transactionJournal.getNextSequenceNumber();
+        Path snapshotPath = snapshotDirectory.resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, replayFromSequence, SNAPSHOT_SUFFIX));
+        AccountSnapshotFile.write(snapshotPath, replayFromSequence, accountStore);
+        pruneSnapshotsAndJournal();
+        return snapshotPath;
+    }
+
+    public synchronized void startPeriodicSnapshots(long intervalMillis) {
+        if (snapshotScheduler != null) {
+            return;
+        }
+        snapshotScheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread snapshotThread = new Thread(task, "account-snapshot-writer");
+            snapshotThread.setDaemon(true);
+            return snapshotThread;
+        });
+        snapshotScheduler.scheduleWithFixedDelay(() -> {
+            try {
+                writeSnapshot();
+                lastSnapshotFailure = null;
+            } catch (IOException snapshotException) {
+                // Следующая попытка будет через интервал; до тех пор ошибка доступна через getLastSnapshotFailure.
+                lastSnapshotFailure = snapshotException;
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (snapshotScheduler != null) {
+            snapshotScheduler.shutdownNow();
+        }
+        transactionJournal.close();
+    }
+
+    private long loadLatestSnapshot() throws IOException {
+        List<Path> snapshots = listSnapshots();
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            try {
+                return AccountSnapshotFile.read(snapshots.get(i), this::restoreSnapshotAccount);
+            } catch (IOException | RuntimeException corruptedSnapshot) {
+                // Поврежденный снимок пропускаем и пробуем предыдущий; журнал за ним еще хранится.
+                skippedSnapshots.add(snapshots.get(i) + ": " + corruptedSnapshot.getMessage());
+            }
+        }
+        return 1L;
+    }
+
+    private void restoreSnapshotAccount(long identifierHigh, long identifierLow, long balanceInMinorUnits,
+                                        boolean frozen, long journalSequenceNumber) {
+        Account restoredAccount = accountFactory.apply(new UUID(identifierHigh, identifierLow));
+        restoredAccount.setCurrentBalanceInMinorUnits(balanceInMinorUnits);
+        restoredAccount.setIsFrozen(frozen);
+        restoredAccount.setJournalSequenceNumber(journalSequenceNumber);
+        accountStore.saveAccount(restoredAccount);
+    }
+
+    private void pruneSnapshotsAndJournal() throws IOException {
+        List<Path> snapshots = listSnapshots();
+        int obsoleteCount = snapshots.size() - RETAINED_SNAPSHOT_COUNT;
+        for (int i = 0; i < obsoleteCount; i++) {
+            Files.deleteIfExists(snapshots.get(i));
+        }
+        // Журнал храним начиная со старейшего оставленного снимка, чтобы можно было откатиться к нему.
+        Path oldestRetained = snapshots.get(Math.max(0, obsoleteCount));
+        transactionJournal.deleteSegmentsBefore(snapshotSequence(oldestRetained));
+    }
+
+    private List<Path> listSnapshots() throws IOException {
+        List<Path> snapshots = new ArrayList<>();
+        try (Stream<Path> files = Files.list(snapshotDirectory)) {
+            files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX);
+            }).forEach(snapshots::add);
+        }
+        // Номер в имени дополнен нулями, поэтому лексикографический порядок совпадает с числовым.
+        snapshots.sort(null);
+        return snapshots;
+    }
+
+    private static long snapshotSequence(Path snapshotPath) {
+        String name = snapshotPath.getFileName().toString();
+        return Long.parseLong(name.substring(SNAPSHOT_PREFIX.length(), name.length() - SNAPSHOT_SUFFIX.length()));
+    }
+
+    private void replayRecord(JournalRecord record) {
+        long sequenceNumber = record.getSequenceNumber();
+        Account account = accountStore.findAccountOrNull(record.getAccountIdentifier());
+
+        if (record.getRecordType() == JournalRecord.ACCOUNT_OPENED) {
+            if (account != null) {
+                return;
+            }
+            Account openedAccount = accountFactory.apply(record.getAccountIdentifier());
+            openedAccount.setCurrentBalanceInMinorUnits(record.getAmountInMinorUnits());
+            openedAccount.setIsFrozen(record.isFrozenFlagSet());
+            openedAccount.setJournalSequenceNumber(sequenceNumber);
+            accountStore.saveAccount(openedAccount);
+            return;
+        }
+
+        if (record.getActionType() == TransactionActionType.MULTI_TRANSFER) {
+            replayMultiTransfer(record);
+            return;
+        }
+
+        // В журнал попадают только успешно примененные операции, поэтому повтор не перепроверяет условия.
+        // Запись применяется к счету, только если она новее его состояния из снимка.
+        long amount = record.getAmountInMinorUnits();
+        if (account != null && sequenceNumber > account.getJournalSequenceNumber()) {
+            switch (record.getActionType()) {
+                case DEPOSIT:
+                    account.setCurrentBalanceInMinorUnits(account.getCurrentBalanceInMinorUnits() + amount);
+                    break;
+                case WITHDRAWAL:
+                case TRANSFER:
+                    account.setCurrentBalanceInMinorUnits(account.getCurrentBalanceInMinorUnits() - amount);
+                    break;
+                case FREEZE:
+                    account.setIsFrozen(true);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown journaled action: " + record.getActionType());
+            }
+            account.setJournalSequenceNumber(sequenceNumber);
+        }
+
+        if (record.getActionType() == TransactionActionType.TRANSFER) {
+            Account targetAccount = accountStore.findAccountOrNull(record.getTargetIdentifier());
+            if (targetAccount != null && sequenceNumber > targetAccount.getJournalSequenceNumber()) {
+                targetAccount.setCurrentBalanceInMinorUnits(targetAccount.getCurrentBalanceInMinorUnits() + amount);
+                targetAccount.setJournalSequenceNumber(sequenceNumber);
+            }
+        }
+    }
+
+    // Сначала применяются все ноги, и лишь затем у участников обновляется номер записи:
+    // иначе вторая нога того же счета была бы принята за уже учтенную.
+    private void replayMultiTransfer(JournalRecord record) {
+        long sequenceNumber = record.getSequenceNumber();
+        for (int i = 0; i < record.getLegCount(); i++) {
+            long amount = record.getLegAmountInMinorUnits(i);
+            adjustIfNewer(record.getLegSourceIdentifier(i), -amount, sequenceNumber);
+            adjustIfNewer(record.getLegTargetIdentifier(i), amount, sequenceNumber);
+        }
+        for (int i = 0; i < record.getLegCount(); i++) {
+            markJournaled(record.getLegSourceIdentifier(i), sequenceNumber);
+            markJournaled(record.getLegTargetIdentifier(i), sequenceNumber);
+        }
+    }
+
+    private void adjustIfNewer(UUID identifier, long delta, long sequenceNumber) {
+        Account account = accountStore.findAccountOrNull(identifier);
+        if (account != null && sequenceNumber > account.getJournalSequenceNumber()) {
+            account.setCurrentBalanceInMinorUnits(account.getCurrentBalanceInMinorUnits() + delta);
+        }
+    }
+}
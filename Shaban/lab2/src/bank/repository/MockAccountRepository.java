@@ -7,6 +7,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 public class MockAccountRepository implements AccountRepository {
@@ -25,11 +26,21 @@ public class MockAccountRepository implements AccountRepository {
         return Optional.ofNullable(storageMap.get(identifier));
     }
 
+    @Override
+    public Account findAccountOrNull(UUID identifier) {
+        return storageMap.get(identifier);
+    }
+
     @Override
     public void saveAccount(Account accountToSave) {
         storageMap.put(accountToSave.getAccountIdentifier(), accountToSave);
     }
 
+    @Override
+    public void forEachAccount(Consumer<Account> accountConsumer) {
+        storageMap.values().forEach(accountConsumer);
+    }
+
     public Optional<Account> findTransferPartnerById(UUID targetIdentifier) {
         return Optional.ofNullable(storageMap.get(targetIdentifier));
     }
@@ -0,0 +1,206 @@
+package bank.repository;
+
+import bank.core.models.Account;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+// Хранилище счетов с открытой адресацией: ключ - две половины UUID (long), без упаковки в объекты.
+// Таблица разбита на полосы: запись берет блокировку своей полосы, чтение идет без блокировок.
+public final class StripedAccountRepository implements AccountRepository {
+
+    private static final int DEFAULT_STRIPE_COUNT = 64;
+    private static final int MIN_STRIPE_CAPACITY = 16;
+
+    private final AccountStripe[] accountStripes;
+    private final int stripeMask;
+
+    public StripedAccountRepository(int expectedAccountCount) {
+        this(expectedAccountCount, DEFAULT_STRIPE_COUNT);
+    }
+
+    public StripedAccountRepository(int expectedAccountCount, int requestedStripeCount) {
+        int stripeCount = powerOfTwoAtLeast(Math.max(1, requestedStripeCount));
+        this.accountStripes = new AccountStripe[stripeCount];
+        this.stripeMask = stripeCount - 1;
+
+        // Запас в два раза держит заполнение таблицы не выше 50%.
+        int stripeCapacity = powerOfTwoAtLeast(Math.max(MIN_STRIPE_CAPACITY, (int) Math.min(1 << 30, 2L * expectedAccountCount / stripeCount)));
+        for (int i = 0; i < stripeCount; i++) {
+            accountStripes[i] = new AccountStripe(stripeCapacity);
+        }
+    }
+
+    public StripedAccountRepository(List<Account> initialAccounts) {
+        this(initialAccounts.size());
+        for (Account account : initialAccounts) {
+            saveAccount(account);
+        }
+    }
+
+    @Override
+    public Optional<Account> findAccountByIdentifier(UUID identifier) {
+        return Optional.ofNullable(findAccountOrNull(identifier));
+    }
+
+    @Override
+    public Account findAccountOrNull(UUID identifier) {
+        return findAccount(identifier.getMostSignificantBits(), identifier.getLeastSignificantBits());
+    }
+
+    public Account findAccount(long identifierHigh, long identifierLow) {
+        long keyHash = mixKey(identifierHigh, identifierLow);
+        return accountStripes[(int) (keyHash >>> 32) & stripeMask].find(identifierHigh, identifierLow, keyHash);
+    }
+
+    @Override
+    public void saveAccount(Account accountToSave) {
+        UUID identifier = accountToSave.getAccountIdentifier();
+        long identifierHigh = identifier.getMostSignificantBits();
+        long identifierLow = identifier.getLeastSignificantBits();
+        long keyHash = mixKey(identifierHigh, identifierLow);
+        accountStripes[(int) (keyHash >>> 32) & stripeMask].put(identifierHigh, identifierLow, keyHash, accountToSave);
+    }
+
+    @Override
+    public void forEachAccount(Consumer<Account> accountConsumer) {
+        for (AccountStripe stripe : accountStripes) {
+            stripe.forEach(accountConsumer);
+        }
+    }
+
+    public int size() {
+        int totalSize = 0;
+        for (AccountStripe stripe : accountStripes) {
+            totalSize += stripe.size();
+        }
+        return totalSize;
+    }
+
+    private static long mixKey(long identifierHigh, long identifierLow) {
+        // Финализатор из SplitMix64: случайные UUID и так хорошо распределены, но сдвиги защищают от неслучайных ключей.
+        long mixed = identifierHigh * 0x9E3779B97F4A7C15L ^ identifierLow;
+        mixed = (mixed ^ (mixed >>> 30)) * 0xBF58476D1CE4E5B9L;
+        mixed = (mixed ^ (mixed >>> 27)) * 0x94D049BB133111EBL;
+        return mixed ^ (mixed >>> 31);
+    }
+
+    private static int powerOfTwoAtLeast(int value) {
+        int power = Integer.highestOneBit(value);
+        return power < value ? power << 1 : power;
+    }
+
+    private static final class AccountStripe {
+
+        private final ReentrantLock writeLock = new ReentrantLock();
+        // Читатели берут ссылку на текущую таблицу; при расширении публикуется новая таблица целиком.
+        private volatile StripeTable currentTable;
+        private int occupiedSlots;
+
+        AccountStripe(int capacity) {
+            this.currentTable = new StripeTable(capacity);
+        }
+
+        Account find(long identifierHigh, long identifierLow, long keyHash) {
+            StripeTable table = currentTable;
+            int slotMask = table.slotMask;
+            int slot = (int) keyHash & slotMask;
+            while (true) {
+                // Значение публикуется после ключа, поэтому увидев счет, читатель видит и его ключ.
+                Account candidate = table.slotAccounts.get(slot);
+                if (candidate == null) {
+                    return null;
+                }
+                if (table.slotKeysHigh[slot] == identifierHigh && table.slotKeysLow[slot] == identifierLow) {
+                    return candidate;
+                }
+                slot = (slot + 1) & slotMask;
+            }
+        }
+
+        void put(long identifierHigh, long identifierLow, long keyHash, Account account) {
+            writeLock.lock();
+            try {
+                StripeTable table = currentTable;
+                if (insertOrReplace(table, identifierHigh, identifierLow, keyHash, account)) {
+                    occupiedSlots++;
+                    if (occupiedSlots * 2 > table.slotMask + 1) {
+                        currentTable = resize(table);
+                    }
+                }
+            } finally {
+                writeLock.unlock();
+            }
+        }
+
+        void forEach(Consumer<Account> accountConsumer) {
+            StripeTable table = currentTable;
+            for (int slot = 0; slot <= table.slotMask; slot++) {
+                Account account = table.slotAccounts.get(slot);
+                if (account != null) {
+                    accountConsumer.accept(account);
+                }
+            }
+        }
+
+        int size() {
+            writeLock.lock();
+            try {
+                return occupiedSlots;
+            } finally {
+                writeLock.unlock();
+            }
+        }
+
+        private static boolean insertOrReplace(StripeTable table, long identifierHigh, long identifierLow, long keyHash, Account account) {
+            int slotMask = table.slotMask;
+            int slot = (int) keyHash & slotMask;
+            while (true) {
+                Account existing = table.slotAccounts.get(slot);
+                if (existing == null) {
+                    table.slotKeysHigh[slot] = identifierHigh;
+                    table.slotKeysLow[slot] = identifierLow;
+                    table.slotAccounts.set(slot, account);
+                    return true;
+                }
+                if (table.slotKeysHigh[slot] == identifierHigh && table.slotKeysLow[slot] == identifierLow) {
+                    table.slotAccounts.set(slot, account);
+                    return false;
+                }
+                slot = (slot + 1) & slotMask;
+            }
+        }
+
+        private static StripeTable resize(StripeTable oldTable) {
+            StripeTable newTable = new StripeTable((oldTable.slotMask + 1) * 2);
+            for (int slot = 0; slot <= oldTable.slotMask; slot++) {
+                Account account = oldTable.slotAccounts.get(slot);
+                if (account != null) {
+                    long identifierHigh = oldTable.slotKeysHigh[slot];
+                    long identifierLow = oldTable.slotKeysLow[slot];
+                    insertOrReplace(newTable, identifierHigh, identifierLow, mixKey(identifierHigh, identifierLow), account);
+                }
+            }
+            return newTable;
+        }
+    }
+
+    private static final class StripeTable {
+
+        final long[] slotKeysHigh;
+        final long[] slotKeysLow;
+        final AtomicReferenceArray<Account> slotAccounts;
+        final int slotMask;
+
+        StripeTable(int capacity) {
+            this.slotKeysHigh = new long[capacity];
+            this.slotKeysLow = new long[capacity];
+            this.slotAccounts = new AtomicReferenceArray<>(capacity);
+            this.slotMask = capacity - 1;
+        }
+    }
+}
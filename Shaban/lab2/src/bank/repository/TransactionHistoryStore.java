@@ -0,0 +1,468 @@
+package bank.repository;
+
+import bank.core.models.Transaction;
+import bank.core.models.TransactionHistoryEntry;
+import bank.core.models.TransactionOutcome;
+import bank.core.models.TransferLeg;
+import bank.patterns.strategy.TransactionActionType;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// История завершенных транзакций в колоночном виде: строки лежат в блоках фиксированного размера
+// из примитивных массивов (около 70 байт на строку вместо графа объектов Transaction).
+// Индексы:
+// - по счету: номера строк счета, упорядоченные по времени, - выборка за период идет двоичным поиском;
+// - по блокам: мин./макс. время и крупнейшие суммы блока - лишние блоки пропускаются целиком.
+// Память ограничена: при переполнении вытесняется самый старый блок.
+public class TransactionHistoryStore {
+
+    private static final int CHUNK_SHIFT = 14;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int DEFAULT_MAX_RETAINED_ROWS = 16 * CHUNK_SIZE;
+    private static final int INITIAL_POSTINGS_CAPACITY = 16;
+    // Каждый блок помнит свои крупнейшие строки: запрос N крупнейших при N до этого числа не читает колонки.
+    private static final int CHUNK_LARGEST_SUMMARY_SIZE = 32;
+
+    private static final TransactionActionType[] ACTION_TYPES = TransactionActionType.values();
+    private static final TransactionOutcome[] OUTCOMES = TransactionOutcome.values();
+
+    private final int maxRetainedChunks;
+    private final ZoneId timeZone;
+    private final ReentrantReadWriteLock storeLock = new ReentrantReadWriteLock();
+    private final ArrayList<HistoryChunk> retainedChunks = new ArrayList<>();
+    private final Map<UUID, AccountPostings> postingsByAccount = new HashMap<>();
+    // Номер строки сквозной: блок строки - (номер >> CHUNK_SHIFT) - номер первого хранимого блока.
+    private long firstRetainedSequence;
+    private long nextSequence;
+
+    public TransactionHistoryStore() {
+        this(DEFAULT_MAX_RETAINED_ROWS);
+    }
+
+    public TransactionHistoryStore(int maxRetainedRows) {
+        if (maxRetainedRows <= 0) {
+            throw new IllegalArgumentException("Retained row limit must be positive");
+        }
+        this.maxRetainedChunks = Math.max(1, (maxRetainedRows + CHUNK_SIZE - 1) >>> CHUNK_SHIFT);
+        this.timeZone = ZoneId.systemDefault();
+    }
+
+    public void record(Transaction completedTransaction) {
+        long timestampMillis = completedTransaction.getTransactionTimestampMillis();
+
+        storeLock.writeLock().lock();
+        try {
+            long sequence = nextSequence++;
+            int row = (int) (sequence & CHUNK_MASK);
+            if (row == 0) {
+                startChunk(sequence);
+            }
+            HistoryChunk chunk = retainedChunks.get(retainedChunks.size() - 1);
+            chunk.write(row, completedTransaction, timestampMillis);
+
+            addPosting(completedTransaction.getAccountIdentifier(), sequence, timestampMillis);
+            if (completedTransaction.getTargetAccountIdentifier() != null) {
+                addPosting(completedTransaction.getTargetAccountIdentifier(), sequence, timestampMillis);
+            }
+            for (TransferLeg leg : completedTransaction.getTransferLegs()) {
+                addPosting(leg.getSourceAccountIdentifier(), sequence, timestampMillis);
+                addPosting(leg.getTargetAccountIdentifier(), sequence, timestampMillis);
+            }
+        } finally {
+            storeLock.writeLock().unlock();
+        }
+    }
+
+    public void recordAll(List<Transaction> completedTransactions) {
+        for (Transaction completedTransaction : completedTransactions) {
+            record(completedTransaction);
+        }
+    }
+
+    public List<TransactionHistoryEntry> findByAccount(UUID accountIdentifier, LocalDateTime from, LocalDateTime to) {
+        return findByAccount(accountIdentifier, toEpochMillis(from), toEpochMillis(to));
+    }
+
+    // Транзакции счета (как источника, получателя или участника ноги) в интервале [from, to), по времени.
+    public List<TransactionHistoryEntry> findByAccount(UUID accountIdentifier, long fromMillis, long toMillis) {
+        storeLock.readLock().lock();
+        try {
+            AccountPostings postings = postingsByAccount.get(accountIdentifier);
+            if (postings == null) {
+                return List.of();
+            }
+            List<TransactionHistoryEntry> entries = new ArrayList<>();
+            for (int i = postings.lowerBound(fromMillis); i < postings.size; i++) {
+                if (postings.timestampsMillis[i] >= toMillis) {
+                    break;
+                }
+                long sequence = postings.sequences[i];
+                if (sequence >= firstRetainedSequence) {
+                    entries.add(materialize(sequence));
+                }
+            }
+            return entries;
+        } finally {
+            storeLock.readLock().unlock();
+        }
+    }
+
+    // Все транзакции в интервале [from, to) в порядке записи; блоки вне интервала не читаются.
+    public List<TransactionHistoryEntry> findBetween(long fromMillis, long toMillis) {
+        storeLock.readLock().lock();
+        try {
+            List<TransactionHistoryEntry> entries = new ArrayList<>();
+            for (HistoryChunk chunk : retainedChunks) {
+                if (chunk.maxTimestampMillis < fromMillis || chunk.minTimestampMillis >= toMillis) {
+                    continue;
+                }
+                for (int row = 0; row < chunk.rowCount; row++) {
+                    long timestampMillis = chunk.timestampsMillis[row];
+                    if (timestampMillis >= fromMillis && timestampMillis < toMillis) {
+                        entries.add(chunk.materialize(row));
+                    }
+                }
+            }
+            return entries;
+        } finally {
+            storeLock.readLock().unlock();
+        }
+    }
+
+    // N крупнейших по сумме. Блоки просматриваются по убыванию их максимальной суммы;
+    // как только максимум блока не больше наименьшего из найденных N, остальные блоки пропускаются.
+    public List<TransactionHistoryEntry> findLargest(int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        storeLock.readLock().lock();
+        try {
+            HistoryChunk[] chunksByMaxAmount = retainedChunks.toArray(new HistoryChunk[0]);
+            Arrays.sort(chunksByMaxAmount, (first, second) -> Long.compare(second.maxAmountInMinorUnits, first.maxAmountInMinorUnits));
+
+            LargestAmountHeap largest = new LargestAmountHeap(limit);
+            for (HistoryChunk chunk : chunksByMaxAmount) {
+                if (largest.isFull() && chunk.maxAmountInMinorUnits <= largest.smallestAmount()) {
+                    break;
+                }
+                if (limit <= CHUNK_LARGEST_SUMMARY_SIZE) {
+                    LargestAmountHeap chunkLargest = chunk.largestRows;
+                    for (int i = 0; i < chunkLargest.size; i++) {
+                        largest.offer(chunkLargest.amounts[i], chunkLargest.sequences[i]);
+                    }
+                } else {
+                    for (int row = 0; row < chunk.rowCount; row++) {
+                        largest.offer(chunk.amountsInMinorUnits[row], chunk.firstSequence + row);
+                    }
+                }
+            }
+            return materializeDescending(largest);
+        } finally {
+            storeLock.readLock().unlock();
+        }
+    }
+
+    // N крупнейших операций счета за период - для выписки; читаются только строки этого счета.
+    public List<TransactionHistoryEntry> findLargestForAccount(UUID accountIdentifier, long fromMillis, long toMillis, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        storeLock.readLock().lock();
+        try {
+            AccountPostings postings = postingsByAccount.get(accountIdentifier);
+            if (postings == null) {
+                return List.of();
+            }
+            LargestAmountHeap largest = new LargestAmountHeap(limit);
+            for (int i = postings.lowerBound(fromMillis); i < postings.size; i++) {
+                if (postings.timestampsMillis[i] >= toMillis) {
+                    break;
+                }
+                long sequence = postings.sequences[i];
+                if (sequence >= firstRetainedSequence) {
+                    largest.offer(chunkOf(sequence).amountsInMinorUnits[(int) (sequence & CHUNK_MASK)], sequence);
+                }
+            }
+            return materializeDescending(largest);
+        } finally {
+            storeLock.readLock().unlock();
+        }
+    }
+
+    public long size() {
+        storeLock.readLock().lock();
+        try {
+            return nextSequence - firstRetainedSequence;
+        } finally {
+            storeLock.readLock().unlock();
+        }
+    }
+
+    private void startChunk(long firstSequence) {
+        retainedChunks.add(new HistoryChunk(firstSequence));
+        if (retainedChunks.size() > maxRetainedChunks) {
+            retainedChunks.remove(0);
+            firstRetainedSequence = retainedChunks.get(0).firstSequence;
+            trimEvictedPostings();
+        }
+    }
+
+    // Списки счетов почти упорядочены по номеру строки, поэтому вытесненные строки отрезаются с головы.
+    // Редкие вытесненные строки в середине списка пропускаются при чтении по firstRetainedSequence.
+    private void trimEvictedPostings() {
+        postingsByAccount.values().removeIf(postings -> {
+            int evictedCount = 0;
+            while (evictedCount < postings.size && postings.sequences[evictedCount] < firstRetainedSequence) {
+                evictedCount++;
+            }
+            postings.removeFirst(evictedCount);
+            return postings.size == 0;
+        });
+    }
+
+    private void addPosting(UUID accountIdentifier, long sequence, long timestampMillis) {
+        AccountPostings postings = postingsByAccount.get(accountIdentifier);
+        if (postings == null) {
+            postings = new AccountPostings();
+            postingsByAccount.put(accountIdentifier, postings);
+        }
+        postings.add(sequence, timestampMillis);
+    }
+
+    private HistoryChunk chunkOf(long sequence) {
+        return retainedChunks.get((int) ((sequence >>> CHUNK_SHIFT) - (firstRetainedSequence >>> CHUNK_SHIFT)));
+    }
+
+    private TransactionHistoryEntry materialize(long sequence) {
+        return chunkOf(sequence).materialize((int) (sequence & CHUNK_MASK));
+    }
+
+    private List<TransactionHistoryEntry> materializeDescending(LargestAmountHeap largest) {
+        long[] sequences = largest.drainDescending();
+        List<TransactionHistoryEntry> entries = new ArrayList<>(sequences.length);
+        for (long sequence : sequences) {
+            entries.add(materialize(sequence));
+        }
+        return entries;
+    }
+
+    private long toEpochMillis(LocalDateTime timestamp) {
+        return timestamp.atZone(timeZone).toInstant().toEpochMilli();
+    }
+
+    private static final class HistoryChunk {
+
+        final long firstSequence;
+        final long[] transactionIdsHigh = new long[CHUNK_SIZE];
+        final long[] transactionIdsLow = new long[CHUNK_SIZE];
+        final long[] timestampsMillis = new long[CHUNK_SIZE];
+        final long[] amountsInMinorUnits = new long[CHUNK_SIZE];
+        final long[] resultingBalancesInMinorUnits = new long[CHUNK_SIZE];
+        final long[] accountIdsHigh = new long[CHUNK_SIZE];
+        final long[] accountIdsLow = new long[CHUNK_SIZE];
+        // Получатель есть только у переводов; для остальных строк колонки не заполняются.
+        final long[] targetIdsHigh = new long[CHUNK_SIZE];
+        final long[] targetIdsLow = new long[CHUNK_SIZE];
+        final byte[] actionCodes = new byte[CHUNK_SIZE];
+        final byte[] outcomeCodes = new byte[CHUNK_SIZE];
+        final boolean[] hasTarget = new boolean[CHUNK_SIZE];
+        final LargestAmountHeap largestRows = new LargestAmountHeap(CHUNK_LARGEST_SUMMARY_SIZE);
+        int rowCount;
+        long minTimestampMillis = Long.MAX_VALUE;
+        long maxTimestampMillis = Long.MIN_VALUE;
+        long maxAmountInMinorUnits = Long.MIN_VALUE;
+
+        HistoryChunk(long firstSequence) {
+            this.firstSequence = firstSequence;
+        }
+
+        void write(int row, Transaction transaction, long timestampMillis) {
+            UUID transactionIdentifier = transaction.getTransactionIdentifier();
+            UUID accountIdentifier = transaction.getAccountIdentifier();
+            UUID targetIdentifier = transaction.getTargetAccountIdentifier();
+            long amountInMinorUnits = transaction.getTransactionAmountInMinorUnits();
+
+            transactionIdsHigh[row] = transactionIdentifier.getMostSignificantBits();
+            transactionIdsLow[row] = transactionIdentifier.getLeastSignificantBits();
+            timestampsMillis[row] = timestampMillis;
+            amountsInMinorUnits[row] = amountInMinorUnits;
+            resultingBalancesInMinorUnits[row] = transaction.getResultingBalanceInMinorUnits();
+            accountIdsHigh[row] = accountIdentifier.getMostSignificantBits();
+            accountIdsLow[row] = accountIdentifier.getLeastSignificantBits();
+            hasTarget[row] = targetIdentifier != null;
+            if (targetIdentifier != null) {
+                targetIdsHigh[row] = targetIdentifier.getMostSignificantBits();
+                targetIdsLow[row] = targetIdentifier.getLeastSignificantBits();
+            }
+            actionCodes[row] = (byte) transaction.getActionType().ordinal();
+            outcomeCodes[row] = (byte) transaction.getOutcome().ordinal();
+
+            rowCount = row + 1;
+            minTimestampMillis = Math.min(minTimestampMillis, timestampMillis);
+            maxTimestampMillis = Math.max(maxTimestampMillis, timestampMillis);
+            maxAmountInMinorUnits = Math.max(maxAmountInMinorUnits, amountInMinorUnits);
+            largestRows.offer(amountInMinorUnits, firstSequence + row);
+        }
+
+        TransactionHistoryEntry materialize(int row) {
+            return new TransactionHistoryEntry(
+                    new UUID(transactionIdsHigh[row], transactionIdsLow[row]),
+                    timestampsMillis[row],
+                    ACTION_TYPES[actionCodes[row]],
+                    amountsInMinorUnits[row],
+                    new UUID(accountIdsHigh[row], accountIdsLow[row]),
+                    hasTarget[row] ? new UUID(targetIdsHigh[row], targetIdsLow[row]) : null,
+                    OUTCOMES[outcomeCodes[row]],
+                    resultingBalancesInMinorUnits[row]
+            );
+        }
+    }
+
+    // Строки одного счета, упорядоченные по времени. Время продублировано рядом с номером строки,
+    // чтобы двоичный поиск не ходил по блокам.
+    private static final class AccountPostings {
+
+        long[] sequences = new long[INITIAL_POSTINGS_CAPACITY];
+        long[] timestampsMillis = new long[INITIAL_POSTINGS_CAPACITY];
+        int size;
+        long lastAddedSequence = -1;
+
+        void add(long sequence, long timestampMillis) {
+            // Участник многоадресного перевода может встретиться в нескольких ногах.
+            if (sequence == lastAddedSequence) {
+                return;
+            }
+            lastAddedSequence = sequence;
+            if (size == sequences.length) {
+                sequences = Arrays.copyOf(sequences, size * 2);
+                timestampsMillis = Arrays.copyOf(timestampsMillis, size * 2);
+            }
+            // Транзакции завершаются почти в порядке создания, поэтому вставка с хвоста обычно не сдвигает ничего.
+            int position = size;
+            while (position > 0 && timestampsMillis[position - 1] > timestampMillis) {
+                sequences[position] = sequences[position - 1];
+                timestampsMillis[position] = timestampsMillis[position - 1];
+                position--;
+            }
+            sequences[position] = sequence;
+            timestampsMillis[position] = timestampMillis;
+            size++;
+        }
+
+        int lowerBound(long timestampMillis) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (timestampsMillis[middle] < timestampMillis) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        void removeFirst(int count) {
+            if (count == 0) {
+                return;
+            }
+            size -= count;
+            System.arraycopy(sequences, count, sequences, 0, size);
+            System.arraycopy(timestampsMillis, count, timestampsMillis, 0, size);
+        }
+    }
+
+    // Куча на минимум фиксированного размера: хранит N крупнейших сумм и номера их строк.
+    private static final class LargestAmountHeap {
+
+        final long[] amounts;
+        final long[] sequences;
+        int size;
+
+        LargestAmountHeap(int capacity) {
+            this.amounts = new long[capacity];
+            this.sequences = new long[capacity];
+        }
+
+        boolean isFull() {
+            return size == amounts.length;
+        }
+
+        long smallestAmount() {
+            return amounts[0];
+        }
+
+        void offer(long amount, long sequence) {
+            if (size < amounts.length) {
+                amounts[size] = amount;
+                sequences[size] = sequence;
+                siftUp(size++);
+            } else if (amount > amounts[0]) {
+                amounts[0] = amount;
+                sequences[0] = sequence;
+                siftDown(0);
+            }
+        }
+
+        long[] drainDescending() {
+            long[] drained = new long[size];
+            while (size > 0) {
+                drained[size - 1] = sequences[0];
+                size--;
+                amounts[0] = amounts[size];
+                sequences[0] = sequences[size];
+                siftDown(0);
+            }
+            return drained;
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (amounts[parent] <= amounts[index]) {
+                    return;
+                }
+                swap(parent, index);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int smallest = index;
+                int left = 2 * index + 1;
+                int right = left + 1;
+                if (left < size && amounts[left] < amounts[smallest]) {
+                    smallest = left;
+                }
+                if (right < size && amounts[right] < amounts[smallest]) {
+                    smallest = right;
+                }
+                if (smallest == index) {
+                    return;
+                }
+                swap(smallest, index);
+                index = smallest;
+            }
+        }
+
+        private void swap(int first, int second) {
+            long amount = amounts[first];
+            amounts[first] = amounts[second];
+            amounts[second] = amount;
+            long sequence = sequences[first];
+            sequences[first] = sequences[second];
+            sequences[second] = sequence;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package bank.repository.journal;
+
+import bank.core.models.Account;
+import bank.repository.AccountRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+
+// Колоночный снимок состояния счетов. Файл состоит из заголовка и блоков строк;
+// внутри блока столбцы лежат подряд: старшие половины UUID, младшие половины, балансы,
+// номера последних записей журнала и битовая маска заморозки.
+public final class AccountSnapshotFile {
+
+    public interface RowHandler {
+        void onAccount(long identifierHigh, long identifierLow, long balanceInMinorUnits, boolean frozen, long journalSequenceNumber);
+    }
+
+    private static final int SNAPSHOT_MAGIC = 0x42534E50;
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 4 + 8;
+    private static final int ROWS_PER_BLOCK = 64 * 1024;
+    private static final int LONG_COLUMNS = 4;
+
+    private AccountSnapshotFile() {
+    }
+
+    // Счета читаются по одному под их блокировкой, процессор при этом не останавливается.
+    // replayFromSequence должен быть взят из журнала до начала обхода: все записи с меньшим номером уже в снимке.
+    public static long write(Path snapshotPath, long replayFromSequence, AccountRepository repository) throws IOException {
+        Path temporaryPath = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+        SnapshotBlockWriter blockWriter;
+
+        try (FileChannel channel = FileChannel.open(temporaryPath,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(SNAPSHOT_MAGIC).putInt(SNAPSHOT_VERSION).putLong(replayFromSequence).flip();
+            writeFully(channel, header);
+
+            blockWriter = new SnapshotBlockWriter(channel);
+            try {
+                repository.forEachAccount(blockWriter::capture);
+            } catch (UncheckedIOException writeFailure) {
+                throw writeFailure.getCause();
+            }
+            blockWriter.flushBlock();
+            channel.force(true);
+        }
+
+        Files.move(temporaryPath, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return blockWriter.writtenAccountCount;
+    }
+
+    // Возвращает номер записи журнала, с которой нужно продолжить восстановление.
+    public static long read(Path snapshotPath, RowHandler rowHandler) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshotPath, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            readFully(channel, header);
+            header.flip();
+            if (header.getInt() != SNAPSHOT_MAGIC || header.getInt() != SNAPSHOT_VERSION) {
+                throw new IOException("Not a supported account snapshot: " + snapshotPath);
+            }
+            long replayFromSequence = header.getLong();
+
+            ByteBuffer blockHeader = ByteBuffer.allocate(4);
+            ByteBuffer blockData = ByteBuffer.allocateDirect(blockSizeInBytes(ROWS_PER_BLOCK));
+            long[][] columns = new long[LONG_COLUMNS][ROWS_PER_BLOCK];
+            long[] frozenBits = new long[frozenWordCount(ROWS_PER_BLOCK)];
+
+            while (true) {
+                blockHeader.clear();
+                if (channel.read(blockHeader) <= 0) {
+                    return replayFromSequence;
+                }
+                while (blockHeader.hasRemaining()) {
+                    if (channel.read(blockHeader) < 0) {
+                        throw new IOException("Truncated account snapshot: " + snapshotPath);
+                    }
+                }
+                blockHeader.flip();
+                int rowCount = blockHeader.getInt();
+                if (rowCount <= 0 || rowCount > ROWS_PER_BLOCK) {
+                    throw new IOException("Corrupted block in account snapshot: " + snapshotPath);
+                }
+
+                blockData.clear().limit(blockSizeInBytes(rowCount));
+                readFully(channel, blockData);
+                blockData.flip();
+                for (long[] column : columns) {
+                    blockData.asLongBuffer().get(column, 0, rowCount);
+                    blockData.position(blockData.position() + rowCount * Long.BYTES);
+                }
+                blockData.asLongBuffer().get(frozenBits, 0, frozenWordCount(rowCount));
+
+                for (int row = 0; row < rowCount; row++) {
+                    boolean frozen = (frozenBits[row >>> 6] & (1L << row)) != 0;
+                    rowHandler.onAccount(columns[0][row], columns[1][row], columns[2][row], frozen, columns[3][row]);
+                }
+            }
+        }
+    }
+
+    private static int frozenWordCount(int rowCount) {
+        return (rowCount + 63) >>> 6;
+    }
+
+    private static int blockSizeInBytes(int rowCount) {
+        return (LONG_COLUMNS * rowCount + frozenWordCount(rowCount)) * Long.BYTES;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Unexpected end of account snapshot.");
+            }
+        }
+    }
+
+    private static final class SnapshotBlockWriter {
+
+        private final FileChannel channel;
+        private final long[] identifiersHigh = new long[ROWS_PER_BLOCK];
+        private final long[] identifiersLow = new long[ROWS_PER_BLOCK];
+        private final long[] balances = new long[ROWS_PER_BLOCK];
+        private final long[] journalSequences = new long[ROWS_PER_BLOCK];
+        private final long[] frozenBits = new long[frozenWordCount(ROWS_PER_BLOCK)];
+        private final long[][] longColumns = {identifiersHigh, identifiersLow, balances, journalSequences};
+        private final ByteBuffer blockBuffer = ByteBuffer.allocateDirect(4 + blockSizeInBytes(ROWS_PER_BLOCK));
+        private int rowCount;
+        private long writtenAccountCount;
+
+        SnapshotBlockWriter(FileChannel targetChannel) {
+            this.channel = targetChannel;
+        }
+
+        void capture(Account account) {
+            UUID identifier = account.getAccountIdentifier();
+            Lock accountLock = account.getAccountOperationLock();
+            accountLock.lock();
+            try {
+                balances[rowCount] = account.getCurrentBalanceInMinorUnits();
+                journalSequences[rowCount] = account.getJournalSequenceNumber();
+                if (account.getIsFrozen()) {
+                    frozenBits[rowCount >>> 6] |= 1L << rowCount;
+                }
+            } finally {
+                accountLock.unlock();
+            }
+            identifiersHigh[rowCount] = identifier.getMostSignificantBits();
+            identifiersLow[rowCount] = identifier.getLeastSignificantBits();
+
+            if (++rowCount == ROWS_PER_BLOCK) {
+                try {
+                    flushBlock();
+                } catch (IOException writeException) {
+                    throw new UncheckedIOException(writeException);
+                }
+            }
+        }
+
+        void flushBlock() throws IOException {
+            if (rowCount == 0) {
+                return;
+            }
+            blockBuffer.clear();
+            blockBuffer.putInt(rowCount);
+            for (long[] column : longColumns) {
+                blockBuffer.asLongBuffer().put(column, 0, rowCount);
+                blockBuffer.position(blockBuffer.position() + rowCount * Long.BYTES);
+            }
+            int wordCount = frozenWordCount(rowCount);
+            blockBuffer.asLongBuffer().put(frozenBits, 0, wordCount);
+            blockBuffer.position(blockBuffer.position() + wordCount * Long.BYTES);
+            blockBuffer.flip();
+            writeFully(channel, blockBuffer);
+
+            writtenAccountCount += rowCount;
+            rowCount = 0;
+            Arrays.fill(frozenBits, 0L);
+        }
+    }
+}
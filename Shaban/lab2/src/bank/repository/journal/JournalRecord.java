@@ -0,0 +1,102 @@
+package bank.repository.journal;
+
+import bank.patterns.strategy.TransactionActionType;
+
+import java.util.UUID;
+
+// Переиспользуемая запись журнала (flyweight): при восстановлении один экземпляр заполняется
+// заново для каждой прочитанной записи, поэтому обработчик не должен его сохранять.
+public class JournalRecord {
+
+    public static final byte ACCOUNT_OPENED = 1;
+    public static final byte TRANSACTION_APPLIED = 2;
+
+    private static final TransactionActionType[] ACTION_TYPES = TransactionActionType.values();
+
+    long sequenceNumber;
+    byte recordType;
+    byte actionCode;
+    long accountIdentifierHigh;
+    long accountIdentifierLow;
+    long amountInMinorUnits;
+    long targetIdentifierHigh;
+    long targetIdentifierLow;
+    // Ноги многоадресного перевода; массивы растут по мере надобности и переиспользуются.
+    int legCount;
+    long[] legSourceHigh = new long[0];
+    long[] legSourceLow = new long[0];
+    long[] legTargetHigh = new long[0];
+    long[] legTargetLow = new long[0];
+    long[] legAmountInMinorUnits = new long[0];
+
+    public long getSequenceNumber() {
+        return sequenceNumber;
+    }
+
+    public byte getRecordType() {
+        return recordType;
+    }
+
+    public TransactionActionType getActionType() {
+        return ACTION_TYPES[actionCode];
+    }
+
+    // Для ACCOUNT_OPENED хранит признак заморозки счета на момент открытия.
+    public boolean isFrozenFlagSet() {
+        return actionCode != 0;
+    }
+
+    public long getAccountIdentifierHigh() {
+        return accountIdentifierHigh;
+    }
+
+    public long getAccountIdentifierLow() {
+        return accountIdentifierLow;
+    }
+
+    public UUID getAccountIdentifier() {
+        return new UUID(accountIdentifierHigh, accountIdentifierLow);
+    }
+
+    public long getAmountInMinorUnits() {
+        return amountInMinorUnits;
+    }
+
+    public long getTargetIdentifierHigh() {
+        return targetIdentifierHigh;
+    }
+
+    public long getTargetIdentifierLow() {
+        return targetIdentifierLow;
+    }
+
+    public UUID getTargetIdentifier() {
+        return new UUID(targetIdentifierHigh, targetIdentifierLow);
+    }
+
+    public int getLegCount() {
+        return legCount;
+    }
+
+    public UUID getLegSourceIdentifier(int legIndex) {
+        return new UUID(legSourceHigh[legIndex], legSourceLow[legIndex]);
+    }
+
+    public UUID getLegTargetIdentifier(int legIndex) {
+        return new UUID(legTargetHigh[legIndex], legTargetLow[legIndex]);
+    }
+
+    public long getLegAmountInMinorUnits(int legIndex) {
+        return legAmountInMinorUnits[legIndex];
+    }
+
+    void ensureLegCapacity(int requiredLegCount) {
+        if (legSourceHigh.length < requiredLegCount) {
+            legSourceHigh = new long[requiredLegCount];
+            legSourceLow = new long[requiredLegCount];
+            legTargetHigh = new long[requiredLegCount];
+            legTargetLow = new long[requiredLegCount];
+            legAmountInMinorUnits = new long[requiredLegCount];
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package bank.repository.journal;
+
+// Когда сбрасывать журнал на диск: после каждой записи или группой -
+// как только накопится maxUnsyncedRecords записей либо пройдет maxSyncDelayMillis.
+public class JournalSyncPolicy {
+
+    private final int maxUnsyncedRecords;
+    private final long maxSyncDelayMillis;
+
+    public JournalSyncPolicy(int maxUnsyncedRecords, long maxSyncDelayMillis) {
+        if (maxUnsyncedRecords <= 0 || maxSyncDelayMillis <= 0) {
+            throw new IllegalArgumentException("Sync batch size and delay must be positive.");
+        }
+        this.maxUnsyncedRecords = maxUnsyncedRecords;
+        this.maxSyncDelayMillis = maxSyncDelayMillis;
+    }
+
+    public static JournalSyncPolicy syncEveryRecord() {
+        return new JournalSyncPolicy(1, 1);
+    }
+
+    public static JournalSyncPolicy groupCommit(int maxUnsyncedRecords, long maxSyncDelayMillis) {
+        return new JournalSyncPolicy(maxUnsyncedRecords, maxSyncDelayMillis);
+    }
+
+    public int getMaxUnsyncedRecords() {
+        return maxUnsyncedRecords;
+    }
+
+    public long getMaxSyncDelayMillis() {
+        return maxSyncDelayMillis;
+    }
+
+    public boolean isSyncEveryRecord() {
+        return maxUnsyncedRecords == 1;
+    }
+}
@@ -0,0 +1,515 @@
+package bank.repository.journal;
+
+import bank.core.models.Account;
+import bank.core.models.Transaction;
+import bank.core.models.TransferLeg;
+import bank.patterns.strategy.TransactionActionType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+// Журнал упреждающей записи: сегменты фиксированного размера отображаются в память (mmap),
+// записи только дописываются в конец. Формат записи: [int длина][payload][int CRC32 от payload].
+// Нулевая длина означает конец данных в сегменте. Запись многоадресного перевода длиннее базовой:
+// за общими полями следуют число ног и сами ноги, так что весь перевод защищен одной CRC.
+// durableSequenceNumber - последний номер, покрытый fsync; whenDurable откладывает действие до этого момента,
+// поэтому при групповой фиксации завершения выдаются группой после ее fsync, а не сразу после записи.
+public class TransactionJournal implements AutoCloseable {
+
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final int PAYLOAD_SIZE = 8 + 1 + 1 + 8 + 8 + 8 + 8 + 8;
+    private static final int FRAME_SIZE = 4 + PAYLOAD_SIZE + 4;
+    private static final int LEG_SIZE = 8 + 8 + 8 + 8 + 8;
+
+    private final Path journalDirectory;
+    private final int segmentSize;
+    private final JournalSyncPolicy syncPolicy;
+    private final ReentrantLock appendLock;
+    private final Condition syncRequested;
+    private byte[] payloadScratch;
+    private ByteBuffer payloadWriter;
+    private final CRC32 payloadChecksum;
+    private final Thread flusherThread;
+    // Завершения, ждущие fsync; номера в очереди не убывают, так как ставятся под appendLock.
+    private final ArrayDeque<PendingCompletion> pendingCompletions;
+
+    private MappedByteBuffer activeSegment;
+    private long activeSegmentIndex;
+    private long nextSequenceNumber;
+    private int unsyncedRecordCount;
+    private long durableSequenceNumber;
+    // Сколько потоков сейчас выполняют уже изъятые из очереди завершения (вне блокировки).
+    private int runningCompletionBatches;
+    private boolean journalClosed;
+
+    private TransactionJournal(Path directory, int segmentSizeInBytes, JournalSyncPolicy policy) {
+        this.journalDirectory = directory;
+        this.segmentSize = segmentSizeInBytes;
+        this.syncPolicy = policy;
+        this.appendLock = new ReentrantLock();
+        this.syncRequested = appendLock.newCondition();
+        this.payloadScratch = new byte[PAYLOAD_SIZE];
+        this.payloadWriter = ByteBuffer.wrap(payloadScratch);
+        this.payloadChecksum = new CRC32();
+        this.nextSequenceNumber = 1;
+        this.flusherThread = new Thread(this::runFlusher, "transaction-journal-flusher");
+        this.flusherThread.setDaemon(true);
+        this.pendingCompletions = new ArrayDeque<>();
+    }
+
+    public static TransactionJournal open(Path directory, int segmentSizeInBytes, JournalSyncPolicy policy,
+                                          Consumer<JournalRecord> recordHandler) throws IOException {
+        return open(directory, segmentSizeInBytes, policy, 1L, recordHandler);
+    }
+
+    // Открывает журнал, передает в recordHandler сохраненные записи начиная с replayFromSequence
+    // и готовит журнал к дозаписи. Сегменты, целиком лежащие до replayFromSequence, не читаются.
+    public static TransactionJournal open(Path directory, int segmentSizeInBytes, JournalSyncPolicy policy,
+                                          long replayFromSequence, Consumer<JournalRecord> recordHandler) throws IOException {
+        if (segmentSizeInBytes < FRAME_SIZE) {
+            throw new IllegalArgumentException("Segment size is too small: " + segmentSizeInBytes);
+        }
+        Files.createDirectories(directory);
+        TransactionJournal journal = new TransactionJournal(directory, segmentSizeInBytes, policy);
+        journal.recover(replayFromSequence, recordHandler);
+        if (!policy.isSyncEveryRecord()) {
+            journal.flusherThread.start();
+        }
+        return journal;
+    }
+
+    public long appendAccountOpened(Account openedAccount) {
+        UUID identifier = openedAccount.getAccountIdentifier();
+        return append(JournalRecord.ACCOUNT_OPENED, (byte) (openedAccount.getIsFrozen() ? 1 : 0),
+                identifier.getMostSignificantBits(), identifier.getLeastSignificantBits(),
+                openedAccount.getCurrentBalanceInMinorUnits(), 0L, 0L, null);
+    }
+
+    public long appendTransaction(Transaction appliedTransaction) {
+        UUID identifier = appliedTransaction.getAccountIdentifier();
+        if (appliedTransaction.getActionType() == TransactionActionType.MULTI_TRANSFER) {
+            return append(JournalRecord.TRANSACTION_APPLIED, (byte) appliedTransaction.getActionType().ordinal(),
+                    identifier.getMostSignificantBits(), identifier.getLeastSignificantBits(),
+                    appliedTransaction.getTransactionAmountInMinorUnits(), 0L, 0L, appliedTransaction.getTransferLegs());
+        }
+        UUID targetIdentifier = appliedTransaction.getTargetAccountIdentifier();
+        return append(JournalRecord.TRANSACTION_APPLIED, (byte) appliedTransaction.getActionType().ordinal(),
+                identifier.getMostSignificantBits(), identifier.getLeastSignificantBits(),
+                appliedTransaction.getTransactionAmountInMinorUnits(),
+                targetIdentifier == null ? 0L : targetIdentifier.getMostSignificantBits(),
+                targetIdentifier == null ? 0L : targetIdentifier.getLeastSignificantBits(), null);
+    }
+
+    public long getNextSequenceNumber() {
+        appendLock.lock();
+        try {
+            return nextSequenceNumber;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    public long getDurableSequenceNumber() {
+        appendLock.lock();
+        try {
+            return durableSequenceNumber;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    // Выполняет completion, когда fsync покроет все записи, сделанные до вызова. Если они уже на диске,
+    // completion выполняется сразу в вызывающем потоке, иначе - в потоке сброса после его fsync.
+    // Пока ранее изъятые завершения еще выполняются, новое встает за ними: completion не обгоняет
+    // завершения более ранних записей.
+    public void whenDurable(Runnable completion) {
+        appendLock.lock();
+        try {
+            long requiredSequenceNumber = nextSequenceNumber - 1;
+            if (requiredSequenceNumber > durableSequenceNumber || !pendingCompletions.isEmpty() || runningCompletionBatches > 0) {
+                pendingCompletions.add(new PendingCompletion(requiredSequenceNumber, completion));
+                return;
+            }
+        } finally {
+            appendLock.unlock();
+        }
+        completion.run();
+    }
+
+    public void sync() {
+        appendLock.lock();
+        try {
+            forceActiveSegment();
+        } finally {
+            appendLock.unlock();
+        }
+        runDurableCompletions();
+    }
+
+    @Override
+    public void close() {
+        appendLock.lock();
+        try {
+            if (journalClosed) {
+                return;
+            }
+            forceActiveSegment();
+            journalClosed = true;
+            syncRequested.signalAll();
+        } finally {
+            appendLock.unlock();
+        }
+        runDurableCompletions();
+    }
+
+    private long append(byte recordType, byte actionCode, long accountHigh, long accountLow,
+                        long amountInMinorUnits, long targetHigh, long targetLow, List<TransferLeg> legs) {
+        int payloadLength = legs == null ? PAYLOAD_SIZE : PAYLOAD_SIZE + 4 + legs.size() * LEG_SIZE;
+        int frameSize = 4 + payloadLength + 4;
+        if (frameSize > segmentSize) {
+            throw new IllegalArgumentException("Journal record of " + frameSize + " bytes does not fit into a segment");
+        }
+
+        appendLock.lock();
+        try {
+            if (journalClosed) {
+                throw new IllegalStateException("Transaction journal is closed.");
+            }
+            if (activeSegment.remaining() < frameSize) {
+                rollSegment();
+            }
+            ensureScratchCapacity(payloadLength);
+
+            long sequenceNumber = nextSequenceNumber++;
+            payloadWriter.clear();
+            payloadWriter.putLong(sequenceNumber)
+                    .put(recordType)
+                    .put(actionCode)
+                    .putLong(accountHigh)
+                    .putLong(accountLow)
+                    .putLong(amountInMinorUnits)
+                    .putLong(targetHigh)
+                    .putLong(targetLow);
+            if (legs != null) {
+                payloadWriter.putInt(legs.size());
+                for (TransferLeg leg : legs) {
+                    payloadWriter.putLong(leg.getSourceAccountIdentifier().getMostSignificantBits())
+                            .putLong(leg.getSourceAccountIdentifier().getLeastSignificantBits())
+                            .putLong(leg.getTargetAccountIdentifier().getMostSignificantBits())
+                            .putLong(leg.getTargetAccountIdentifier().getLeastSignificantBits())
+                            .putLong(leg.getAmountInMinorUnits());
+                }
+            }
+            payloadChecksum.reset();
+            payloadChecksum.update(payloadScratch, 0, payloadLength);
+
+            activeSegment.putInt(payloadLength);
+            activeSegment.put(payloadScratch, 0, payloadLength);
+            activeSegment.putInt((int) payloadChecksum.getValue());
+
+            unsyncedRecordCount++;
+            if (syncPolicy.isSyncEveryRecord()) {
+                // forceActiveSegment сдвигает и durableSequenceNumber, так что завершения выдаются сразу.
+                forceActiveSegment();
+            } else if (unsyncedRecordCount >= syncPolicy.getMaxUnsyncedRecords()) {
+                // Групповая фиксация: fsync выполняет фоновый поток сразу для всей накопленной группы.
+                syncRequested.signal();
+            }
+            return sequenceNumber;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private void ensureScratchCapacity(int payloadLength) {
+        if (payloadScratch.length < payloadLength) {
+            payloadScratch = new byte[Math.max(payloadLength, payloadScratch.length * 2)];
+            payloadWriter = ByteBuffer.wrap(payloadScratch);
+        }
+    }
+
+    private void runFlusher() {
+        try {
+            while (true) {
+                MappedByteBuffer segmentToSync;
+                long syncedSequenceNumber;
+                appendLock.lock();
+                try {
+                    if (!journalClosed && unsyncedRecordCount < syncPolicy.getMaxUnsyncedRecords()) {
+                        syncRequested.await(syncPolicy.getMaxSyncDelayMillis(), TimeUnit.MILLISECONDS);
+                    }
+                    if (journalClosed) {
+                        return;
+                    }
+                    if (unsyncedRecordCount == 0 && pendingCompletions.isEmpty()) {
+                        continue;
+                    }
+                    segmentToSync = activeSegment;
+                    syncedSequenceNumber = nextSequenceNumber - 1;
+                    unsyncedRecordCount = 0;
+                } finally {
+                    appendLock.unlock();
+                }
+                // fsync выполняется вне блокировки, чтобы писатели продолжали дописывать следующую группу.
+                // Предыдущие сегменты уже сброшены при смене сегмента, поэтому достаточно активного.
+                segmentToSync.force();
+
+                appendLock.lock();
+                try {
+                    durableSequenceNumber = Math.max(durableSequenceNumber, syncedSequenceNumber);
+                } finally {
+                    appendLock.unlock();
+                }
+                runDurableCompletions();
+            }
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Вызывается под appendLock.
+    private List<Runnable> takeDurableCompletions() {
+        List<Runnable> durableCompletions = new ArrayList<>();
+        while (!pendingCompletions.isEmpty() && pendingCompletions.peek().requiredSequenceNumber <= durableSequenceNumber) {
+            durableCompletions.add(pendingCompletions.poll().completion);
+        }
+        return durableCompletions;
+    }
+
+    // Выполняет вне блокировки все завершения, уже покрытые fsync, включая те, что встали в очередь за время выполнения.
+    private void runDurableCompletions() {
+        while (true) {
+            List<Runnable> durableCompletions;
+            appendLock.lock();
+            try {
+                durableCompletions = takeDurableCompletions();
+                if (durableCompletions.isEmpty()) {
+                    return;
+                }
+                runningCompletionBatches++;
+            } finally {
+                appendLock.unlock();
+            }
+            try {
+                for (Runnable completion : durableCompletions) {
+                    completion.run();
+                }
+            } finally {
+                appendLock.lock();
+                try {
+                    runningCompletionBatches--;
+                } finally {
+                    appendLock.unlock();
+                }
+            }
+        }
+    }
+
+    // Вызывается под appendLock. Сброс активного сегмента делает надежными все записи до текущей,
+    // включая те, что поток сброса еще только сбрасывает: они лежат в этом же сегменте.
+    private void forceActiveSegment() {
+        if (unsyncedRecordCount > 0 && activeSegment != null) {
+            activeSegment.force();
+            unsyncedRecordCount = 0;
+            durableSequenceNumber = nextSequenceNumber - 1;
+        }
+    }
+
+    // Старый сегмент сбрасывается безусловно: поток сброса мог обнулить счетчик, но еще не закончить fsync,
+    // а после смены сегмента forceActiveSegment будет сбрасывать уже только новый.
+    private void rollSegment() {
+        if (activeSegment != null) {
+            activeSegment.force();
+            unsyncedRecordCount = 0;
+            durableSequenceNumber = nextSequenceNumber - 1;
+        }
+        activeSegmentIndex++;
+        activeSegment = mapSegment(activeSegmentIndex);
+    }
+
+    // Удаляет сегменты, все записи которых имеют номер меньше sequenceNumber (например, уже вошли в снимок).
+    public int deleteSegmentsBefore(long sequenceNumber) throws IOException {
+        List<Long> segmentIndexes = listSegmentIndexes();
+        int deletedCount = 0;
+        for (int i = 0; i + 1 < segmentIndexes.size(); i++) {
+            long nextSegmentIndex = segmentIndexes.get(i + 1);
+            appendLock.lock();
+            try {
+                if (nextSegmentIndex > activeSegmentIndex) {
+                    break;
+                }
+            } finally {
+                appendLock.unlock();
+            }
+            long nextSegmentFirstSequence = peekFirstSequence(mapSegment(nextSegmentIndex));
+            if (nextSegmentFirstSequence == 0 || nextSegmentFirstSequence > sequenceNumber) {
+                break;
+            }
+            Files.deleteIfExists(segmentPath(segmentIndexes.get(i)));
+            deletedCount++;
+        }
+        return deletedCount;
+    }
+
+    private void recover(long replayFromSequence, Consumer<JournalRecord> recordHandler) throws IOException {
+        List<Long> segmentIndexes = listSegmentIndexes();
+        JournalRecord reusableRecord = new JournalRecord();
+
+        if (segmentIndexes.isEmpty()) {
+            activeSegmentIndex = 0;
+            activeSegment = mapSegment(0);
+            nextSequenceNumber = Math.max(nextSequenceNumber, replayFromSequence);
+            durableSequenceNumber = nextSequenceNumber - 1;
+            return;
+        }
+
+        // Пропускаем сегменты, если следующий за ними начинается не позже replayFromSequence.
+        int firstSegmentToReplay = 0;
+        while (firstSegmentToReplay + 1 < segmentIndexes.size()) {
+            long nextFirstSequence = peekFirstSequence(mapSegment(segmentIndexes.get(firstSegmentToReplay + 1)));
+            if (nextFirstSequence == 0 || nextFirstSequence > replayFromSequence) {
+                break;
+            }
+            firstSegmentToReplay++;
+        }
+
+        Consumer<JournalRecord> tailHandler = record -> {
+            if (record.getSequenceNumber() >= replayFromSequence) {
+                recordHandler.accept(record);
+            }
+        };
+
+        for (long segmentIndex : segmentIndexes.subList(firstSegmentToReplay, segmentIndexes.size())) {
+            MappedByteBuffer segment = mapSegment(segmentIndex);
+            boolean segmentComplete = replaySegment(segment, reusableRecord, tailHandler);
+            activeSegmentIndex = segmentIndex;
+            activeSegment = segment;
+            if (!segmentComplete) {
+                // Оборванная запись после сбоя: дальше данных нет, дописываем с этого места.
+                break;
+            }
+        }
+        nextSequenceNumber = Math.max(nextSequenceNumber, replayFromSequence);
+        durableSequenceNumber = nextSequenceNumber - 1;
+    }
+
+    private long peekFirstSequence(MappedByteBuffer segment) {
+        if (segment.capacity() < FRAME_SIZE || segment.getInt(0) < PAYLOAD_SIZE) {
+            return 0;
+        }
+        return segment.getLong(4);
+    }
+
+    private boolean replaySegment(MappedByteBuffer segment, JournalRecord record, Consumer<JournalRecord> recordHandler) {
+        while (segment.remaining() >= FRAME_SIZE) {
+            int frameStart = segment.position();
+            int payloadLength = segment.getInt();
+            if (payloadLength == 0) {
+                segment.position(frameStart);
+                return true;
+            }
+            if (payloadLength < PAYLOAD_SIZE || payloadLength > segment.remaining() - 4) {
+                segment.position(frameStart);
+                return false;
+            }
+
+            ensureScratchCapacity(payloadLength);
+            segment.get(payloadScratch, 0, payloadLength);
+            int storedChecksum = segment.getInt();
+            payloadChecksum.reset();
+            payloadChecksum.update(payloadScratch, 0, payloadLength);
+            if ((int) payloadChecksum.getValue() != storedChecksum) {
+                segment.position(frameStart);
+                return false;
+            }
+
+            payloadWriter.clear();
+            record.sequenceNumber = payloadWriter.getLong();
+            record.recordType = payloadWriter.get();
+            record.actionCode = payloadWriter.get();
+            record.accountIdentifierHigh = payloadWriter.getLong();
+            record.accountIdentifierLow = payloadWriter.getLong();
+            record.amountInMinorUnits = payloadWriter.getLong();
+            record.targetIdentifierHigh = payloadWriter.getLong();
+            record.targetIdentifierLow = payloadWriter.getLong();
+            record.legCount = 0;
+            if (payloadLength > PAYLOAD_SIZE) {
+                int legCount = payloadWriter.getInt();
+                if (legCount < 0 || payloadLength != PAYLOAD_SIZE + 4 + legCount * LEG_SIZE) {
+                    segment.position(frameStart);
+                    return false;
+                }
+                record.ensureLegCapacity(legCount);
+                for (int i = 0; i < legCount; i++) {
+                    record.legSourceHigh[i] = payloadWriter.getLong();
+                    record.legSourceLow[i] = payloadWriter.getLong();
+                    record.legTargetHigh[i] = payloadWriter.getLong();
+                    record.legTargetLow[i] = payloadWriter.getLong();
+                    record.legAmountInMinorUnits[i] = payloadWriter.getLong();
+                }
+                record.legCount = legCount;
+            }
+
+            nextSequenceNumber = record.sequenceNumber + 1;
+            recordHandler.accept(record);
+        }
+        return true;
+    }
+
+    private List<Long> listSegmentIndexes() throws IOException {
+        List<Long> segmentIndexes = new ArrayList<>();
+        try (Stream<Path> files = Files.list(journalDirectory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .forEach(name -> segmentIndexes.add(Long.parseLong(
+                            name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()))));
+        }
+        segmentIndexes.sort(null);
+        return segmentIndexes;
+    }
+
+    private Path segmentPath(long segmentIndex) {
+        return journalDirectory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, segmentIndex, SEGMENT_SUFFIX));
+    }
+
+    private MappedByteBuffer mapSegment(long segmentIndex) {
+        Path segmentPath = segmentPath(segmentIndex);
+        try (FileChannel channel = FileChannel.open(segmentPath,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // Отображение остается действительным и после закрытия канала.
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        } catch (IOException mappingException) {
+            throw new UncheckedIOException("Cannot map journal segment " + segmentPath, mappingException);
+        }
+    }
+
+    private static final class PendingCompletion {
+
+        final long requiredSequenceNumber;
+        final Runnable completion;
+
+        PendingCompletion(long requiredSequenceNumber, Runnable completion) {
+            this.requiredSequenceNumber = requiredSequenceNumber;
+            this.completion = completion;
+        }
+    }
+}
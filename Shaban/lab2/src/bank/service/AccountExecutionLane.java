@@ -0,0 +1,70 @@
+package bank.service;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Полоса исполнения группы счетов: команды выполняются строго по одной и в порядке поступления,
+// поэтому стратегии над одним счетом никогда не конкурируют за его блокировку внутри движка.
+// После остановки исполнителя полоса не может перепоставить себя в его очередь и дорабатывает
+// оставшиеся команды в текущем потоке, так что принятые команды не теряются.
+public class AccountExecutionLane implements Runnable {
+
+    private static final int MAX_COMMANDS_PER_DRAIN = 64;
+
+    private final BoundedMpscQueue<Runnable> pendingCommands;
+    private final AtomicBoolean drainScheduled;
+    private final Executor drainExecutor;
+
+    public AccountExecutionLane(int laneCapacity, Executor executor) {
+        this.pendingCommands = new BoundedMpscQueue<>(laneCapacity);
+        this.drainScheduled = new AtomicBoolean(false);
+        this.drainExecutor = executor;
+    }
+
+    public boolean enqueue(Runnable command) {
+        if (!pendingCommands.offer(command)) {
+            return false;
+        }
+        if (!scheduleDrain()) {
+            run();
+        }
+        return true;
+    }
+
+    public int getPendingCommandCount() {
+        return pendingCommands.size();
+    }
+
+    // false - разбор поручен вызывающему: исполнитель уже остановлен, а команды в очереди нужно доработать.
+    private boolean scheduleDrain() {
+        if (!drainScheduled.compareAndSet(false, true)) {
+            return true;
+        }
+        try {
+            drainExecutor.execute(this);
+            return true;
+        } catch (RejectedExecutionException executorStopped) {
+            return false;
+        }
+    }
+
+    @Override
+    public void run() {
+        boolean drainInline;
+        do {
+            try {
+                Runnable command;
+                int drainedCount = 0;
+                // Ограничиваем пачку, чтобы горячий счет не занимал рабочий поток бесконечно.
+                while (drainedCount < MAX_COMMANDS_PER_DRAIN && (command = pendingCommands.poll()) != null) {
+                    command.run();
+                    drainedCount++;
+                }
+            } finally {
+                drainScheduled.set(false);
+                drainInline = !pendingCommands.isEmpty() && !scheduleDrain();
+            }
+        } while (drainInline);
+    }
+}
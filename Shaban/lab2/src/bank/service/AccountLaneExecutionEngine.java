@@ -0,0 +1,75 @@
+package bank.service;
+
+import bank.core.models.Account;
+import bank.patterns.command.TransactionCommand;
+
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Счета раскладываются по фиксированному набору полос по хешу UUID: команды одного счета всегда
+// попадают в одну полосу и идут в порядке поступления, а память движка не растет с числом счетов.
+// Цена - несколько счетов делят полосу и ее очередь, поэтому URGENT идут в обход полос (UrgentCommandBypass).
+public class AccountLaneExecutionEngine implements TransactionExecutionEngine {
+
+    private final ExecutorService drainExecutor;
+    private final AccountExecutionLane[] accountLanes;
+    private final int laneMask;
+    private final UrgentCommandBypass urgentBypass;
+
+    public AccountLaneExecutionEngine(ExecutorService executor, int laneCount, int capacityPerLane) {
+        if (laneCount <= 0 || Integer.bitCount(laneCount) != 1) {
+            throw new IllegalArgumentException("Lane count must be a positive power of two: " + laneCount);
+        }
+        this.drainExecutor = executor;
+        this.accountLanes = new AccountExecutionLane[laneCount];
+        this.laneMask = laneCount - 1;
+        for (int i = 0; i < laneCount; i++) {
+            accountLanes[i] = new AccountExecutionLane(capacityPerLane, executor);
+        }
+        this.urgentBypass = new UrgentCommandBypass(capacityPerLane);
+    }
+
+    @Override
+    public boolean dispatch(Account targetAccount, TransactionCommand command) {
+        if (drainExecutor.isShutdown()) {
+            return false;
+        }
+        if (UrgentCommandBypass.isUrgent(command)) {
+            return urgentBypass.dispatch(command);
+        }
+        return accountLanes[laneIndexOf(targetAccount.getAccountIdentifier(), laneMask)].enqueue(command);
+    }
+
+    // Финализатор SplitMix64: у случайных UUID v4 часть битов фиксирована, поэтому их нужно перемешать.
+    static int laneIndexOf(UUID accountIdentifier, int laneMask) {
+        long mixed = accountIdentifier.getMostSignificantBits() * 0x9E3779B97F4A7C15L ^ accountIdentifier.getLeastSignificantBits();
+        mixed = (mixed ^ (mixed >>> 30)) * 0xBF58476D1CE4E5B9L;
+        mixed = (mixed ^ (mixed >>> 27)) * 0x94D049BB133111EBL;
+        return (int) (mixed ^ (mixed >>> 31)) & laneMask;
+    }
+
+    @Override
+    public int getQueuedCommandCount() {
+        int queuedCount = urgentBypass.getQueuedCommandCount();
+        for (AccountExecutionLane lane : accountLanes) {
+            queuedCount += lane.getPendingCommandCount();
+        }
+        return queuedCount;
+    }
+
+    @Override
+    public void shutdown() {
+        urgentBypass.shutdown();
+        drainExecutor.shutdown();
+    }
+
+    // Исполнитель завершается, только когда полосы доработали свои очереди: полоса, которую он уже не принимает,
+    // дорабатывает очередь в своем потоке.
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadlineNanos = System.nanoTime() + unit.toNanos(timeout);
+        return drainExecutor.awaitTermination(timeout, unit)
+                && urgentBypass.awaitTermination(deadlineNanos - System.nanoTime());
+    }
+}
@@ -0,0 +1,70 @@
+package bank.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Кольцевой буфер "много производителей - один потребитель" без блокировок.
+// Производители резервируют слот через CAS на producerIndex, читает только поток-владелец очереди.
+public class BoundedMpscQueue<E> {
+
+    private final AtomicReferenceArray<E> slotBuffer;
+    private final int indexMask;
+    private final AtomicLong producerIndex;
+    private final AtomicLong consumerIndex;
+
+    public BoundedMpscQueue(int requestedCapacity) {
+        if (requestedCapacity <= 0) {
+            throw new IllegalArgumentException("Queue capacity must be positive: " + requestedCapacity);
+        }
+        int capacity = Integer.highestOneBit(requestedCapacity);
+        if (capacity < requestedCapacity) {
+            capacity <<= 1;
+        }
+        this.slotBuffer = new AtomicReferenceArray<>(capacity);
+        this.indexMask = capacity - 1;
+        this.producerIndex = new AtomicLong();
+        this.consumerIndex = new AtomicLong();
+    }
+
+    public boolean offer(E element) {
+        if (element == null) {
+            throw new NullPointerException("Queue does not accept null elements");
+        }
+        long claimedIndex;
+        do {
+            claimedIndex = producerIndex.get();
+            if (claimedIndex - consumerIndex.get() > indexMask) {
+                return false;
+            }
+        } while (!producerIndex.compareAndSet(claimedIndex, claimedIndex + 1));
+
+        slotBuffer.lazySet((int) claimedIndex & indexMask, element);
+        return true;
+    }
+
+    // Вызывается только единственным потребителем.
+    public E poll() {
+        long currentIndex = consumerIndex.get();
+        int slot = (int) currentIndex & indexMask;
+        E element = slotBuffer.get(slot);
+        if (element == null) {
+            return null;
+        }
+        slotBuffer.lazySet(slot, null);
+        consumerIndex.lazySet(currentIndex + 1);
+        return element;
+    }
+
+    public boolean isEmpty() {
+        return consumerIndex.get() == producerIndex.get();
+    }
+
+    public int size() {
+        long size = producerIndex.get() - consumerIndex.get();
+        return (int) Math.max(0, Math.min(size, indexMask + 1));
+    }
+
+    public int capacity() {
+        return indexMask + 1;
+    }
+}
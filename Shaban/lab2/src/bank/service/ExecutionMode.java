@@ -0,0 +1,35 @@
+package bank.service;
+
+import java.util.concurrent.Executors;
+
+public enum ExecutionMode {
+    SHARED_POOL,
+    ACCOUNT_LANES,
+    GROUP_COMMIT,
+    VIRTUAL_THREADS,
+    PRIORITY_POOL;
+
+    private static final int ACCOUNT_LANE_COUNT = 1024;
+    private static final int ACCOUNT_LANE_CAPACITY = 1024;
+    private static final int SHARED_POOL_QUEUE_CAPACITY = 1 << 16;
+    private static final int GROUP_COMMIT_BATCH_SIZE = 128;
+
+    public TransactionExecutionEngine createEngine() {
+        int availableCores = Runtime.getRuntime().availableProcessors();
+        switch (this) {
+            case SHARED_POOL:
+                return new FixedPoolExecutionEngine(availableCores * 4, SHARED_POOL_QUEUE_CAPACITY);
+            case ACCOUNT_LANES:
+                // В режимах с полосами потоки не ждут на блокировках счетов, поэтому хватает одного потока на ядро.
+                return new AccountLaneExecutionEngine(Executors.newFixedThreadPool(availableCores), ACCOUNT_LANE_COUNT, ACCOUNT_LANE_CAPACITY);
+            case GROUP_COMMIT:
+                return new GroupCommitExecutionEngine(Executors.newFixedThreadPool(availableCores), ACCOUNT_LANE_COUNT, ACCOUNT_LANE_CAPACITY, GROUP_COMMIT_BATCH_SIZE);
+            case VIRTUAL_THREADS:
+                return new VirtualThreadExecutionEngine();
+            case PRIORITY_POOL:
+                return new PriorityExecutionEngine(availableCores * 4, SHARED_POOL_QUEUE_CAPACITY);
+            default:
+                throw new IllegalArgumentException("Unknown execution mode: " + this);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package bank.service;
+
+import bank.core.models.Account;
+import bank.patterns.command.TransactionCommand;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+public class FixedPoolExecutionEngine implements TransactionExecutionEngine {
+
+    private final ThreadPoolExecutor commandExecutor;
+
+    // Очередь ограничена: при переполнении dispatch возвращает false, а не копит команды до нехватки памяти.
+    public FixedPoolExecutionEngine(int threadCount, int queueCapacity) {
+        this.commandExecutor = new ThreadPoolExecutor(threadCount, threadCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public boolean dispatch(Account targetAccount, TransactionCommand command) {
+        try {
+            commandExecutor.execute(command);
+            return true;
+        } catch (RejectedExecutionException queueFull) {
+            return false;
+        }
+    }
+
+    @Override
+    public int getQueuedCommandCount() {
+        return commandExecutor.getQueue().size();
+    }
+
+    @Override
+    public void shutdown() {
+        commandExecutor.shutdown();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return commandExecutor.awaitTermination(timeout, unit);
+    }
+}
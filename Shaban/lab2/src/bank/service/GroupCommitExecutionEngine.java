@@ -0,0 +1,79 @@
+package bank.service;
+
+import bank.core.models.Account;
+import bank.core.models.Transaction;
+import bank.patterns.command.TransactionCommand;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+// Полосы фиксированы и выбираются по хешу счета, как в AccountLaneExecutionEngine; URGENT так же идут в обход полос
+// и завершаются по одной, через обработчик команды, а не пачкой.
+public class GroupCommitExecutionEngine implements TransactionExecutionEngine {
+
+    private final ExecutorService drainExecutor;
+    private final int laneCount;
+    private final int laneCapacity;
+    private final int maxBatchSize;
+    private final UrgentCommandBypass urgentBypass;
+    private GroupCommitLane[] groupCommitLanes;
+
+    public GroupCommitExecutionEngine(ExecutorService executor, int laneCount, int capacityPerLane, int batchSize) {
+        if (laneCount <= 0 || Integer.bitCount(laneCount) != 1) {
+            throw new IllegalArgumentException("Lane count must be a positive power of two: " + laneCount);
+        }
+        this.drainExecutor = executor;
+        this.laneCount = laneCount;
+        this.laneCapacity = capacityPerLane;
+        this.maxBatchSize = batchSize;
+        this.urgentBypass = new UrgentCommandBypass(capacityPerLane);
+    }
+
+    // Полосам нужен обработчик пачек процессора, поэтому они создаются здесь, до первой команды.
+    @Override
+    public void start(BiConsumer<Account, List<Transaction>> completionHandler) {
+        GroupCommitLane[] lanes = new GroupCommitLane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new GroupCommitLane(laneCapacity, maxBatchSize, drainExecutor, completionHandler);
+        }
+        this.groupCommitLanes = lanes;
+    }
+
+    @Override
+    public boolean dispatch(Account targetAccount, TransactionCommand command) {
+        if (drainExecutor.isShutdown()) {
+            return false;
+        }
+        if (UrgentCommandBypass.isUrgent(command)) {
+            return urgentBypass.dispatch(command);
+        }
+        int laneIndex = AccountLaneExecutionEngine.laneIndexOf(targetAccount.getAccountIdentifier(), laneCount - 1);
+        return groupCommitLanes[laneIndex].enqueue(command);
+    }
+
+    @Override
+    public int getQueuedCommandCount() {
+        int queuedCount = urgentBypass.getQueuedCommandCount();
+        for (GroupCommitLane lane : groupCommitLanes) {
+            queuedCount += lane.getPendingCommandCount();
+        }
+        return queuedCount;
+    }
+
+    @Override
+    public void shutdown() {
+        urgentBypass.shutdown();
+        drainExecutor.shutdown();
+    }
+
+    // Исполнитель завершается, только когда полосы доработали свои очереди: полоса, которую он уже не принимает,
+    // дорабатывает очередь в своем потоке.
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadlineNanos = System.nanoTime() + unit.toNanos(timeout);
+        return drainExecutor.awaitTermination(timeout, unit)
+                && urgentBypass.awaitTermination(deadlineNanos - System.nanoTime());
+    }
+}
@@ -0,0 +1,131 @@
+package bank.service;
+
+import bank.core.models.Account;
+import bank.core.models.Transaction;
+import bank.patterns.command.TransactionCommand;
+import bank.patterns.strategy.TransactionActionType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+
+// Пакетная полоса группы счетов: накопленные команды забираются микропачками, пополнения и списания
+// одного счета выполняются подряд под одним захватом его блокировки, а сохранение и уведомления
+// идут раз на пачку. Пачка относится к одному счету: на команде другого счета она завершается.
+// После остановки исполнителя оставшиеся команды дорабатываются в текущем потоке, как в AccountExecutionLane.
+public class GroupCommitLane implements Runnable {
+
+    private final BoundedMpscQueue<TransactionCommand> pendingCommands;
+    private final AtomicBoolean drainScheduled;
+    private final Executor drainExecutor;
+    private final int maxBatchSize;
+    private final BiConsumer<Account, List<Transaction>> batchCompletionHandler;
+
+    public GroupCommitLane(int laneCapacity, int batchSize, Executor executor,
+                           BiConsumer<Account, List<Transaction>> completionHandler) {
+        this.pendingCommands = new BoundedMpscQueue<>(laneCapacity);
+        this.drainScheduled = new AtomicBoolean(false);
+        this.drainExecutor = executor;
+        this.maxBatchSize = batchSize;
+        this.batchCompletionHandler = completionHandler;
+    }
+
+    public boolean enqueue(TransactionCommand command) {
+        if (!pendingCommands.offer(command)) {
+            return false;
+        }
+        if (!scheduleDrain()) {
+            run();
+        }
+        return true;
+    }
+
+    public int getPendingCommandCount() {
+        return pendingCommands.size();
+    }
+
+    private boolean scheduleDrain() {
+        if (!drainScheduled.compareAndSet(false, true)) {
+            return true;
+        }
+        try {
+            drainExecutor.execute(this);
+            return true;
+        } catch (RejectedExecutionException executorStopped) {
+            return false;
+        }
+    }
+
+    @Override
+    public void run() {
+        boolean drainInline;
+        do {
+            try {
+                drainBatch();
+            } finally {
+                drainScheduled.set(false);
+                drainInline = !pendingCommands.isEmpty() && !scheduleDrain();
+            }
+        } while (drainInline);
+    }
+
+    private void drainBatch() {
+        List<Transaction> completedBatch = new ArrayList<>(Math.min(maxBatchSize, pendingCommands.size() + 1));
+        Account batchAccount = null;
+        boolean lockHeld = false;
+        int drainedCount = 0;
+
+        try {
+            TransactionCommand command;
+            while (drainedCount < maxBatchSize && (command = pendingCommands.poll()) != null) {
+                Account commandAccount = command.getTargetAccount();
+                if (batchAccount != null && commandAccount != batchAccount) {
+                    if (lockHeld) {
+                        batchAccount.getAccountOperationLock().unlock();
+                        lockHeld = false;
+                    }
+                    batchCompletionHandler.accept(batchAccount, Collections.unmodifiableList(completedBatch));
+                    completedBatch = new ArrayList<>(Math.min(maxBatchSize - drainedCount, pendingCommands.size() + 1));
+                }
+                batchAccount = commandAccount;
+
+                if (isBatchable(command)) {
+                    if (!lockHeld) {
+                        // Ожидание блокировки пачки приписывается команде, которая ее запросила.
+                        long lockRequestedNanos = System.nanoTime();
+                        batchAccount.getAccountOperationLock().lock();
+                        command.getTransactionData().addLockWaitNanos(System.nanoTime() - lockRequestedNanos);
+                        lockHeld = true;
+                    }
+                } else if (lockHeld) {
+                    // Перевод берет блокировки в порядке UUID, поэтому его нельзя выполнять,
+                    // удерживая блокировку счета пачки: иначе возможна взаимная блокировка.
+                    batchAccount.getAccountOperationLock().unlock();
+                    lockHeld = false;
+                }
+                command.executeStrategy();
+                completedBatch.add(command.getTransactionData());
+                drainedCount++;
+                // Завершение пачки работает уже с транзакциями, сама команда больше не нужна.
+                command.recycle();
+            }
+        } finally {
+            if (lockHeld) {
+                batchAccount.getAccountOperationLock().unlock();
+            }
+        }
+
+        if (!completedBatch.isEmpty()) {
+            batchCompletionHandler.accept(batchAccount, Collections.unmodifiableList(completedBatch));
+        }
+    }
+
+    private boolean isBatchable(TransactionCommand command) {
+        TransactionActionType actionType = command.getTransactionData().getActionType();
+        return actionType == TransactionActionType.DEPOSIT || actionType == TransactionActionType.WITHDRAWAL;
+    }
+}
@@ -0,0 +1,156 @@
+package bank.service;
+
+import bank.core.models.Transaction;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Недавние ключи идемпотентности и результаты их первых попыток. Таблица разбита на полосы
+// со своей блокировкой; внутри полосы записи лежат в порядке вставки, поэтому истекшие
+// и лишние записи всегда в голове и удаляются за O(1) на вставку.
+// Память ограничена числом записей: при переполнении полосы вытесняется самая старая запись,
+// даже если ее срок еще не истек.
+public class IdempotencyCache {
+
+    public static final long DEFAULT_TIME_TO_LIVE_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    public static final int DEFAULT_MAX_ENTRIES = 1 << 20;
+    private static final int STRIPE_COUNT = 64;
+
+    private final KeyStripe[] keyStripes;
+    private final long timeToLiveMillis;
+    private final LongAdder duplicateCount = new LongAdder();
+
+    public IdempotencyCache() {
+        this(DEFAULT_TIME_TO_LIVE_MILLIS, DEFAULT_MAX_ENTRIES);
+    }
+
+    public IdempotencyCache(long timeToLiveMillis, int maxEntries) {
+        if (timeToLiveMillis <= 0 || maxEntries <= 0) {
+            throw new IllegalArgumentException("Time to live and entry limit must be positive");
+        }
+        this.timeToLiveMillis = timeToLiveMillis;
+        this.keyStripes = new KeyStripe[STRIPE_COUNT];
+        int stripeCapacity = Math.max(1, maxEntries / STRIPE_COUNT);
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            keyStripes[i] = new KeyStripe(stripeCapacity);
+        }
+    }
+
+    // Регистрирует первую попытку. Если ключ уже есть и не истек, возвращает результат той попытки,
+    // а переданный future не используется; иначе возвращает null, и вызывающий должен исполнить операцию.
+    public CompletableFuture<Transaction> registerOrGet(String idempotencyKey, CompletableFuture<Transaction> firstAttempt) {
+        CompletableFuture<Transaction> existingAttempt = stripeFor(idempotencyKey)
+                .putIfAbsent(idempotencyKey, firstAttempt, System.currentTimeMillis(), timeToLiveMillis);
+        if (existingAttempt != null) {
+            duplicateCount.increment();
+        }
+        return existingAttempt;
+    }
+
+    // Снимает ключ, если он все еще указывает на эту попытку: повтор после отказа исполнится заново.
+    public void forget(String idempotencyKey, CompletableFuture<Transaction> attempt) {
+        stripeFor(idempotencyKey).removeIfSame(idempotencyKey, attempt);
+    }
+
+    public long getDuplicateCount() {
+        return duplicateCount.sum();
+    }
+
+    public int size() {
+        int totalSize = 0;
+        for (KeyStripe stripe : keyStripes) {
+            totalSize += stripe.size();
+        }
+        return totalSize;
+    }
+
+    private KeyStripe stripeFor(String idempotencyKey) {
+        int keyHash = idempotencyKey.hashCode();
+        return keyStripes[(keyHash ^ (keyHash >>> 16)) & (STRIPE_COUNT - 1)];
+    }
+
+    private static final class KeyStripe {
+
+        private final ReentrantLock stripeLock = new ReentrantLock();
+        private final LinkedHashMap<String, CachedAttempt> attemptsByKey = new LinkedHashMap<>();
+        private final int capacity;
+
+        KeyStripe(int capacity) {
+            this.capacity = capacity;
+        }
+
+        CompletableFuture<Transaction> putIfAbsent(String idempotencyKey, CompletableFuture<Transaction> attempt,
+                                                   long nowMillis, long timeToLiveMillis) {
+            stripeLock.lock();
+            try {
+                evictExpired(nowMillis);
+                CachedAttempt existing = attemptsByKey.get(idempotencyKey);
+                if (existing != null && !isRetryable(existing.result)) {
+                    return existing.result;
+                }
+                if (existing != null) {
+                    // Отказ мог завершиться раньше, чем его успели забыть; повтор идет в конец как новая запись.
+                    attemptsByKey.remove(idempotencyKey);
+                } else if (attemptsByKey.size() >= capacity) {
+                    Iterator<CachedAttempt> oldest = attemptsByKey.values().iterator();
+                    oldest.next();
+                    oldest.remove();
+                }
+                attemptsByKey.put(idempotencyKey, new CachedAttempt(attempt, nowMillis + timeToLiveMillis));
+                return null;
+            } finally {
+                stripeLock.unlock();
+            }
+        }
+
+        void removeIfSame(String idempotencyKey, CompletableFuture<Transaction> attempt) {
+            stripeLock.lock();
+            try {
+                CachedAttempt existing = attemptsByKey.get(idempotencyKey);
+                if (existing != null && existing.result == attempt) {
+                    attemptsByKey.remove(idempotencyKey);
+                }
+            } finally {
+                stripeLock.unlock();
+            }
+        }
+
+        int size() {
+            stripeLock.lock();
+            try {
+                return attemptsByKey.size();
+            } finally {
+                stripeLock.unlock();
+            }
+        }
+
+        private static boolean isRetryable(CompletableFuture<Transaction> attempt) {
+            Transaction completedTransaction = attempt.isDone() && !attempt.isCompletedExceptionally() ? attempt.join() : null;
+            return completedTransaction != null && completedTransaction.getOutcome().isRetryable();
+        }
+
+        // Срок у всех записей одинаковый, поэтому порядок вставки совпадает с порядком истечения.
+        private void evictExpired(long nowMillis) {
+            Iterator<Map.Entry<String, CachedAttempt>> entries = attemptsByKey.entrySet().iterator();
+            while (entries.hasNext() && entries.next().getValue().expiresAtMillis <= nowMillis) {
+                entries.remove();
+            }
+        }
+    }
+
+    private static final class CachedAttempt {
+
+        final CompletableFuture<Transaction> result;
+        final long expiresAtMillis;
+
+        CachedAttempt(CompletableFuture<Transaction> result, long expiresAtMillis) {
+            this.result = result;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
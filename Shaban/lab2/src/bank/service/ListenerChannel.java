@@ -0,0 +1,245 @@
+package bank.service;
+
+import bank.core.models.Transaction;
+import bank.patterns.observer.TransactionStatusListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Кольцевой буфер одного слушателя и его собственный поток доставки.
+// Рабочие потоки только кладут завершения в буфер; вызов слушателя идет пачками и вне блокировки.
+// Исключение слушателя не останавливает доставку: оно считается и доступно через getLastListenerFailure.
+public class ListenerChannel {
+
+    private static final long IDLE_WAIT_MILLIS = 100;
+
+    private final TransactionStatusListener listener;
+    private final ListenerOverflowPolicy overflowPolicy;
+    private final int maxDeliveryBatchSize;
+    private final Transaction[] pendingTransactions;
+    private final ReentrantLock bufferLock;
+    private final Condition notEmpty;
+    private final Condition notFull;
+    private final AtomicLong droppedCount;
+    private final AtomicLong coalescedCount;
+    private final AtomicLong listenerFailureCount;
+    private volatile RuntimeException lastListenerFailure;
+    private Thread deliveryThread;
+
+    private int headIndex;
+    private int pendingCount;
+    private boolean isClosed;
+
+    public ListenerChannel(TransactionStatusListener listener, int bufferCapacity, int deliveryBatchSize, ListenerOverflowPolicy policy) {
+        if (bufferCapacity <= 0 || deliveryBatchSize <= 0) {
+            throw new IllegalArgumentException("Buffer capacity and delivery batch size must be positive");
+        }
+        this.listener = listener;
+        this.overflowPolicy = policy;
+        this.maxDeliveryBatchSize = deliveryBatchSize;
+        this.pendingTransactions = new Transaction[bufferCapacity];
+        this.bufferLock = new ReentrantLock();
+        this.notEmpty = bufferLock.newCondition();
+        this.notFull = bufferLock.newCondition();
+        this.droppedCount = new AtomicLong();
+        this.coalescedCount = new AtomicLong();
+        this.listenerFailureCount = new AtomicLong();
+    }
+
+    // Поток создается здесь, а не в конструкторе, чтобы не публиковать недостроенный канал.
+    public void start() {
+        bufferLock.lock();
+        try {
+            if (deliveryThread != null) {
+                return;
+            }
+            deliveryThread = new Thread(this::deliverPendingTransactions, "listener-" + listener.getClass().getSimpleName());
+            deliveryThread.setDaemon(true);
+            deliveryThread.start();
+        } finally {
+            bufferLock.unlock();
+        }
+    }
+
+    public TransactionStatusListener getListener() {
+        return listener;
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    public long getListenerFailureCount() {
+        return listenerFailureCount.get();
+    }
+
+    public RuntimeException getLastListenerFailure() {
+        return lastListenerFailure;
+    }
+
+    public int getPendingCount() {
+        bufferLock.lock();
+        try {
+            return pendingCount;
+        } finally {
+            bufferLock.unlock();
+        }
+    }
+
+    public void publish(Transaction completedTransaction) {
+        bufferLock.lock();
+        try {
+            if (isClosed) {
+                return;
+            }
+            boolean wasEmpty = pendingCount == 0;
+            enqueueLocked(completedTransaction);
+            if (wasEmpty) {
+                notEmpty.signal();
+            }
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+        } finally {
+            bufferLock.unlock();
+        }
+    }
+
+    // Пачка из группового коммита кладется под одним захватом блокировки.
+    public void publishBatch(List<Transaction> completedBatch) {
+        bufferLock.lock();
+        try {
+            if (isClosed) {
+                return;
+            }
+            boolean wasEmpty = pendingCount == 0;
+            for (Transaction completedTransaction : completedBatch) {
+                enqueueLocked(completedTransaction);
+            }
+            if (wasEmpty) {
+                notEmpty.signal();
+            }
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+        } finally {
+            bufferLock.unlock();
+        }
+    }
+
+    private void enqueueLocked(Transaction completedTransaction) throws InterruptedException {
+        int capacity = pendingTransactions.length;
+        if (pendingCount == capacity) {
+            switch (overflowPolicy) {
+                case BLOCK:
+                    while (pendingCount == capacity && !isClosed) {
+                        // Перед ожиданием будим доставку: иначе пачка, начатая на пустом буфере, могла бы ее не разбудить.
+                        notEmpty.signal();
+                        notFull.await();
+                    }
+                    if (isClosed) {
+                        return;
+                    }
+                    break;
+                case COALESCE:
+                    if (replaceLatestOfSameAccountLocked(completedTransaction)) {
+                        coalescedCount.incrementAndGet();
+                        return;
+                    }
+                    dropOldestLocked();
+                    break;
+                case DROP_OLDEST:
+                default:
+                    dropOldestLocked();
+                    break;
+            }
+        }
+        pendingTransactions[(headIndex + pendingCount) % capacity] = completedTransaction;
+        pendingCount++;
+    }
+
+    // Поиск идет с хвоста: переполнение - редкий путь, а свежие события одного счета обычно рядом.
+    private boolean replaceLatestOfSameAccountLocked(Transaction completedTransaction) {
+        int capacity = pendingTransactions.length;
+        for (int offset = pendingCount - 1; offset >= 0; offset--) {
+            int slotIndex = (headIndex + offset) % capacity;
+            if (pendingTransactions[slotIndex].getAccountIdentifier().equals(completedTransaction.getAccountIdentifier())) {
+                pendingTransactions[slotIndex] = completedTransaction;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void dropOldestLocked() {
+        pendingTransactions[headIndex] = null;
+        headIndex = (headIndex + 1) % pendingTransactions.length;
+        pendingCount--;
+        droppedCount.incrementAndGet();
+    }
+
+    private void deliverPendingTransactions() {
+        while (true) {
+            List<Transaction> deliveryBatch;
+            bufferLock.lock();
+            try {
+                while (pendingCount == 0 && !isClosed) {
+                    notEmpty.await(IDLE_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                if (pendingCount == 0) {
+                    return;
+                }
+                int capacity = pendingTransactions.length;
+                int takeCount = Math.min(pendingCount, maxDeliveryBatchSize);
+                deliveryBatch = new ArrayList<>(takeCount);
+                for (int i = 0; i < takeCount; i++) {
+                    deliveryBatch.add(pendingTransactions[headIndex]);
+                    pendingTransactions[headIndex] = null;
+                    headIndex = (headIndex + 1) % capacity;
+                }
+                pendingCount -= takeCount;
+                notFull.signalAll();
+            } catch (InterruptedException interruptedException) {
+                return;
+            } finally {
+                bufferLock.unlock();
+            }
+
+            try {
+                listener.notifyTransactionBatch(Collections.unmodifiableList(deliveryBatch));
+            } catch (RuntimeException listenerException) {
+                listenerFailureCount.incrementAndGet();
+                lastListenerFailure = listenerException;
+            }
+        }
+    }
+
+    // Прием закрывается сразу, а уже накопленные события доставляются до конца.
+    public void close(long timeoutMillis) {
+        Thread threadToJoin;
+        bufferLock.lock();
+        try {
+            isClosed = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+            threadToJoin = deliveryThread;
+        } finally {
+            bufferLock.unlock();
+        }
+        if (threadToJoin == null) {
+            return;
+        }
+        try {
+            threadToJoin.join(timeoutMillis);
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
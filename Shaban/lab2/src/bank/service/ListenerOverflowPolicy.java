@@ -0,0 +1,12 @@
+package bank.service;
+
+// Что делать, когда буфер слушателя заполнен, а он не успевает разбирать завершения.
+public enum ListenerOverflowPolicy {
+    // Поток-производитель ждет места: ни одно событие не теряется, но медленный слушатель тормозит исполнение.
+    BLOCK,
+    // Вытесняется самое старое непрочитанное событие.
+    DROP_OLDEST,
+    // Новое событие заменяет последнее непрочитанное событие того же счета;
+    // если такого нет - вытесняется самое старое. Подходит слушателям, которым важно лишь актуальное состояние.
+    COALESCE
+}
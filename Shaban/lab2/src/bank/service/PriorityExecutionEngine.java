@@ -0,0 +1,167 @@
+package bank.service;
+
+import bank.core.models.Account;
+import bank.core.models.Transaction;
+import bank.core.models.TransactionPriority;
+import bank.patterns.command.TransactionCommand;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.BiConsumer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Пул потоков с очередями по классам приоритета вместо одной FIFO-очереди.
+// Рабочий поток всегда берет команду из старшего непустого класса; внутри класса сначала идут
+// команды со сроком (раньше срок - раньше исполнение), затем остальные по порядку поступления.
+// Один поток зарезервирован только под URGENT: даже если все остальные заняты длинными операциями
+// или ждут блокировок, срочная команда начнет исполняться сразу.
+// Просроченные команды не исполняются - их отбрасывает TransactionCommand.executeStrategy.
+public class PriorityExecutionEngine implements TransactionExecutionEngine {
+
+    private static final TransactionPriority[] PRIORITIES = TransactionPriority.values();
+
+    private final int queueCapacityPerPriority;
+    private final ReentrantLock queueLock = new ReentrantLock();
+    private final Condition commandAvailable = queueLock.newCondition();
+    private final Condition urgentCommandAvailable = queueLock.newCondition();
+    private final PriorityClassQueue[] queuesByPriority;
+    private final Thread[] workerThreads;
+    private volatile int queuedCommandCount;
+    private boolean isShutdown;
+
+    // Очередь каждого класса ограничена отдельно: поток фоновых операций не может занять место срочных.
+    public PriorityExecutionEngine(int threadCount, int queueCapacityPerPriority) {
+        this.queueCapacityPerPriority = queueCapacityPerPriority;
+        this.queuesByPriority = new PriorityClassQueue[PRIORITIES.length];
+        for (int i = 0; i < PRIORITIES.length; i++) {
+            queuesByPriority[i] = new PriorityClassQueue();
+        }
+        this.workerThreads = new Thread[threadCount + 1];
+    }
+
+    @Override
+    public void start(BiConsumer<Account, List<Transaction>> batchCompletionHandler) {
+        int generalWorkerCount = workerThreads.length - 1;
+        for (int i = 0; i < generalWorkerCount; i++) {
+            workerThreads[i] = new Thread(() -> runWorker(false), "priority-worker-" + i);
+        }
+        workerThreads[generalWorkerCount] = new Thread(() -> runWorker(true), "priority-urgent-worker");
+        for (Thread workerThread : workerThreads) {
+            workerThread.start();
+        }
+    }
+
+    @Override
+    public boolean dispatch(Account targetAccount, TransactionCommand command) {
+        Transaction transaction = command.getTransactionData();
+        TransactionPriority priority = transaction.getSchedulingPriority();
+        PriorityClassQueue priorityQueue = queuesByPriority[priority.ordinal()];
+        queueLock.lock();
+        try {
+            if (isShutdown || priorityQueue.queuedCount >= queueCapacityPerPriority) {
+                return false;
+            }
+            if (transaction.hasDeadline()) {
+                priorityQueue.deadlineCommands.add(command);
+            } else {
+                priorityQueue.arrivalCommands.add(command);
+            }
+            priorityQueue.queuedCount++;
+            queuedCommandCount++;
+            if (priority == TransactionPriority.URGENT) {
+                urgentCommandAvailable.signal();
+            }
+            commandAvailable.signal();
+            return true;
+        } finally {
+            queueLock.unlock();
+        }
+    }
+
+    private void runWorker(boolean urgentOnly) {
+        while (true) {
+            TransactionCommand nextCommand;
+            queueLock.lock();
+            try {
+                while ((nextCommand = pollNext(urgentOnly)) == null) {
+                    // После остановки поток доделывает уже принятые команды и только потом выходит.
+                    if (isShutdown) {
+                        return;
+                    }
+                    (urgentOnly ? urgentCommandAvailable : commandAvailable).awaitUninterruptibly();
+                }
+            } finally {
+                queueLock.unlock();
+            }
+            nextCommand.run();
+        }
+    }
+
+    // Вызывается под queueLock.
+    private TransactionCommand pollNext(boolean urgentOnly) {
+        int lastPriorityIndex = urgentOnly ? TransactionPriority.URGENT.ordinal() : PRIORITIES.length - 1;
+        for (int i = 0; i <= lastPriorityIndex; i++) {
+            PriorityClassQueue priorityQueue = queuesByPriority[i];
+            if (priorityQueue.queuedCount == 0) {
+                continue;
+            }
+            TransactionCommand nextCommand = priorityQueue.deadlineCommands.poll();
+            if (nextCommand == null) {
+                nextCommand = priorityQueue.arrivalCommands.poll();
+            }
+            priorityQueue.queuedCount--;
+            queuedCommandCount--;
+            return nextCommand;
+        }
+        return null;
+    }
+
+    @Override
+    public int getQueuedCommandCount() {
+        return queuedCommandCount;
+    }
+
+    @Override
+    public void shutdown() {
+        queueLock.lock();
+        try {
+            isShutdown = true;
+            commandAvailable.signalAll();
+            urgentCommandAvailable.signalAll();
+        } finally {
+            queueLock.unlock();
+        }
+    }
+
+    // Рабочие потоки выходят, только разобрав все принятые команды.
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadlineNanos = System.nanoTime() + unit.toNanos(timeout);
+        for (Thread workerThread : workerThreads) {
+            if (workerThread == null) {
+                continue;
+            }
+            long remainingNanos = deadlineNanos - System.nanoTime();
+            if (remainingNanos > 0) {
+                TimeUnit.NANOSECONDS.timedJoin(workerThread, remainingNanos);
+            }
+            if (workerThread.isAlive()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Очереди одного класса; доступ только под queueLock.
+    private static final class PriorityClassQueue {
+
+        // Сравнение через разность: часы nanoTime могут переходить через ноль.
+        final PriorityQueue<TransactionCommand> deadlineCommands = new PriorityQueue<>((first, second) -> Long.signum(
+                first.getTransactionData().getDeadlineNanos() - second.getTransactionData().getDeadlineNanos()));
+        final ArrayDeque<TransactionCommand> arrivalCommands = new ArrayDeque<>();
+        int queuedCount;
+    }
+}
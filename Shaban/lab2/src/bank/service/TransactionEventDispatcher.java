@@ -0,0 +1,57 @@
+package bank.service;
+
+import bank.core.models.Transaction;
+import bank.patterns.observer.TransactionStatusListener;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Развязывает исполнение и слушателей: у каждого слушателя свой буфер и свой поток доставки,
+// так что медленный аудит или уведомления не добавляют задержки рабочим потокам.
+public class TransactionEventDispatcher {
+
+    public static final int DEFAULT_BUFFER_CAPACITY = 8192;
+    public static final int DEFAULT_DELIVERY_BATCH_SIZE = 256;
+    private static final long SHUTDOWN_DRAIN_MILLIS = 5000;
+
+    private final List<ListenerChannel> listenerChannels;
+
+    public TransactionEventDispatcher() {
+        // Регистрация редка, публикация - на каждую транзакцию, поэтому обход без блокировок важнее.
+        this.listenerChannels = new CopyOnWriteArrayList<>();
+    }
+
+    // По умолчанию медленный слушатель теряет старые события, но не тормозит исполнение; BLOCK - только по явному выбору.
+    public ListenerChannel register(TransactionStatusListener listener) {
+        return register(listener, DEFAULT_BUFFER_CAPACITY, ListenerOverflowPolicy.DROP_OLDEST);
+    }
+
+    public ListenerChannel register(TransactionStatusListener listener, int bufferCapacity, ListenerOverflowPolicy policy) {
+        ListenerChannel channel = new ListenerChannel(listener, bufferCapacity, DEFAULT_DELIVERY_BATCH_SIZE, policy);
+        channel.start();
+        listenerChannels.add(channel);
+        return channel;
+    }
+
+    public List<ListenerChannel> getListenerChannels() {
+        return listenerChannels;
+    }
+
+    public void publish(Transaction completedTransaction) {
+        for (ListenerChannel channel : listenerChannels) {
+            channel.publish(completedTransaction);
+        }
+    }
+
+    public void publishBatch(List<Transaction> completedBatch) {
+        for (ListenerChannel channel : listenerChannels) {
+            channel.publishBatch(completedBatch);
+        }
+    }
+
+    public void shutdown() {
+        for (ListenerChannel channel : listenerChannels) {
+            channel.close(SHUTDOWN_DRAIN_MILLIS);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package bank.service;
+
+import bank.core.models.Account;
+import bank.core.models.Transaction;
+import bank.patterns.command.TransactionCommand;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+public interface TransactionExecutionEngine {
+
+    // Вызывается процессором один раз при создании; нужен только движкам, завершающим команды пачками.
+    default void start(BiConsumer<Account, List<Transaction>> batchCompletionHandler) {
+    }
+
+    // false - движок отказался принять команду (например, переполнена очередь счета).
+    boolean dispatch(Account targetAccount, TransactionCommand command);
+
+    int getQueuedCommandCount();
+
+    // Прекращает прием команд; уже принятые команды дорабатываются.
+    void shutdown();
+
+    // Ждет после shutdown, пока все принятые команды выполнятся и отдадут завершения процессору.
+    boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException;
+}
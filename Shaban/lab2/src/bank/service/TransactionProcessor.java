@@ -2,90 +2,265 @@ package bank.service;
 
 import bank.core.models.Account;
 import bank.core.models.Transaction;
+import bank.core.models.TransactionOutcome;
+import bank.core.models.TransactionPriority;
 import bank.patterns.command.TransactionCommand;
+import bank.patterns.command.TransactionCommandPool;
 import bank.patterns.factory.TransactionStrategyFactory;
 import bank.patterns.observer.TransactionStatusListener;
 import bank.patterns.strategy.TransactionStrategy;
-import bank.repository.MockAccountRepository;
+import bank.patterns.visitor.StreamingSummaryVisitor;
+import bank.repository.AccountRepository;
+import bank.service.admission.AdmissionController;
+import bank.service.admission.AdmissionPolicy;
+import bank.service.metrics.TransactionMetrics;
 
-import java.util.Collections;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 public class TransactionProcessor {
 
+    private static final long SHUTDOWN_DRAIN_MILLIS = 5000;
+
     private static volatile TransactionProcessor instanceOfProcessor;
-    private final ExecutorService commandExecutor;
+    private final TransactionExecutionEngine executionEngine;
     private final TransactionStrategyFactory strategyFactory;
-    private final List<TransactionStatusListener> statusListeners;
-    private final MockAccountRepository accountDataAccess;
+    private final TransactionEventDispatcher eventDispatcher;
+    private final AccountRepository accountDataAccess;
+    private final TransactionMetrics transactionMetrics;
+    private final StreamingSummaryVisitor liveSummary;
+    private final TransactionCommandPool commandPool;
+    private final IdempotencyCache idempotencyCache;
+    private final AdmissionController admissionController;
+
+    public TransactionProcessor(AccountRepository repository, TransactionStrategyFactory factory, TransactionExecutionEngine engine) {
+        this(repository, factory, engine, AdmissionPolicy.defaultPolicy());
+    }
 
-    private TransactionProcessor(MockAccountRepository repository, TransactionStrategyFactory factory) {
-        this.commandExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 4);
+    public TransactionProcessor(AccountRepository repository, TransactionStrategyFactory factory, TransactionExecutionEngine engine, AdmissionPolicy admissionPolicy) {
+        if (repository.requiresLockedWrites() && !factory.appliesUnderAccountLocks()) {
+            throw new IllegalArgumentException(repository.getClass().getSimpleName()
+                    + " requires lock-based strategies, got " + factory.getClass().getSimpleName());
+        }
+        this.executionEngine = engine;
         this.strategyFactory = factory;
-        this.statusListeners = Collections.synchronizedList(new LinkedList<>());
+        this.eventDispatcher = new TransactionEventDispatcher();
         this.accountDataAccess = repository;
+        this.transactionMetrics = new TransactionMetrics(engine::getQueuedCommandCount);
+        this.liveSummary = new StreamingSummaryVisitor();
+        this.commandPool = new TransactionCommandPool(this::handleCompletion, repository);
+        this.idempotencyCache = new IdempotencyCache();
+        this.admissionController = new AdmissionController(admissionPolicy);
+        this.executionEngine.start(this::handleBatchCompletion);
+    }
+
+    public TransactionProcessor(AccountRepository repository, TransactionStrategyFactory factory, ExecutionMode mode) {
+        this(repository, factory, mode.createEngine());
     }
 
-    public static TransactionProcessor getTransactionProcessorInstance(MockAccountRepository repository, TransactionStrategyFactory factory) {
+    public TransactionProcessor(AccountRepository repository, TransactionStrategyFactory factory, ExecutionMode mode, AdmissionPolicy admissionPolicy) {
+        this(repository, factory, mode.createEngine(), admissionPolicy);
+    }
+
+    // Общий экземпляр оставлен для совместимости; для сравнения движков создавайте процессоры напрямую.
+    public static TransactionProcessor getTransactionProcessorInstance(AccountRepository repository, TransactionStrategyFactory factory) {
+        return getTransactionProcessorInstance(repository, factory, ExecutionMode.SHARED_POOL);
+    }
+
+    public static TransactionProcessor getTransactionProcessorInstance(AccountRepository repository, TransactionStrategyFactory factory, ExecutionMode mode) {
         if (instanceOfProcessor == null) {
             synchronized (TransactionProcessor.class) {
                 if (instanceOfProcessor == null) {
-                    instanceOfProcessor = new TransactionProcessor(repository, factory);
+                    instanceOfProcessor = new TransactionProcessor(repository, factory, mode);
                 }
             }
         }
         return instanceOfProcessor;
     }
 
+    public TransactionExecutionEngine getExecutionEngine() {
+        return executionEngine;
+    }
+
     public void registerListener(TransactionStatusListener listener) {
-        statusListeners.add(listener);
+        eventDispatcher.register(listener);
     }
 
-    public void submitTransaction(Transaction newTransaction) {
-        Optional<Account> targetAccountOptional = accountDataAccess.findAccountByIdentifier(newTransaction.getAccountIdentifier());
-        if (targetAccountOptional.isEmpty()) {
-            newTransaction.setStatusMessage("FAILED: Target account not found in repository.");
-            handleCompletion(newTransaction);
-            return;
+    public ListenerChannel registerListener(TransactionStatusListener listener, int bufferCapacity, ListenerOverflowPolicy policy) {
+        return eventDispatcher.register(listener, bufferCapacity, policy);
+    }
+
+    public TransactionMetrics getMetrics() {
+        return transactionMetrics;
+    }
+
+    public StreamingSummaryVisitor getLiveSummary() {
+        return liveSummary;
+    }
+
+    public TransactionEventDispatcher getEventDispatcher() {
+        return eventDispatcher;
+    }
+
+    // Future завершается самой транзакцией уже после сохранения счета и до рассылки слушателям.
+    // Продолжения без *Async выполняются в рабочем потоке движка (у журналируемого хранилища с групповой
+    // фиксацией - в потоке сброса журнала), поэтому тяжелую работу в них лучше не делать.
+    public CompletableFuture<Transaction> submitAsync(Transaction newTransaction) {
+        CompletableFuture<Transaction> completionFuture = new CompletableFuture<>();
+        newTransaction.attachCompletionFuture(completionFuture);
+        submitTransaction(newTransaction);
+        return completionFuture;
+    }
+
+    // Повтор с тем же ключом (например, после таймаута клиента) не исполняется второй раз:
+    // возвращается future первой попытки - завершенный или еще ожидающий. Попытка, отклоненная
+    // из-за перегрузки, ключ не занимает, и ее повтор исполняется заново.
+    public CompletableFuture<Transaction> submitAsync(Transaction newTransaction, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return submitAsync(newTransaction);
+        }
+        CompletableFuture<Transaction> completionFuture = new CompletableFuture<>();
+        CompletableFuture<Transaction> firstAttempt = idempotencyCache.registerOrGet(idempotencyKey, completionFuture);
+        if (firstAttempt != null) {
+            return firstAttempt;
         }
-        Account targetAccount = targetAccountOptional.get();
+        completionFuture.thenAccept(completedTransaction -> {
+            if (completedTransaction.getOutcome().isRetryable()) {
+                idempotencyCache.forget(idempotencyKey, completionFuture);
+            }
+        });
+        newTransaction.attachCompletionFuture(completionFuture);
+        submitTransaction(newTransaction);
+        return completionFuture;
+    }
 
-        try {
-            // Вся логика, связанная со старым методом getTransferPartnerAccount, удалена.
-            // UUID получателя теперь передается через StatusMessage в классе Transaction
+    public IdempotencyCache getIdempotencyCache() {
+        return idempotencyCache;
+    }
+
+    public AdmissionController getAdmissionController() {
+        return admissionController;
+    }
+
+    public CompletableFuture<List<Transaction>> submitAllAsync(Collection<Transaction> newTransactions) {
+        List<CompletableFuture<Transaction>> completionFutures = new ArrayList<>(newTransactions.size());
+        for (Transaction newTransaction : newTransactions) {
+            completionFutures.add(submitAsync(newTransaction));
+        }
+        return CompletableFuture.allOf(completionFutures.toArray(new CompletableFuture<?>[0]))
+                .thenApply(ignored -> {
+                    List<Transaction> completedTransactions = new ArrayList<>(completionFutures.size());
+                    for (CompletableFuture<Transaction> completionFuture : completionFutures) {
+                        completedTransactions.add(completionFuture.join());
+                    }
+                    return completedTransactions;
+                });
+    }
+
+    // false - транзакция отклонена еще до исполнения из-за нехватки места (лимит в полете или очередь движка)
+    // и уже завершена с этим итогом. Отказ фиксируется в вызывающем потоке, поэтому отправитель может повторить
+    // ту же операцию раньше следующих операций счета, не нарушая их порядок.
+    public boolean submitTransaction(Transaction newTransaction) {
+        newTransaction.markSubmitted();
+        Account targetAccount = accountDataAccess.findAccountOrNull(newTransaction.getAccountIdentifier());
+        if (targetAccount == null) {
+            newTransaction.recordOutcome(TransactionOutcome.FAILED_ACCOUNT_NOT_FOUND);
+            publishCompletion(newTransaction);
+            return true;
+        }
+
+        if (newTransaction.isPastDeadline(newTransaction.getSubmittedAtNanos())) {
+            newTransaction.recordOutcome(TransactionOutcome.FAILED_DEADLINE_EXPIRED);
+            publishCompletion(newTransaction);
+            return true;
+        }
+
+        // Отказ по допуску не трогает движок и счет: транзакция сразу завершается с итогом отказа.
+        // Срочные транзакции допускаются всегда - заморозка при перегрузке важнее всего остального.
+        TransactionOutcome admissionRejection = null;
+        if (newTransaction.getSchedulingPriority() == TransactionPriority.URGENT) {
+            admissionController.admitUnconditionally();
+        } else {
+            admissionRejection = admissionController.tryAdmit(targetAccount.getAccountIdentifier());
+        }
+        if (admissionRejection != null) {
+            newTransaction.recordOutcome(admissionRejection);
+            publishCompletion(newTransaction);
+            return admissionRejection != TransactionOutcome.FAILED_OVERLOADED;
+        }
 
+        try {
             TransactionStrategy strategy = strategyFactory.createStrategy(newTransaction.getActionType());
 
-            TransactionCommand command = new TransactionCommand(
-                    targetAccount,
-                    newTransaction,
-                    strategy,
-                    this::handleCompletion,
-                    accountDataAccess
-            );
+            TransactionCommand command = commandPool.acquire(targetAccount, newTransaction, strategy);
 
-            commandExecutor.submit(command);
+            if (!executionEngine.dispatch(targetAccount, command)) {
+                command.recycle();
+                newTransaction.recordOutcome(TransactionOutcome.FAILED_ENGINE_REJECTED);
+                handleCompletion(newTransaction);
+                return false;
+            }
         } catch (Exception creationException) {
-            newTransaction.setStatusMessage("ERROR: System failure during setup: " + creationException.getMessage());
+            newTransaction.recordFailure(TransactionOutcome.ERROR_SETUP, creationException.getMessage());
             handleCompletion(newTransaction);
         }
+        return true;
+    }
+
+    private void handleBatchCompletion(Account batchAccount, List<Transaction> completedBatch) {
+        accountDataAccess.saveAccount(batchAccount);
+        // Пачка завершается целиком, когда fsync покроет ее записи; список пачки движок больше не трогает.
+        accountDataAccess.runWhenDurable(() -> {
+            admissionController.release(completedBatch.size());
+            for (Transaction completedTransaction : completedBatch) {
+                completedTransaction.markCompleted();
+                transactionMetrics.recordCompletion(completedTransaction);
+                completedTransaction.accept(liveSummary);
+            }
+            eventDispatcher.publishBatch(completedBatch);
+        });
     }
 
     private void handleCompletion(Transaction completedTransaction) {
-        Optional<Account> accountAfterOperation = accountDataAccess.findAccountByIdentifier(completedTransaction.getAccountIdentifier());
+        Account accountAfterOperation = accountDataAccess.findAccountOrNull(completedTransaction.getAccountIdentifier());
 
-        if (accountAfterOperation.isPresent()) {
-            accountDataAccess.saveAccount(accountAfterOperation.get());
+        if (accountAfterOperation != null) {
+            accountDataAccess.saveAccount(accountAfterOperation);
         }
+        accountDataAccess.runWhenDurable(() -> {
+            admissionController.release();
+            publishCompletion(completedTransaction);
+        });
+    }
 
-        statusListeners.forEach(listener -> listener.notifyTransactionUpdate(completedTransaction));
+    // Завершение без исполнения: транзакция не прошла допуск, поэтому нечего сохранять и освобождать.
+    private void publishCompletion(Transaction completedTransaction) {
+        completedTransaction.markCompleted();
+        transactionMetrics.recordCompletion(completedTransaction);
+        completedTransaction.accept(liveSummary);
+        eventDispatcher.publish(completedTransaction);
     }
 
+    // Сначала движок дорабатывает принятые команды, затем журнал сбрасывает их записи и выдает отложенные
+    // завершения, и только после этого каналы слушателей закрываются: иначе завершения, опубликованные
+    // после закрытия, слушатели бы потеряли.
     public void shutdown() {
-        commandExecutor.shutdown();
+        transactionMetrics.stopPeriodicDump();
+        executionEngine.shutdown();
+        try {
+            long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SHUTDOWN_DRAIN_MILLIS);
+            executionEngine.awaitTermination(SHUTDOWN_DRAIN_MILLIS, TimeUnit.MILLISECONDS);
+            // Завершения выдаются в порядке записей, поэтому эта отметка срабатывает после всех более ранних.
+            CountDownLatch durableCompletionsDrained = new CountDownLatch(1);
+            accountDataAccess.runWhenDurable(durableCompletionsDrained::countDown);
+            durableCompletionsDrained.await(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+        }
+        eventDispatcher.shutdown();
     }
 }
\ No newline at end of file
@@ -0,0 +1,51 @@
+package bank.service;
+
+import bank.core.models.TransactionPriority;
+import bank.patterns.command.TransactionCommand;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Обход полос для URGENT: срочная команда не встает в очередь полосы за сотнями команд других счетов,
+// а исполняется собственным потоком, как у PriorityExecutionEngine. Порядок внутри счета она обгоняет,
+// а с командами полосы не конфликтует: стратегии сами берут блокировки счетов.
+final class UrgentCommandBypass {
+
+    private final ThreadPoolExecutor urgentExecutor;
+
+    UrgentCommandBypass(int queueCapacity) {
+        this.urgentExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), task -> {
+                    Thread urgentThread = new Thread(task, "lane-urgent-worker");
+                    urgentThread.setDaemon(true);
+                    return urgentThread;
+                });
+    }
+
+    static boolean isUrgent(TransactionCommand command) {
+        return command.getTransactionData().getSchedulingPriority() == TransactionPriority.URGENT;
+    }
+
+    boolean dispatch(TransactionCommand command) {
+        try {
+            urgentExecutor.execute(command);
+            return true;
+        } catch (RejectedExecutionException rejected) {
+            return false;
+        }
+    }
+
+    int getQueuedCommandCount() {
+        return urgentExecutor.getQueue().size();
+    }
+
+    void shutdown() {
+        urgentExecutor.shutdown();
+    }
+
+    boolean awaitTermination(long timeoutNanos) throws InterruptedException {
+        return urgentExecutor.awaitTermination(timeoutNanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,56 @@
+package bank.service;
+
+import bank.core.models.Account;
+import bank.patterns.command.TransactionCommand;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Каждая транзакция выполняется в собственном виртуальном потоке: ожидание блокировки счета
+// или медленного репозитория паркует только виртуальный поток, а не поток-носитель.
+public class VirtualThreadExecutionEngine implements TransactionExecutionEngine {
+
+    private final ExecutorService commandExecutor;
+    private final AtomicInteger inFlightCommandCount;
+
+    public VirtualThreadExecutionEngine() {
+        this.commandExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        this.inFlightCommandCount = new AtomicInteger();
+    }
+
+    @Override
+    public boolean dispatch(Account targetAccount, TransactionCommand command) {
+        inFlightCommandCount.incrementAndGet();
+        try {
+            commandExecutor.execute(() -> {
+                try {
+                    command.run();
+                } finally {
+                    inFlightCommandCount.decrementAndGet();
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException executorStopped) {
+            inFlightCommandCount.decrementAndGet();
+            return false;
+        }
+    }
+
+    @Override
+    public int getQueuedCommandCount() {
+        return inFlightCommandCount.get();
+    }
+
+    @Override
+    public void shutdown() {
+        commandExecutor.shutdown();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return commandExecutor.awaitTermination(timeout, unit);
+    }
+}
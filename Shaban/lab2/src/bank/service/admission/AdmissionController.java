@@ -0,0 +1,108 @@
+package bank.service.admission;
+
+import bank.core.models.TransactionOutcome;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Контроль допуска перед движком исполнения: лимит транзакций в полете, ведро счета и общее ведро.
+// Отказ дается сразу и с понятным итогом, так что при перегрузке растет доля отказов,
+// а не очереди, память и задержка.
+public class AdmissionController {
+
+    private static final int MIN_BUCKET_SWEEP_THRESHOLD = 4096;
+
+    private final AdmissionPolicy admissionPolicy;
+    private final AtomicInteger inFlightCount = new AtomicInteger();
+    // Ведра создаются только для найденных в хранилище счетов, поэтому таблица не растет от мусорных запросов.
+    // Чтобы таблица не росла вместе с числом когда-либо активных счетов, при создании ведер она время от времени
+    // очищается от полных ведер; порог после очистки удваивается от оставшегося размера, так что очистка амортизирована.
+    private final Map<UUID, TokenBucket> accountBuckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean bucketSweepRunning = new AtomicBoolean();
+    private volatile int bucketSweepThreshold = MIN_BUCKET_SWEEP_THRESHOLD;
+    private final TokenBucket globalBucket;
+
+    public AdmissionController(AdmissionPolicy policy) {
+        this.admissionPolicy = policy;
+        this.globalBucket = policy.getGlobalPermitsPerSecond() > 0
+                ? new TokenBucket(policy.getGlobalPermitsPerSecond(), policy.getGlobalBurstCapacity())
+                : null;
+    }
+
+    // null - транзакция допущена, и по ее завершении нужно вызвать release(); иначе - итог отказа.
+    // Ведро счета проверяется раньше общего, чтобы отклоненный поток одного счета не расходовал общий лимит.
+    public TransactionOutcome tryAdmit(UUID accountIdentifier) {
+        if (inFlightCount.incrementAndGet() > admissionPolicy.getMaxInFlight()) {
+            inFlightCount.decrementAndGet();
+            return TransactionOutcome.FAILED_OVERLOADED;
+        }
+
+        TokenBucket accountBucket = null;
+        if (admissionPolicy.getAccountPermitsPerSecond() > 0) {
+            accountBucket = accountBuckets.get(accountIdentifier);
+            if (accountBucket == null) {
+                accountBucket = accountBuckets.computeIfAbsent(accountIdentifier, ignored ->
+                        new TokenBucket(admissionPolicy.getAccountPermitsPerSecond(), admissionPolicy.getAccountBurstCapacity()));
+                if (accountBuckets.size() > bucketSweepThreshold) {
+                    evictFullBuckets();
+                }
+            }
+            if (!accountBucket.tryAcquire()) {
+                inFlightCount.decrementAndGet();
+                return TransactionOutcome.FAILED_ACCOUNT_RATE_LIMITED;
+            }
+        }
+
+        if (globalBucket != null && !globalBucket.tryAcquire()) {
+            if (accountBucket != null) {
+                accountBucket.refund();
+            }
+            inFlightCount.decrementAndGet();
+            return TransactionOutcome.FAILED_GLOBAL_RATE_LIMITED;
+        }
+        return null;
+    }
+
+    // Ведро, взятое параллельным допуском прямо перед удалением, может выдать один лишний маркер - это допустимо.
+    private void evictFullBuckets() {
+        if (!bucketSweepRunning.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long nowNanos = System.nanoTime();
+            accountBuckets.values().removeIf(bucket -> bucket.isFull(nowNanos));
+            bucketSweepThreshold = Math.max(MIN_BUCKET_SWEEP_THRESHOLD, accountBuckets.size() * 2);
+        } finally {
+            bucketSweepRunning.set(false);
+        }
+    }
+
+    public int getAccountBucketCount() {
+        return accountBuckets.size();
+    }
+
+    // Срочные операции (заморозка счета) не отклоняются ни лимитом в полете, ни ведрами,
+    // но учитываются в полете, так что release() после них вызывается как обычно.
+    public void admitUnconditionally() {
+        inFlightCount.incrementAndGet();
+    }
+
+    public void release() {
+        inFlightCount.decrementAndGet();
+    }
+
+    public void release(int completedCount) {
+        inFlightCount.addAndGet(-completedCount);
+    }
+
+    public int getInFlightCount() {
+        return inFlightCount.get();
+    }
+
+    public AdmissionPolicy getAdmissionPolicy() {
+        return admissionPolicy;
+    }
+}
@@ -0,0 +1,60 @@
+package bank.service.admission;
+
+// Лимиты контроля допуска. Нулевая скорость отключает соответствующее ведро;
+// ограничение числа транзакций в полете действует всегда.
+public class AdmissionPolicy {
+
+    public static final int DEFAULT_MAX_IN_FLIGHT = 1 << 18;
+
+    private final long accountPermitsPerSecond;
+    private final int accountBurstCapacity;
+    private final long globalPermitsPerSecond;
+    private final int globalBurstCapacity;
+    private final int maxInFlight;
+
+    public AdmissionPolicy(long accountPermitsPerSecond, int accountBurstCapacity,
+                           long globalPermitsPerSecond, int globalBurstCapacity, int maxInFlight) {
+        if (accountPermitsPerSecond < 0 || globalPermitsPerSecond < 0) {
+            throw new IllegalArgumentException("Rates must not be negative.");
+        }
+        if ((accountPermitsPerSecond > 0 && accountBurstCapacity <= 0) || (globalPermitsPerSecond > 0 && globalBurstCapacity <= 0)) {
+            throw new IllegalArgumentException("Burst capacity must be positive for a limited rate.");
+        }
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("In-flight limit must be positive.");
+        }
+        this.accountPermitsPerSecond = accountPermitsPerSecond;
+        this.accountBurstCapacity = accountBurstCapacity;
+        this.globalPermitsPerSecond = globalPermitsPerSecond;
+        this.globalBurstCapacity = globalBurstCapacity;
+        this.maxInFlight = maxInFlight;
+    }
+
+    public static AdmissionPolicy inFlightLimitOnly(int maxInFlight) {
+        return new AdmissionPolicy(0, 0, 0, 0, maxInFlight);
+    }
+
+    public static AdmissionPolicy defaultPolicy() {
+        return inFlightLimitOnly(DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    public long getAccountPermitsPerSecond() {
+        return accountPermitsPerSecond;
+    }
+
+    public int getAccountBurstCapacity() {
+        return accountBurstCapacity;
+    }
+
+    public long getGlobalPermitsPerSecond() {
+        return globalPermitsPerSecond;
+    }
+
+    public int getGlobalBurstCapacity() {
+        return globalBurstCapacity;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+}
@@ -0,0 +1,50 @@
+package bank.service.admission;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Маркерное ведро в форме GCRA: вместо числа маркеров и времени пополнения хранится одно число -
+// теоретическое время прихода следующей операции. Пропуск - один CAS, без блокировок и без таймера пополнения.
+// Поведение совпадает с ведром емкостью burstCapacity, пополняемым со скоростью permitsPerSecond.
+public final class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrivalNanos;
+
+    public TokenBucket(long permitsPerSecond, int burstCapacity) {
+        if (permitsPerSecond <= 0 || burstCapacity <= 0) {
+            throw new IllegalArgumentException("Rate and burst capacity must be positive");
+        }
+        this.emissionIntervalNanos = Math.max(1, TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * (burstCapacity - 1);
+        this.theoreticalArrivalNanos = new AtomicLong(System.nanoTime());
+    }
+
+    public boolean tryAcquire() {
+        return tryAcquire(System.nanoTime());
+    }
+
+    public boolean tryAcquire(long nowNanos) {
+        while (true) {
+            long arrival = theoreticalArrivalNanos.get();
+            long scheduled = arrival - nowNanos > 0 ? arrival : nowNanos;
+            if (scheduled - nowNanos > burstToleranceNanos) {
+                return false;
+            }
+            if (theoreticalArrivalNanos.compareAndSet(arrival, scheduled + emissionIntervalNanos)) {
+                return true;
+            }
+        }
+    }
+
+    // Полное ведро неотличимо от только что созданного, поэтому его можно выбросить без изменения лимита.
+    public boolean isFull(long nowNanos) {
+        return theoreticalArrivalNanos.get() - nowNanos <= 0;
+    }
+
+    // Возвращает маркер, взятый операцией, которую отклонила следующая ступень контроля.
+    public void refund() {
+        theoreticalArrivalNanos.addAndGet(-emissionIntervalNanos);
+    }
+}
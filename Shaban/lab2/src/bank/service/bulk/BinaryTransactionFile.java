@@ -0,0 +1,102 @@
+package bank.service.bulk;
+
+import bank.core.models.Transaction;
+import bank.patterns.strategy.TransactionActionType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+
+// Компактный двоичный формат пакетного файла: [int MAGIC][int VERSION], затем записи фиксированной длины
+// [byte действие][long счет старшие][long счет младшие][long сумма в копейках][long цель старшие][long цель младшие].
+// Цель учитывается только для TRANSFER.
+public class BinaryTransactionFile implements AutoCloseable {
+
+    public static final int MAGIC = 0x42545831;
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 4 + 4;
+    public static final int RECORD_SIZE = 1 + 8 + 8 + 8 + 8 + 8;
+
+    private static final int WRITE_BUFFER_RECORDS = 8192;
+    private static final TransactionActionType[] ACTION_TYPES = TransactionActionType.values();
+
+    private final FileChannel outputChannel;
+    private final ByteBuffer writeBuffer;
+
+    private BinaryTransactionFile(FileChannel channel) {
+        this.outputChannel = channel;
+        this.writeBuffer = ByteBuffer.allocateDirect(WRITE_BUFFER_RECORDS * RECORD_SIZE);
+    }
+
+    public static BinaryTransactionFile create(Path outputFile) throws IOException {
+        FileChannel channel = FileChannel.open(outputFile,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        BinaryTransactionFile file = new BinaryTransactionFile(channel);
+        file.writeBuffer.putInt(MAGIC).putInt(VERSION);
+        return file;
+    }
+
+    public void append(TransactionActionType actionType, UUID accountIdentifier, long amountInMinorUnits, UUID targetAccountIdentifier) throws IOException {
+        if (actionType == TransactionActionType.MULTI_TRANSFER) {
+            throw new IllegalArgumentException("Multi-transfers cannot be stored in a bulk file");
+        }
+        if (writeBuffer.remaining() < RECORD_SIZE) {
+            flushBuffer();
+        }
+        writeBuffer.put((byte) actionType.ordinal())
+                .putLong(accountIdentifier.getMostSignificantBits())
+                .putLong(accountIdentifier.getLeastSignificantBits())
+                .putLong(amountInMinorUnits)
+                .putLong(targetAccountIdentifier == null ? 0L : targetAccountIdentifier.getMostSignificantBits())
+                .putLong(targetAccountIdentifier == null ? 0L : targetAccountIdentifier.getLeastSignificantBits());
+    }
+
+    public void append(Transaction transaction) throws IOException {
+        append(transaction.getActionType(), transaction.getAccountIdentifier(),
+                transaction.getTransactionAmountInMinorUnits(), transaction.getTargetAccountIdentifier());
+    }
+
+    private void flushBuffer() throws IOException {
+        writeBuffer.flip();
+        while (writeBuffer.hasRemaining()) {
+            outputChannel.write(writeBuffer);
+        }
+        writeBuffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flushBuffer();
+        } finally {
+            outputChannel.close();
+        }
+    }
+
+    static void validateHeader(ByteBuffer buffer) throws IOException {
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a binary transaction file");
+        }
+    }
+
+    static void parseRange(ByteBuffer buffer, int start, int end, TransactionBlock block) {
+        for (int position = start; position + RECORD_SIZE <= end; position += RECORD_SIZE) {
+            int actionCode = buffer.get(position);
+            if (actionCode < 0 || actionCode >= ACTION_TYPES.length || ACTION_TYPES[actionCode] == TransactionActionType.MULTI_TRANSFER) {
+                block.addInvalidRow();
+                continue;
+            }
+            boolean hasTarget = ACTION_TYPES[actionCode] == TransactionActionType.TRANSFER;
+            block.addRow((byte) actionCode,
+                    buffer.getLong(position + 1),
+                    buffer.getLong(position + 9),
+                    buffer.getLong(position + 17),
+                    hasTarget,
+                    hasTarget ? buffer.getLong(position + 25) : 0L,
+                    hasTarget ? buffer.getLong(position + 33) : 0L);
+        }
+    }
+}
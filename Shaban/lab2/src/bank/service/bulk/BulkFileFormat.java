@@ -0,0 +1,8 @@
+package bank.service.bulk;
+
+public enum BulkFileFormat {
+    // Строки вида: ACTION,account-uuid,amount[,target-uuid]; заголовок "action,..." пропускается.
+    CSV,
+    // Заголовок BinaryTransactionFile.MAGIC/VERSION и записи фиксированной длины RECORD_SIZE.
+    BINARY
+}
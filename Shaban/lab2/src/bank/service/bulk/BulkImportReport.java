@@ -0,0 +1,47 @@
+package bank.service.bulk;
+
+public final class BulkImportReport {
+
+    private final long rowCount;
+    private final long invalidRowCount;
+    private final long succeededCount;
+    private final long failedCount;
+    private final long elapsedMillis;
+
+    public BulkImportReport(long rows, long invalidRows, long succeeded, long failed, long elapsed) {
+        this.rowCount = rows;
+        this.invalidRowCount = invalidRows;
+        this.succeededCount = succeeded;
+        this.failedCount = failed;
+        this.elapsedMillis = elapsed;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public long getInvalidRowCount() {
+        return invalidRowCount;
+    }
+
+    public long getSucceededCount() {
+        return succeededCount;
+    }
+
+    public long getFailedCount() {
+        return failedCount;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "Rows: " + rowCount +
+               " | Invalid: " + invalidRowCount +
+               " | Succeeded: " + succeededCount +
+               " | Failed: " + failedCount +
+               " | Elapsed: " + elapsedMillis + " ms";
+    }
+}
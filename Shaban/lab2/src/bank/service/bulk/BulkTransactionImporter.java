@@ -0,0 +1,257 @@
+package bank.service.bulk;
+
+import bank.core.models.MinorUnits;
+import bank.core.models.Transaction;
+import bank.core.models.TransactionPriority;
+import bank.service.TransactionProcessor;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.BiConsumer;
+
+// Массовая загрузка транзакций из файла. Файл читается окнами через mmap; каждое окно
+// 1) параллельно разбирается по участкам в колоночные блоки;
+// 2) раскладывается по разделам по хешу счета: раздел отправляет свои строки в порядке файла,
+//    так что порядок операций одного счета сохраняется (при движках с полосами счетов);
+// 3) после завершения всех его транзакций в файл результатов дописываются итоги в порядке строк.
+public class BulkTransactionImporter implements AutoCloseable {
+
+    private static final long WINDOW_BYTES = 64L * 1024 * 1024;
+    // Ограничивает нагрузку одного раздела, но не исключает отказов: разделы и полосы движка раскладывают
+    // счета разными хешами, и в одну полосу могут попасть счета нескольких разделов. Отказ из-за нехватки
+    // места (очередь движка или лимит в полете) раздел не пишет в итоги, а повторяет ту же строку после паузы.
+    private static final int MAX_IN_FLIGHT_PER_PARTITION = 512;
+    private static final long OVERLOAD_RETRY_MILLIS = 1;
+    private static final int INITIAL_BLOCK_CAPACITY = 64 * 1024;
+
+    private final TransactionProcessor processor;
+    private final int parallelism;
+    private final ExecutorService workerPool;
+    private final TransactionBlock[] parsedBlocks;
+    private final Semaphore[] partitionInFlightPermits;
+
+    public BulkTransactionImporter(TransactionProcessor transactionProcessor, int workerCount) {
+        if (workerCount <= 0) {
+            throw new IllegalArgumentException("Worker count must be positive");
+        }
+        this.processor = transactionProcessor;
+        this.parallelism = workerCount;
+        this.workerPool = Executors.newFixedThreadPool(workerCount, task -> {
+            Thread workerThread = new Thread(task, "bulk-import-worker");
+            workerThread.setDaemon(true);
+            return workerThread;
+        });
+        this.parsedBlocks = new TransactionBlock[workerCount];
+        this.partitionInFlightPermits = new Semaphore[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            parsedBlocks[i] = new TransactionBlock(INITIAL_BLOCK_CAPACITY);
+            partitionInFlightPermits[i] = new Semaphore(MAX_IN_FLIGHT_PER_PARTITION);
+        }
+    }
+
+    public BulkImportReport importFile(Path inputFile, BulkFileFormat format, Path resultsFile) throws IOException, InterruptedException {
+        long startMillis = System.currentTimeMillis();
+        long[] counters = new long[4];
+
+        try (FileChannel inputChannel = FileChannel.open(inputFile, StandardOpenOption.READ);
+             BufferedWriter resultsWriter = Files.newBufferedWriter(resultsFile)) {
+            resultsWriter.write("row,transaction,action,outcome,resulting_balance");
+            resultsWriter.newLine();
+
+            long fileSize = inputChannel.size();
+            long position = 0;
+            if (format == BulkFileFormat.BINARY) {
+                BinaryTransactionFile.validateHeader(inputChannel.map(FileChannel.MapMode.READ_ONLY, 0,
+                        Math.min(fileSize, BinaryTransactionFile.HEADER_SIZE)));
+                position = BinaryTransactionFile.HEADER_SIZE;
+            }
+
+            StringBuilder lineBuilder = new StringBuilder(128);
+            while (position < fileSize) {
+                long windowSize = Math.min(WINDOW_BYTES, fileSize - position);
+                boolean isLastWindow = position + windowSize == fileSize;
+                MappedByteBuffer window = inputChannel.map(FileChannel.MapMode.READ_ONLY, position, windowSize);
+
+                int usableLength = usableLength(window, (int) windowSize, format, isLastWindow);
+                if (usableLength <= 0) {
+                    if (format == BulkFileFormat.CSV) {
+                        throw new IOException("CSV line at offset " + position + " is longer than the import window");
+                    }
+                    // Обрезанная последняя двоичная запись.
+                    break;
+                }
+
+                parseWindow(window, usableLength, format);
+                submitWindow();
+                writeResults(resultsWriter, lineBuilder, counters);
+                position += usableLength;
+            }
+        }
+
+        return new BulkImportReport(counters[0], counters[1], counters[2], counters[3], System.currentTimeMillis() - startMillis);
+    }
+
+    private static int usableLength(MappedByteBuffer window, int windowSize, BulkFileFormat format, boolean isLastWindow) {
+        if (format == BulkFileFormat.BINARY) {
+            return windowSize - windowSize % BinaryTransactionFile.RECORD_SIZE;
+        }
+        return isLastWindow ? windowSize : CsvTransactionParser.endOfLastLine(window, 0, windowSize);
+    }
+
+    private void parseWindow(MappedByteBuffer window, int usableLength, BulkFileFormat format) throws InterruptedException {
+        int[] rangeBounds = splitIntoRanges(window, usableLength, format);
+        List<Callable<Void>> parseTasks = new ArrayList<>(parallelism);
+        for (int i = 0; i < parallelism; i++) {
+            TransactionBlock block = parsedBlocks[i];
+            int rangeStart = rangeBounds[i];
+            int rangeEnd = rangeBounds[i + 1];
+            parseTasks.add(() -> {
+                block.clear();
+                if (format == BulkFileFormat.CSV) {
+                    CsvTransactionParser.parseRange(window, rangeStart, rangeEnd, block);
+                } else {
+                    BinaryTransactionFile.parseRange(window, rangeStart, rangeEnd, block);
+                }
+                return null;
+            });
+        }
+        runAll(parseTasks);
+    }
+
+    // Делит окно на участки по числу потоков; границы выравниваются по строке или по записи.
+    private int[] splitIntoRanges(MappedByteBuffer window, int usableLength, BulkFileFormat format) {
+        int[] rangeBounds = new int[parallelism + 1];
+        rangeBounds[parallelism] = usableLength;
+        for (int i = 1; i < parallelism; i++) {
+            int bound = (int) ((long) usableLength * i / parallelism);
+            if (format == BulkFileFormat.BINARY) {
+                bound -= bound % BinaryTransactionFile.RECORD_SIZE;
+            } else {
+                // На коротком окне доля участка округляется до нуля; проверять байт перед границей можно лишь с 1.
+                bound = Math.max(bound, Math.max(rangeBounds[i - 1], 1));
+                while (bound < usableLength && window.get(bound - 1) != '\n') {
+                    bound++;
+                }
+            }
+            rangeBounds[i] = Math.max(rangeBounds[i - 1], bound);
+        }
+        return rangeBounds;
+    }
+
+    private void submitWindow() throws InterruptedException {
+        int validRowCount = 0;
+        for (TransactionBlock block : parsedBlocks) {
+            for (int row = 0; row < block.rowCount; row++) {
+                if (block.isValid(row)) {
+                    validRowCount++;
+                }
+            }
+        }
+
+        CountDownLatch windowCompletion = new CountDownLatch(validRowCount);
+        List<Callable<Void>> partitionTasks = new ArrayList<>(parallelism);
+        for (int partition = 0; partition < parallelism; partition++) {
+            int partitionIndex = partition;
+            partitionTasks.add(() -> {
+                submitPartition(partitionIndex, windowCompletion);
+                return null;
+            });
+        }
+        runAll(partitionTasks);
+        windowCompletion.await();
+    }
+
+    private void submitPartition(int partitionIndex, CountDownLatch windowCompletion) throws InterruptedException {
+        Semaphore inFlightPermits = partitionInFlightPermits[partitionIndex];
+        // Один обработчик завершения на раздел и окно, а не по лямбде на транзакцию.
+        BiConsumer<Transaction, Throwable> completionHandler = (completedTransaction, failure) -> {
+            inFlightPermits.release();
+            windowCompletion.countDown();
+        };
+
+        for (TransactionBlock block : parsedBlocks) {
+            for (int row = 0; row < block.rowCount; row++) {
+                if (!block.isValid(row) || partitionOf(block.accountHigh[row], block.accountLow[row]) != partitionIndex) {
+                    continue;
+                }
+                inFlightPermits.acquire();
+                while (true) {
+                    Transaction transaction = block.toTransaction(row);
+                    // Массовая загрузка не должна задерживать интерактивные операции в приоритетном движке.
+                    transaction.setSchedulingPriority(TransactionPriority.BACKGROUND);
+                    CompletableFuture<Transaction> completionFuture = new CompletableFuture<>();
+                    transaction.attachCompletionFuture(completionFuture);
+                    // Следующая строка раздела уходит только после принятия этой, так что порядок счета сохраняется.
+                    if (processor.submitTransaction(transaction)) {
+                        block.submittedTransactions[row] = transaction;
+                        completionFuture.whenComplete(completionHandler);
+                        break;
+                    }
+                    Thread.sleep(OVERLOAD_RETRY_MILLIS);
+                }
+            }
+        }
+    }
+
+    private int partitionOf(long accountHigh, long accountLow) {
+        long mixed = (accountHigh ^ accountLow) * 0x9E3779B97F4A7C15L;
+        return (int) ((mixed >>> 32) % parallelism);
+    }
+
+    private void writeResults(BufferedWriter resultsWriter, StringBuilder lineBuilder, long[] counters) throws IOException {
+        for (TransactionBlock block : parsedBlocks) {
+            for (int row = 0; row < block.rowCount; row++) {
+                long rowNumber = ++counters[0];
+                lineBuilder.setLength(0);
+                lineBuilder.append(rowNumber).append(',');
+                if (!block.isValid(row)) {
+                    counters[1]++;
+                    lineBuilder.append(",,INVALID_ROW,");
+                } else {
+                    Transaction transaction = block.submittedTransactions[row];
+                    if (transaction.getOutcome().isSuccess()) {
+                        counters[2]++;
+                    } else {
+                        counters[3]++;
+                    }
+                    lineBuilder.append(transaction.getTransactionIdentifier()).append(',')
+                            .append(transaction.getActionType().name()).append(',')
+                            .append(transaction.getOutcome().name()).append(',')
+                            .append(MinorUnits.format(transaction.getResultingBalanceInMinorUnits()));
+                }
+                resultsWriter.append(lineBuilder);
+                resultsWriter.newLine();
+            }
+        }
+    }
+
+    private void runAll(List<Callable<Void>> tasks) throws InterruptedException {
+        for (Future<Void> taskResult : workerPool.invokeAll(tasks)) {
+            try {
+                taskResult.get();
+            } catch (ExecutionException taskFailure) {
+                throw new IllegalStateException("Bulk import worker failed", taskFailure.getCause());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        workerPool.shutdown();
+    }
+}
@@ -0,0 +1,206 @@
+package bank.service.bulk;
+
+import bank.patterns.strategy.TransactionActionType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Разбор CSV прямо из байтов отображенного файла: без String на строку и поле.
+// Строка: ACTION,account-uuid,amount[,target-uuid]. Сумма - десятичное число с не более чем двумя знаками.
+final class CsvTransactionParser {
+
+    private static final byte[][] ACTION_NAMES;
+    private static final byte[] HEADER_PREFIX = "action".getBytes(StandardCharsets.US_ASCII);
+    private static final int UUID_TEXT_LENGTH = 36;
+    // 16 целых и 2 дробных цифры - до 10^18 минимальных единиц, что заведомо помещается в long.
+    private static final int MAX_AMOUNT_DIGITS = 16;
+
+    static {
+        TransactionActionType[] actionTypes = TransactionActionType.values();
+        ACTION_NAMES = new byte[actionTypes.length][];
+        for (TransactionActionType actionType : actionTypes) {
+            // Многоадресный перевод в строку CSV не укладывается.
+            ACTION_NAMES[actionType.ordinal()] = actionType == TransactionActionType.MULTI_TRANSFER
+                    ? null : actionType.name().getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    private CsvTransactionParser() {
+    }
+
+    // Граница участка: позиция сразу после последнего '\n' в [from, to), либо -1, если перевода строки нет.
+    static int endOfLastLine(ByteBuffer buffer, int from, int to) {
+        for (int position = to - 1; position >= from; position--) {
+            if (buffer.get(position) == '\n') {
+                return position + 1;
+            }
+        }
+        return -1;
+    }
+
+    static void parseRange(ByteBuffer buffer, int start, int end, TransactionBlock block) {
+        int position = start;
+        while (position < end) {
+            int lineEnd = position;
+            while (lineEnd < end && buffer.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            int lineStop = lineEnd;
+            if (lineStop > position && buffer.get(lineStop - 1) == '\r') {
+                lineStop--;
+            }
+            if (lineStop > position && !startsWithIgnoreCase(buffer, position, lineStop, HEADER_PREFIX)) {
+                parseLine(buffer, position, lineStop, block);
+            }
+            position = lineEnd + 1;
+        }
+    }
+
+    private static void parseLine(ByteBuffer buffer, int lineStart, int lineStop, TransactionBlock block) {
+        int actionEnd = indexOfComma(buffer, lineStart, lineStop);
+        int accountEnd = indexOfComma(buffer, actionEnd + 1, lineStop);
+        int amountEnd = indexOfComma(buffer, accountEnd + 1, lineStop);
+        if (actionEnd >= lineStop || accountEnd >= lineStop) {
+            block.addInvalidRow();
+            return;
+        }
+
+        int actionCode = matchAction(buffer, lineStart, actionEnd);
+        int accountStart = actionEnd + 1;
+        if (actionCode < 0 || accountEnd - accountStart != UUID_TEXT_LENGTH || !isUuidText(buffer, accountStart)) {
+            block.addInvalidRow();
+            return;
+        }
+
+        long amount = parseAmount(buffer, accountEnd + 1, amountEnd);
+        if (amount == Long.MIN_VALUE) {
+            block.addInvalidRow();
+            return;
+        }
+
+        boolean hasTarget = false;
+        long targetHigh = 0L;
+        long targetLow = 0L;
+        int targetStart = amountEnd + 1;
+        if (targetStart < lineStop) {
+            if (lineStop - targetStart != UUID_TEXT_LENGTH || !isUuidText(buffer, targetStart)) {
+                block.addInvalidRow();
+                return;
+            }
+            hasTarget = true;
+            targetHigh = uuidHigh(buffer, targetStart);
+            targetLow = uuidLow(buffer, targetStart);
+        }
+
+        block.addRow((byte) actionCode, uuidHigh(buffer, accountStart), uuidLow(buffer, accountStart), amount,
+                hasTarget, targetHigh, targetLow);
+    }
+
+    private static int indexOfComma(ByteBuffer buffer, int from, int to) {
+        int position = from;
+        while (position < to && buffer.get(position) != ',') {
+            position++;
+        }
+        return position;
+    }
+
+    private static int matchAction(ByteBuffer buffer, int start, int end) {
+        for (int code = 0; code < ACTION_NAMES.length; code++) {
+            byte[] actionName = ACTION_NAMES[code];
+            if (actionName != null && actionName.length == end - start && startsWithIgnoreCase(buffer, start, end, actionName)) {
+                return code;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean startsWithIgnoreCase(ByteBuffer buffer, int start, int end, byte[] prefix) {
+        if (end - start < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if ((buffer.get(start + i) | 0x20) != (prefix[i] | 0x20)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Возвращает Long.MIN_VALUE для некорректной суммы. Знак не допускается: ни одна операция
+    // не принимает отрицательную сумму, а '-' здесь сразу отклоняется как нецифровой символ.
+    private static long parseAmount(ByteBuffer buffer, int start, int end) {
+        int position = start;
+        long minorUnits = 0;
+        int integerDigits = 0;
+        while (position < end && buffer.get(position) != '.') {
+            int digit = buffer.get(position) - '0';
+            if (digit < 0 || digit > 9 || ++integerDigits > MAX_AMOUNT_DIGITS) {
+                return Long.MIN_VALUE;
+            }
+            minorUnits = minorUnits * 10 + digit;
+            position++;
+        }
+        int fractionDigits = 0;
+        if (position < end) {
+            position++;
+            while (position < end) {
+                int digit = buffer.get(position) - '0';
+                if (digit < 0 || digit > 9 || ++fractionDigits > 2) {
+                    return Long.MIN_VALUE;
+                }
+                minorUnits = minorUnits * 10 + digit;
+                position++;
+            }
+        }
+        if (integerDigits == 0 && fractionDigits == 0) {
+            return Long.MIN_VALUE;
+        }
+        for (; fractionDigits < 2; fractionDigits++) {
+            minorUnits *= 10;
+        }
+        return minorUnits;
+    }
+
+    private static boolean isUuidText(ByteBuffer buffer, int start) {
+        for (int i = 0; i < UUID_TEXT_LENGTH; i++) {
+            byte symbol = buffer.get(start + i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (symbol != '-') {
+                    return false;
+                }
+            } else if (hexValue(symbol) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Старшие 64 бита - первые три группы (8-4-4 шестнадцатеричных цифры).
+    private static long uuidHigh(ByteBuffer buffer, int start) {
+        return parseHex(buffer, start, 8) << 32 | parseHex(buffer, start + 9, 4) << 16 | parseHex(buffer, start + 14, 4);
+    }
+
+    // Младшие 64 бита - последние две группы (4-12).
+    private static long uuidLow(ByteBuffer buffer, int start) {
+        return parseHex(buffer, start + 19, 4) << 48 | parseHex(buffer, start + 24, 12);
+    }
+
+    private static long parseHex(ByteBuffer buffer, int start, int length) {
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            value = value << 4 | hexValue(buffer.get(start + i));
+        }
+        return value;
+    }
+
+    private static int hexValue(byte symbol) {
+        if (symbol >= '0' && symbol <= '9') {
+            return symbol - '0';
+        }
+        int lowerSymbol = symbol | 0x20;
+        if (lowerSymbol >= 'a' && lowerSymbol <= 'f') {
+            return lowerSymbol - 'a' + 10;
+        }
+        return -1;
+    }
+}
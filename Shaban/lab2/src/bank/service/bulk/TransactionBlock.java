@@ -0,0 +1,84 @@
+package bank.service.bulk;
+
+import bank.core.models.Transaction;
+import bank.patterns.strategy.TransactionActionType;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+// Колоночный буфер разобранных строк одного участка файла: только примитивные массивы,
+// объекты Transaction создаются лишь в момент отправки.
+final class TransactionBlock {
+
+    static final byte INVALID_ROW = -1;
+
+    private static final TransactionActionType[] ACTION_TYPES = TransactionActionType.values();
+
+    int rowCount;
+    byte[] actionCodes;
+    long[] accountHigh;
+    long[] accountLow;
+    long[] amountInMinorUnits;
+    long[] targetHigh;
+    long[] targetLow;
+    boolean[] hasTarget;
+    Transaction[] submittedTransactions;
+
+    TransactionBlock(int initialCapacity) {
+        int capacity = Math.max(16, initialCapacity);
+        this.actionCodes = new byte[capacity];
+        this.accountHigh = new long[capacity];
+        this.accountLow = new long[capacity];
+        this.amountInMinorUnits = new long[capacity];
+        this.targetHigh = new long[capacity];
+        this.targetLow = new long[capacity];
+        this.hasTarget = new boolean[capacity];
+        this.submittedTransactions = new Transaction[capacity];
+    }
+
+    void clear() {
+        Arrays.fill(submittedTransactions, 0, rowCount, null);
+        rowCount = 0;
+    }
+
+    void addRow(byte actionCode, long high, long low, long amount, boolean withTarget, long targetIdentifierHigh, long targetIdentifierLow) {
+        ensureCapacity(rowCount + 1);
+        actionCodes[rowCount] = actionCode;
+        accountHigh[rowCount] = high;
+        accountLow[rowCount] = low;
+        amountInMinorUnits[rowCount] = amount;
+        hasTarget[rowCount] = withTarget;
+        targetHigh[rowCount] = targetIdentifierHigh;
+        targetLow[rowCount] = targetIdentifierLow;
+        rowCount++;
+    }
+
+    void addInvalidRow() {
+        addRow(INVALID_ROW, 0L, 0L, 0L, false, 0L, 0L);
+    }
+
+    boolean isValid(int rowIndex) {
+        return actionCodes[rowIndex] != INVALID_ROW;
+    }
+
+    Transaction toTransaction(int rowIndex) {
+        UUID targetIdentifier = hasTarget[rowIndex] ? new UUID(targetHigh[rowIndex], targetLow[rowIndex]) : null;
+        return new Transaction(ACTION_TYPES[actionCodes[rowIndex]], amountInMinorUnits[rowIndex],
+                new UUID(accountHigh[rowIndex], accountLow[rowIndex]), targetIdentifier);
+    }
+
+    private void ensureCapacity(int requiredCapacity) {
+        if (requiredCapacity <= actionCodes.length) {
+            return;
+        }
+        int newCapacity = Math.max(requiredCapacity, actionCodes.length * 2);
+        actionCodes = Arrays.copyOf(actionCodes, newCapacity);
+        accountHigh = Arrays.copyOf(accountHigh, newCapacity);
+        accountLow = Arrays.copyOf(accountLow, newCapacity);
+        amountInMinorUnits = Arrays.copyOf(amountInMinorUnits, newCapacity);
+        targetHigh = Arrays.copyOf(targetHigh, newCapacity);
+        targetLow = Arrays.copyOf(targetLow, newCapacity);
+        hasTarget = Arrays.copyOf(hasTarget, newCapacity);
+        submittedTransactions = Arrays.copyOf(submittedTransactions, newCapacity);
+    }
+}
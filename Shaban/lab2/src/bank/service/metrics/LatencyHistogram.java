@@ -0,0 +1,97 @@
+package bank.service.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Лог-линейная гистограмма в стиле HDR: на каждую степень двойки приходится 32 линейных корзины,
+// поэтому относительная погрешность не хуже ~3% во всем диапазоне long, а память фиксирована.
+// Запись - один индекс и один атомарный инкремент, без аллокаций.
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray bucketCounts;
+    private final LongAdder totalCount;
+    private final LongAdder totalValue;
+    private final AtomicLong maxValue;
+
+    public LatencyHistogram() {
+        this.bucketCounts = new AtomicLongArray(BUCKET_COUNT);
+        this.totalCount = new LongAdder();
+        this.totalValue = new LongAdder();
+        this.maxValue = new AtomicLong();
+    }
+
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        bucketCounts.incrementAndGet(bucketIndexOf(value));
+        totalCount.increment();
+        totalValue.add(value);
+
+        long observedMax;
+        while (value > (observedMax = maxValue.get())) {
+            if (maxValue.compareAndSet(observedMax, value)) {
+                break;
+            }
+        }
+    }
+
+    static int bucketIndexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int mantissa = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + mantissa;
+    }
+
+    // Наибольшее значение, попадающее в корзину: так перцентили не занижаются.
+    static long highestValueInBucket(int bucketIndex) {
+        if (bucketIndex < SUB_BUCKET_COUNT) {
+            return bucketIndex;
+        }
+        int bucketGroup = bucketIndex / SUB_BUCKET_COUNT;
+        long mantissa = bucketIndex % SUB_BUCKET_COUNT;
+        long lowestValue = (SUB_BUCKET_COUNT + mantissa) << (bucketGroup - 1);
+        return lowestValue + (1L << (bucketGroup - 1)) - 1;
+    }
+
+    public long getCount() {
+        return totalCount.sum();
+    }
+
+    public long getMax() {
+        return maxValue.get();
+    }
+
+    public double getMean() {
+        long count = totalCount.sum();
+        return count == 0 ? 0.0 : (double) totalValue.sum() / count;
+    }
+
+    // Снимок не атомарен относительно конкурентной записи: для мониторинга этого достаточно.
+    public long getValueAtPercentile(double percentile) {
+        long recordedCount = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            recordedCount += bucketCounts.get(i);
+        }
+        if (recordedCount == 0) {
+            return 0;
+        }
+
+        long targetRank = Math.max(1, (long) Math.ceil(percentile / 100.0 * recordedCount));
+        long cumulativeCount = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            cumulativeCount += bucketCounts.get(i);
+            if (cumulativeCount >= targetRank) {
+                return Math.min(highestValueInBucket(i), maxValue.get());
+            }
+        }
+        return maxValue.get();
+    }
+}
@@ -0,0 +1,137 @@
+package bank.service.metrics;
+
+import bank.core.models.Transaction;
+import bank.core.models.TransactionOutcome;
+import bank.patterns.strategy.TransactionActionType;
+
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+// Метрики горячего пути процессора. Все структуры создаются заранее и индексируются ordinal(),
+// так что запись завершения - только инкременты счетчиков и гистограмм.
+public class TransactionMetrics {
+
+    private static final TransactionActionType[] ACTION_TYPES = TransactionActionType.values();
+    private static final TransactionOutcome[] OUTCOMES = TransactionOutcome.values();
+    private static final double[] REPORTED_PERCENTILES = {50.0, 90.0, 99.0, 99.9};
+    private static final String[] REPORTED_PERCENTILE_LABELS = {"p50", "p90", "p99", "p99.9"};
+
+    private final LongAdder[][] outcomeCounters;
+    private final LatencyHistogram[] endToEndLatencyByAction;
+    private final LatencyHistogram[] executionTimeByAction;
+    private final LatencyHistogram lockWaitHistogram;
+    private final IntSupplier queueDepthSupplier;
+    private ScheduledExecutorService dumpScheduler;
+
+    public TransactionMetrics(IntSupplier queueDepthSupplier) {
+        this.queueDepthSupplier = queueDepthSupplier;
+        this.outcomeCounters = new LongAdder[ACTION_TYPES.length][OUTCOMES.length];
+        this.endToEndLatencyByAction = new LatencyHistogram[ACTION_TYPES.length];
+        this.executionTimeByAction = new LatencyHistogram[ACTION_TYPES.length];
+        for (int actionIndex = 0; actionIndex < ACTION_TYPES.length; actionIndex++) {
+            for (int outcomeIndex = 0; outcomeIndex < OUTCOMES.length; outcomeIndex++) {
+                outcomeCounters[actionIndex][outcomeIndex] = new LongAdder();
+            }
+            endToEndLatencyByAction[actionIndex] = new LatencyHistogram();
+            executionTimeByAction[actionIndex] = new LatencyHistogram();
+        }
+        this.lockWaitHistogram = new LatencyHistogram();
+    }
+
+    public void recordCompletion(Transaction completedTransaction) {
+        int actionIndex = completedTransaction.getActionType().ordinal();
+        outcomeCounters[actionIndex][completedTransaction.getOutcome().ordinal()].increment();
+        endToEndLatencyByAction[actionIndex].record(completedTransaction.getEndToEndLatencyNanos());
+        // Отклоненные до исполнения транзакции не искажают время исполнения и ожидания блокировок.
+        // Время исполнения учитывается без ожидания блокировок, чтобы их можно было сравнивать.
+        if (completedTransaction.getExecutionNanos() > 0) {
+            long lockWaitNanos = completedTransaction.getLockWaitNanos();
+            executionTimeByAction[actionIndex].record(completedTransaction.getExecutionNanos() - lockWaitNanos);
+            lockWaitHistogram.record(lockWaitNanos);
+        }
+    }
+
+    public long getOutcomeCount(TransactionActionType actionType, TransactionOutcome outcome) {
+        return outcomeCounters[actionType.ordinal()][outcome.ordinal()].sum();
+    }
+
+    public LatencyHistogram getEndToEndLatency(TransactionActionType actionType) {
+        return endToEndLatencyByAction[actionType.ordinal()];
+    }
+
+    public LatencyHistogram getExecutionTime(TransactionActionType actionType) {
+        return executionTimeByAction[actionType.ordinal()];
+    }
+
+    public LatencyHistogram getLockWait() {
+        return lockWaitHistogram;
+    }
+
+    public int getQueueDepth() {
+        return queueDepthSupplier.getAsInt();
+    }
+
+    // Текст собирается только по запросу - на пути записи форматирования нет.
+    public String renderReport() {
+        StringBuilder reportBuilder = new StringBuilder("=== Transaction Metrics ===\n");
+        reportBuilder.append("Queue depth: ").append(getQueueDepth()).append('\n');
+
+        for (TransactionActionType actionType : ACTION_TYPES) {
+            LatencyHistogram endToEndLatency = getEndToEndLatency(actionType);
+            if (endToEndLatency.getCount() == 0) {
+                continue;
+            }
+            reportBuilder.append(actionType.name()).append(": count=").append(endToEndLatency.getCount());
+            for (TransactionOutcome outcome : OUTCOMES) {
+                long outcomeCount = getOutcomeCount(actionType, outcome);
+                if (outcomeCount > 0) {
+                    reportBuilder.append(' ').append(outcome.name()).append('=').append(outcomeCount);
+                }
+            }
+            reportBuilder.append('\n');
+            appendHistogram(reportBuilder, "  end-to-end", endToEndLatency);
+            appendHistogram(reportBuilder, "  execution ", getExecutionTime(actionType));
+        }
+        appendHistogram(reportBuilder, "Lock wait", lockWaitHistogram);
+        return reportBuilder.toString();
+    }
+
+    private static void appendHistogram(StringBuilder reportBuilder, String label, LatencyHistogram histogram) {
+        reportBuilder.append(label).append(" us:");
+        for (int i = 0; i < REPORTED_PERCENTILES.length; i++) {
+            reportBuilder.append(' ').append(REPORTED_PERCENTILE_LABELS[i]).append('=')
+                    .append(formatMicros(histogram.getValueAtPercentile(REPORTED_PERCENTILES[i])));
+        }
+        reportBuilder.append(" max=").append(formatMicros(histogram.getMax()))
+                .append(" mean=").append(formatMicros((long) histogram.getMean()))
+                .append('\n');
+    }
+
+    private static String formatMicros(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1000.0);
+    }
+
+    public synchronized void startPeriodicDump(long intervalMillis, PrintStream output) {
+        if (dumpScheduler != null) {
+            return;
+        }
+        dumpScheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread dumpThread = new Thread(task, "transaction-metrics-dump");
+            dumpThread.setDaemon(true);
+            return dumpThread;
+        });
+        dumpScheduler.scheduleAtFixedRate(() -> output.print(renderReport()), intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stopPeriodicDump() {
+        if (dumpScheduler != null) {
+            dumpScheduler.shutdownNow();
+            dumpScheduler = null;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package bank.stress;
+
+import bank.core.models.Transaction;
+import bank.core.models.TransactionOutcome;
+
+import java.util.List;
+import java.util.UUID;
+
+// Проекция завершенной операции на один счет: что операция должна была увидеть на счете
+// в точке линеаризации и что она с ним сделала. Перевод дает два шага - на источнике и на получателе;
+// каждый проверяется в истории своего счета.
+final class AccountStep {
+
+    static final int FROZEN_ANY = -1;
+    static final int FROZEN_NO = 0;
+    static final int FROZEN_YES = 1;
+
+    private static final long NO_EXPECTED_BALANCE = Long.MIN_VALUE;
+
+    final RecordedOperation operation;
+    final int frozenRequirement;
+    final long minimumBalance;
+    final long balanceBelow;
+    final long balanceDelta;
+    final long expectedBalanceAfter;
+    final boolean freezesAccount;
+
+    private AccountStep(RecordedOperation operation, int frozenRequirement, long minimumBalance, long balanceBelow,
+                        long balanceDelta, long expectedBalanceAfter, boolean freezesAccount) {
+        this.operation = operation;
+        this.frozenRequirement = frozenRequirement;
+        this.minimumBalance = minimumBalance;
+        this.balanceBelow = balanceBelow;
+        this.balanceDelta = balanceDelta;
+        this.expectedBalanceAfter = expectedBalanceAfter;
+        this.freezesAccount = freezesAccount;
+    }
+
+    boolean isApplicable(long balance, boolean frozen) {
+        if (frozenRequirement != FROZEN_ANY && frozen != (frozenRequirement == FROZEN_YES)) {
+            return false;
+        }
+        if (balance < minimumBalance || balance >= balanceBelow) {
+            return false;
+        }
+        return expectedBalanceAfter == NO_EXPECTED_BALANCE || balance + balanceDelta == expectedBalanceAfter;
+    }
+
+    // Добавляет шаги операции в истории затронутых счетов. Итоги, которые счет не трогают
+    // (отказ допуска, неизвестный счет), в истории не попадают.
+    static void project(RecordedOperation operation, AccountStepSink sink) {
+        Transaction transaction = operation.transaction;
+        TransactionOutcome outcome = transaction.getOutcome();
+        long amount = transaction.getTransactionAmountInMinorUnits();
+        long resultingBalance = transaction.getResultingBalanceInMinorUnits();
+        UUID accountIdentifier = transaction.getAccountIdentifier();
+
+        switch (transaction.getActionType()) {
+            case DEPOSIT:
+                if (outcome == TransactionOutcome.SUCCESS_DEPOSITED) {
+                    sink.add(accountIdentifier, step(operation, FROZEN_NO, Long.MIN_VALUE, Long.MAX_VALUE, amount, resultingBalance));
+                } else if (outcome == TransactionOutcome.FAILED_ACCOUNT_FROZEN) {
+                    sink.add(accountIdentifier, requirement(operation, FROZEN_YES));
+                }
+                break;
+            case WITHDRAWAL:
+                if (outcome == TransactionOutcome.SUCCESS_WITHDRAWN) {
+                    sink.add(accountIdentifier, step(operation, FROZEN_NO, amount, Long.MAX_VALUE, -amount, resultingBalance));
+                } else if (outcome == TransactionOutcome.FAILED_ACCOUNT_FROZEN) {
+                    sink.add(accountIdentifier, requirement(operation, FROZEN_YES));
+                } else if (outcome == TransactionOutcome.FAILED_INSUFFICIENT_FUNDS) {
+                    sink.add(accountIdentifier, step(operation, FROZEN_NO, Long.MIN_VALUE, amount, 0, resultingBalance));
+                }
+                break;
+            case FREEZE:
+                if (outcome == TransactionOutcome.SUCCESS_FROZEN) {
+                    sink.add(accountIdentifier, new AccountStep(operation, FROZEN_ANY, Long.MIN_VALUE, Long.MAX_VALUE, 0, NO_EXPECTED_BALANCE, true));
+                }
+                break;
+            case TRANSFER:
+                projectTransfer(operation, outcome, amount, resultingBalance, accountIdentifier, transaction.getTargetAccountIdentifier(), sink);
+                break;
+            default:
+                break;
+        }
+    }
+
+    // Порядок проверок у стратегий разный, поэтому для отказов берутся только условия, общие для всех:
+    // например, при нехватке средств состояние получателя не фиксируется.
+    private static void projectTransfer(RecordedOperation operation, TransactionOutcome outcome, long amount, long resultingBalance,
+                                        UUID sourceIdentifier, UUID targetIdentifier, AccountStepSink sink) {
+        if (outcome == TransactionOutcome.SUCCESS_TRANSFERRED) {
+            sink.add(sourceIdentifier, step(operation, FROZEN_NO, amount, Long.MAX_VALUE, -amount, resultingBalance));
+            sink.add(targetIdentifier, step(operation, FROZEN_NO, Long.MIN_VALUE, Long.MAX_VALUE, amount, NO_EXPECTED_BALANCE));
+        } else if (outcome == TransactionOutcome.FAILED_SOURCE_FROZEN) {
+            sink.add(sourceIdentifier, requirement(operation, FROZEN_YES));
+        } else if (outcome == TransactionOutcome.FAILED_TARGET_FROZEN) {
+            sink.add(sourceIdentifier, requirement(operation, FROZEN_NO));
+            sink.add(targetIdentifier, requirement(operation, FROZEN_YES));
+        } else if (outcome == TransactionOutcome.FAILED_INSUFFICIENT_FUNDS) {
+            sink.add(sourceIdentifier, step(operation, FROZEN_NO, Long.MIN_VALUE, amount, 0, resultingBalance));
+        }
+    }
+
+    private static AccountStep step(RecordedOperation operation, int frozenRequirement, long minimumBalance, long balanceBelow,
+                                    long balanceDelta, long expectedBalanceAfter) {
+        return new AccountStep(operation, frozenRequirement, minimumBalance, balanceBelow, balanceDelta, expectedBalanceAfter, false);
+    }
+
+    private static AccountStep requirement(RecordedOperation operation, int frozenRequirement) {
+        return new AccountStep(operation, frozenRequirement, Long.MIN_VALUE, Long.MAX_VALUE, 0, NO_EXPECTED_BALANCE, false);
+    }
+
+    interface AccountStepSink {
+        void add(UUID accountIdentifier, AccountStep step);
+    }
+}
@@ -0,0 +1,179 @@
+package bank.stress;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+// Проверка линеаризуемости истории одного счета алгоритмом Wing-Gong с кешем состояний (вариант Lowe).
+// События вызова и ответа стоят в одном списке по времени; поиск снимает из списка операцию, которую
+// можно применить первой, и откатывается, когда первым в списке оказывается ответ еще не примененной
+// операции. Кеш пар (множество примененных операций, состояние счета) отсекает повторные ветви.
+// Поиск экспоненциален в худшем случае, поэтому ограничен бюджетом шагов - по его исчерпании ответ UNDECIDED.
+final class LinearizabilityChecker {
+
+    enum Verdict {
+        LINEARIZABLE,
+        VIOLATION,
+        UNDECIDED
+    }
+
+    private LinearizabilityChecker() {
+    }
+
+    static Verdict check(List<AccountStep> steps, long initialBalance, boolean initiallyFrozen, long searchStepBudget) {
+        HistoryEvent head = buildEventList(steps);
+        Set<SearchState> visitedStates = new HashSet<>();
+        Deque<SearchFrame> searchStack = new ArrayDeque<>();
+
+        BitSet linearizedSteps = new BitSet(steps.size());
+        long balance = initialBalance;
+        boolean frozen = initiallyFrozen;
+        HistoryEvent current = head.next;
+        long searchSteps = 0;
+
+        while (head.next != null) {
+            if (++searchSteps > searchStepBudget) {
+                return Verdict.UNDECIDED;
+            }
+            if (current.isCall) {
+                AccountStep step = current.step;
+                if (step.isApplicable(balance, frozen)) {
+                    BitSet nextLinearized = (BitSet) linearizedSteps.clone();
+                    nextLinearized.set(current.stepIndex);
+                    long nextBalance = balance + step.balanceDelta;
+                    boolean nextFrozen = frozen || step.freezesAccount;
+                    if (visitedStates.add(new SearchState(nextLinearized, nextBalance, nextFrozen))) {
+                        searchStack.push(new SearchFrame(current, linearizedSteps, balance, frozen));
+                        linearizedSteps = nextLinearized;
+                        balance = nextBalance;
+                        frozen = nextFrozen;
+                        current.lift();
+                        current = head.next;
+                        continue;
+                    }
+                }
+                current = current.next;
+            } else {
+                if (searchStack.isEmpty()) {
+                    return Verdict.VIOLATION;
+                }
+                SearchFrame frame = searchStack.pop();
+                linearizedSteps = frame.linearizedSteps;
+                balance = frame.balance;
+                frozen = frame.frozen;
+                frame.call.unlift();
+                current = frame.call.next;
+            }
+        }
+        return Verdict.LINEARIZABLE;
+    }
+
+    // При равных отметках времени вызов ставится раньше ответа: операции считаются перекрывающимися.
+    private static HistoryEvent buildEventList(List<AccountStep> steps) {
+        List<HistoryEvent> events = new ArrayList<>(steps.size() * 2);
+        for (int i = 0; i < steps.size(); i++) {
+            AccountStep step = steps.get(i);
+            HistoryEvent call = new HistoryEvent(step, i, true, step.operation.invokedAtNanos);
+            HistoryEvent response = new HistoryEvent(step, i, false, step.operation.respondedAtNanos);
+            call.match = response;
+            events.add(call);
+            events.add(response);
+        }
+        events.sort((first, second) -> first.timeNanos != second.timeNanos
+                ? Long.compare(first.timeNanos, second.timeNanos)
+                : Boolean.compare(second.isCall, first.isCall));
+
+        HistoryEvent head = new HistoryEvent(null, -1, false, Long.MIN_VALUE);
+        HistoryEvent previous = head;
+        for (HistoryEvent event : events) {
+            previous.next = event;
+            event.prev = previous;
+            previous = event;
+        }
+        return head;
+    }
+
+    private static final class HistoryEvent {
+
+        final AccountStep step;
+        final int stepIndex;
+        final boolean isCall;
+        final long timeNanos;
+        HistoryEvent match;
+        HistoryEvent prev;
+        HistoryEvent next;
+
+        HistoryEvent(AccountStep step, int stepIndex, boolean isCall, long timeNanos) {
+            this.step = step;
+            this.stepIndex = stepIndex;
+            this.isCall = isCall;
+            this.timeNanos = timeNanos;
+        }
+
+        // Вызов всегда стоит раньше своего ответа, поэтому у вызова next никогда не null.
+        void lift() {
+            prev.next = next;
+            next.prev = prev;
+            match.prev.next = match.next;
+            if (match.next != null) {
+                match.next.prev = match.prev;
+            }
+        }
+
+        void unlift() {
+            match.prev.next = match;
+            if (match.next != null) {
+                match.next.prev = match;
+            }
+            prev.next = this;
+            next.prev = this;
+        }
+    }
+
+    private static final class SearchFrame {
+
+        final HistoryEvent call;
+        final BitSet linearizedSteps;
+        final long balance;
+        final boolean frozen;
+
+        SearchFrame(HistoryEvent call, BitSet linearizedSteps, long balance, boolean frozen) {
+            this.call = call;
+            this.linearizedSteps = linearizedSteps;
+            this.balance = balance;
+            this.frozen = frozen;
+        }
+    }
+
+    private static final class SearchState {
+
+        private final BitSet linearizedSteps;
+        private final long balance;
+        private final boolean frozen;
+
+        SearchState(BitSet linearizedSteps, long balance, boolean frozen) {
+            this.linearizedSteps = linearizedSteps;
+            this.balance = balance;
+            this.frozen = frozen;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof SearchState)) {
+                return false;
+            }
+            SearchState otherState = (SearchState) other;
+            return balance == otherState.balance && frozen == otherState.frozen && linearizedSteps.equals(otherState.linearizedSteps);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(linearizedSteps, balance, frozen);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package bank.stress;
+
+import bank.core.models.Transaction;
+
+// Одна операция прогона: транзакция и интервал [вызов, ответ] в System.nanoTime().
+// Ответ фиксируется в колбэке future, то есть заведомо после применения операции.
+final class RecordedOperation {
+
+    final Transaction transaction;
+    long invokedAtNanos;
+    long respondedAtNanos;
+
+    RecordedOperation(Transaction transaction) {
+        this.transaction = transaction;
+    }
+}
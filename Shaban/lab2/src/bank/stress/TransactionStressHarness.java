@@ -0,0 +1,221 @@
+package bank.stress;
+
+import bank.core.models.Account;
+import bank.core.models.AtomicAccount;
+import bank.core.models.Transaction;
+import bank.core.models.TransactionOutcome;
+import bank.patterns.factory.OptimisticTransactionStrategyFactory;
+import bank.patterns.factory.TransactionStrategyFactory;
+import bank.patterns.strategy.TransactionActionType;
+import bank.repository.StripedAccountRepository;
+import bank.service.ExecutionMode;
+import bank.service.TransactionProcessor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+
+// Нагрузочная проверка корректности стратегий через TransactionProcessor.
+// Клиентские потоки шлют случайную смесь DEPOSIT/WITHDRAWAL/TRANSFER/FREEZE; у каждого клиента
+// не больше stress.window незавершенных операций, так что пересечение интервалов ограничено.
+// Смесь операций детерминирована зерном (stress.seed), чередование потоков - нет.
+// После прогона проверяются:
+// 1) сохранение денег: сумма балансов = начальная сумма + успешные пополнения - успешные снятия;
+// 2) линеаризуемость истории каждого счета (LinearizabilityChecker) - итоги и возвращенные балансы
+//    должны объясняться некоторым последовательным порядком, совместимым с реальным временем.
+// Переводы проверяются на обоих счетах по отдельности, их атомарность между счетами покрывает пункт 1.
+// Параметры - системные свойства stress.*; код выхода 1, если найдено нарушение.
+public class TransactionStressHarness {
+
+    public static void main(String[] arguments) throws Exception {
+        int clientThreads = Integer.getInteger("stress.threads", 8);
+        int windowPerClient = Integer.getInteger("stress.window", 2);
+        int accountCount = Integer.getInteger("stress.accounts", 64);
+        int operationCount = Integer.getInteger("stress.operations", 200_000);
+        double accountSkew = Double.parseDouble(System.getProperty("stress.skew", "1.0"));
+        int depositPercent = Integer.getInteger("stress.depositPercent", 30);
+        int withdrawalPercent = Integer.getInteger("stress.withdrawalPercent", 30);
+        int freezeCount = Integer.getInteger("stress.freezes", accountCount / 8);
+        long initialBalance = Long.getLong("stress.initialBalance", 100_000L);
+        int maxAmount = Integer.getInteger("stress.maxAmount", 5_000);
+        long seed = Long.getLong("stress.seed", System.nanoTime());
+        long searchStepBudget = Long.getLong("stress.searchBudget", 5_000_000L);
+        boolean optimistic = Boolean.getBoolean("stress.optimistic");
+        ExecutionMode executionMode = ExecutionMode.valueOf(System.getProperty("stress.executionMode", ExecutionMode.SHARED_POOL.name()));
+
+        System.out.println("Stress run: mode=" + executionMode + ", strategies=" + (optimistic ? "optimistic" : "locking")
+                + ", threads=" + clientThreads + ", window=" + windowPerClient + ", accounts=" + accountCount
+                + ", operations=" + operationCount + ", skew=" + accountSkew + ", freezes=" + freezeCount + ", seed=" + seed);
+
+        List<Account> accounts = new ArrayList<>(accountCount);
+        for (int i = 0; i < accountCount; i++) {
+            Account account = optimistic ? new AtomicAccount() : new Account();
+            account.setCurrentBalanceInMinorUnits(initialBalance);
+            accounts.add(account);
+        }
+        StripedAccountRepository repository = new StripedAccountRepository(accounts);
+        TransactionProcessor processor = new TransactionProcessor(repository,
+                optimistic ? new OptimisticTransactionStrategyFactory() : new TransactionStrategyFactory(), executionMode);
+
+        OperationMix operationMix = new OperationMix(accounts, accountSkew, depositPercent, withdrawalPercent,
+                (double) freezeCount / operationCount, maxAmount);
+        RecordedOperation[] recordedOperations = new RecordedOperation[operationCount];
+        Thread[] clients = new Thread[clientThreads];
+        long startNanos = System.nanoTime();
+        for (int clientIndex = 0; clientIndex < clientThreads; clientIndex++) {
+            int firstOperation = (int) ((long) operationCount * clientIndex / clientThreads);
+            int lastOperation = (int) ((long) operationCount * (clientIndex + 1) / clientThreads);
+            Random clientRandom = new Random(seed + clientIndex);
+            clients[clientIndex] = new Thread(() -> runClient(processor, operationMix, clientRandom, windowPerClient,
+                    recordedOperations, firstOperation, lastOperation), "stress-client-" + clientIndex);
+            clients[clientIndex].start();
+        }
+        for (Thread client : clients) {
+            client.join();
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        processor.shutdown();
+
+        boolean moneyConserved = reportThroughputAndConservation(recordedOperations, accounts, initialBalance, elapsedNanos);
+        boolean historiesLinearizable = checkLinearizability(recordedOperations, accounts, initialBalance, searchStepBudget);
+        System.out.println(moneyConserved && historiesLinearizable ? "RESULT: PASS" : "RESULT: FAIL (seed=" + seed + ")");
+        System.exit(moneyConserved && historiesLinearizable ? 0 : 1);
+    }
+
+    private static void runClient(TransactionProcessor processor, OperationMix operationMix, Random clientRandom, int window,
+                                  RecordedOperation[] recordedOperations, int firstOperation, int lastOperation) {
+        Semaphore outstandingPermits = new Semaphore(window);
+        for (int i = firstOperation; i < lastOperation; i++) {
+            RecordedOperation operation = new RecordedOperation(operationMix.next(clientRandom));
+            recordedOperations[i] = operation;
+            outstandingPermits.acquireUninterruptibly();
+            operation.invokedAtNanos = System.nanoTime();
+            processor.submitAsync(operation.transaction).whenComplete((completed, failure) -> {
+                operation.respondedAtNanos = System.nanoTime();
+                outstandingPermits.release();
+            });
+        }
+        // Все разрешения вернулись - все ответы записаны и видны потоку, который дождется клиента.
+        outstandingPermits.acquireUninterruptibly(window);
+    }
+
+    private static boolean reportThroughputAndConservation(RecordedOperation[] recordedOperations, List<Account> accounts,
+                                                           long initialBalance, long elapsedNanos) {
+        Map<TransactionOutcome, Integer> outcomeCounts = new EnumMap<>(TransactionOutcome.class);
+        long[] latencies = new long[recordedOperations.length];
+        long expectedTotal = initialBalance * accounts.size();
+        for (int i = 0; i < recordedOperations.length; i++) {
+            RecordedOperation operation = recordedOperations[i];
+            TransactionOutcome outcome = operation.transaction.getOutcome();
+            outcomeCounts.merge(outcome, 1, Integer::sum);
+            latencies[i] = operation.respondedAtNanos - operation.invokedAtNanos;
+            if (outcome == TransactionOutcome.SUCCESS_DEPOSITED) {
+                expectedTotal += operation.transaction.getTransactionAmountInMinorUnits();
+            } else if (outcome == TransactionOutcome.SUCCESS_WITHDRAWN) {
+                expectedTotal -= operation.transaction.getTransactionAmountInMinorUnits();
+            }
+        }
+        Arrays.sort(latencies);
+
+        long actualTotal = 0;
+        int negativeBalances = 0;
+        for (Account account : accounts) {
+            actualTotal += account.getCurrentBalanceInMinorUnits();
+            if (account.getCurrentBalanceInMinorUnits() < 0) {
+                negativeBalances++;
+            }
+        }
+
+        System.out.printf("Throughput: %.0f ops/s (%d ops in %d ms), latency p50=%d us, p99=%d us%n",
+                recordedOperations.length * 1e9 / elapsedNanos, recordedOperations.length, elapsedNanos / 1_000_000,
+                latencies[latencies.length / 2] / 1000, latencies[(int) (latencies.length * 0.99)] / 1000);
+        outcomeCounts.forEach((outcome, count) -> System.out.println("  " + outcome.name() + ": " + count));
+
+        boolean conserved = actualTotal == expectedTotal && negativeBalances == 0;
+        System.out.println("Money conservation: " + (conserved ? "OK" : "VIOLATED")
+                + " (expected " + expectedTotal + ", actual " + actualTotal + ", negative balances " + negativeBalances + ")");
+        return conserved;
+    }
+
+    private static boolean checkLinearizability(RecordedOperation[] recordedOperations, List<Account> accounts,
+                                                long initialBalance, long searchStepBudget) {
+        Map<UUID, List<AccountStep>> historiesByAccount = new HashMap<>();
+        for (Account account : accounts) {
+            historiesByAccount.put(account.getAccountIdentifier(), new ArrayList<>());
+        }
+        for (RecordedOperation operation : recordedOperations) {
+            AccountStep.project(operation, (accountIdentifier, step) -> historiesByAccount.get(accountIdentifier).add(step));
+        }
+
+        int violations = 0;
+        int undecided = 0;
+        long checkStartNanos = System.nanoTime();
+        for (Account account : accounts) {
+            List<AccountStep> history = historiesByAccount.get(account.getAccountIdentifier());
+            LinearizabilityChecker.Verdict verdict = LinearizabilityChecker.check(history, initialBalance, false, searchStepBudget);
+            if (verdict == LinearizabilityChecker.Verdict.VIOLATION) {
+                violations++;
+                System.out.println("  Non-linearizable history: account " + account.getAccountIdentifier() + " (" + history.size() + " steps)");
+            } else if (verdict == LinearizabilityChecker.Verdict.UNDECIDED) {
+                undecided++;
+                System.out.println("  Search budget exhausted: account " + account.getAccountIdentifier() + " (" + history.size() + " steps)");
+            }
+        }
+        System.out.println("Linearizability: " + (violations == 0 ? "OK" : "VIOLATED") + " (" + accounts.size() + " accounts, "
+                + violations + " violations, " + undecided + " undecided, " + (System.nanoTime() - checkStartNanos) / 1_000_000 + " ms)");
+        return violations == 0;
+    }
+
+    // Генератор смеси операций. Перекос: индекс счета = n * u^skew, при skew > 1 нагрузка
+    // сгущается на первых счетах (горячие счета), при skew = 1 распределение равномерное.
+    private static final class OperationMix {
+
+        private final List<Account> accounts;
+        private final double accountSkew;
+        private final int depositPercent;
+        private final int withdrawalPercent;
+        private final double freezeProbability;
+        private final int maxAmount;
+
+        OperationMix(List<Account> accounts, double accountSkew, int depositPercent, int withdrawalPercent,
+                     double freezeProbability, int maxAmount) {
+            this.accounts = accounts;
+            this.accountSkew = accountSkew;
+            this.depositPercent = depositPercent;
+            this.withdrawalPercent = withdrawalPercent;
+            this.freezeProbability = freezeProbability;
+            this.maxAmount = maxAmount;
+        }
+
+        Transaction next(Random random) {
+            UUID accountIdentifier = pickAccount(random);
+            if (random.nextDouble() < freezeProbability) {
+                return new Transaction(TransactionActionType.FREEZE, 0L, accountIdentifier, null);
+            }
+            long amount = 1 + random.nextInt(maxAmount);
+            int actionRoll = random.nextInt(100);
+            if (actionRoll < depositPercent) {
+                return new Transaction(TransactionActionType.DEPOSIT, amount, accountIdentifier, null);
+            }
+            if (actionRoll < depositPercent + withdrawalPercent) {
+                return new Transaction(TransactionActionType.WITHDRAWAL, amount, accountIdentifier, null);
+            }
+            UUID targetIdentifier = pickAccount(random);
+            while (targetIdentifier.equals(accountIdentifier) && accounts.size() > 1) {
+                targetIdentifier = pickAccount(random);
+            }
+            return new Transaction(TransactionActionType.TRANSFER, amount, accountIdentifier, targetIdentifier);
+        }
+
+        private UUID pickAccount(Random random) {
+            int accountIndex = (int) (accounts.size() * Math.pow(random.nextDouble(), accountSkew));
+            return accounts.get(Math.min(accountIndex, accounts.size() - 1)).getAccountIdentifier();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package bank.ui;
+
+import bank.core.models.Account;
+
+import javax.swing.AbstractListModel;
+import javax.swing.ComboBoxModel;
+import java.util.List;
+
+// Модель выпадающего списка счетов: строка i всегда соответствует счету i, поэтому метка
+// обновляется по индексу на месте, без поиска по списку и без удаления и вставки элементов.
+class AccountComboBoxModel extends AbstractListModel<String> implements ComboBoxModel<String> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient List<Account> modelAccounts;
+    private final String[] accountLabels;
+    private int selectedIndex;
+
+    AccountComboBoxModel(List<Account> accounts) {
+        this.modelAccounts = accounts;
+        this.accountLabels = new String[accounts.size()];
+        for (int i = 0; i < accountLabels.length; i++) {
+            accountLabels[i] = labelFor(accounts.get(i));
+        }
+        this.selectedIndex = accountLabels.length > 0 ? 0 : -1;
+    }
+
+    void refreshLabel(int accountIndex) {
+        accountLabels[accountIndex] = labelFor(modelAccounts.get(accountIndex));
+        fireContentsChanged(this, accountIndex, accountIndex);
+    }
+
+    int getSelectedAccountIndex() {
+        return selectedIndex;
+    }
+
+    @Override
+    public int getSize() {
+        return accountLabels.length;
+    }
+
+    @Override
+    public String getElementAt(int index) {
+        return accountLabels[index];
+    }
+
+    @Override
+    public void setSelectedItem(Object selectedItem) {
+        int newSelectedIndex = -1;
+        for (int i = 0; i < accountLabels.length; i++) {
+            if (accountLabels[i].equals(selectedItem)) {
+                newSelectedIndex = i;
+                break;
+            }
+        }
+        if (newSelectedIndex != selectedIndex) {
+            selectedIndex = newSelectedIndex;
+            fireContentsChanged(this, -1, -1);
+        }
+    }
+
+    @Override
+    public Object getSelectedItem() {
+        return selectedIndex >= 0 ? accountLabels[selectedIndex] : null;
+    }
+
+    private static String labelFor(Account account) {
+        return account.getAccountIdentifier().toString().substring(0, 8) + " - Balance: " + account.readBalanceSnapshot().getBalance().toPlainString();
+    }
+}
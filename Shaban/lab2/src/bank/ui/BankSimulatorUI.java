@@ -1,56 +1,92 @@
 package bank.ui;
 
 import bank.core.models.Account;
+import bank.core.models.AccountBalanceSnapshot;
+import bank.core.models.MinorUnits;
 import bank.core.models.Transaction;
+import bank.core.models.TransactionHistoryEntry;
+import bank.core.models.TransactionOutcome;
+import bank.core.models.TransferLeg;
 import bank.patterns.factory.TransactionStrategyFactory;
 import bank.patterns.observer.TransactionStatusListener;
 import bank.patterns.strategy.TransactionActionType;
-import bank.patterns.visitor.SummaryVisitor;
-import bank.repository.MockAccountRepository;
+import bank.repository.AccountRepository;
+import bank.repository.JournaledAccountRepository;
+import bank.repository.StripedAccountRepository;
+import bank.repository.TransactionHistoryStore;
+import bank.repository.journal.JournalSyncPolicy;
+import bank.service.ExecutionMode;
+import bank.service.ListenerOverflowPolicy;
+import bank.service.TransactionEventDispatcher;
 import bank.service.TransactionProcessor;
+import bank.service.admission.AdmissionPolicy;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import java.awt.*;
 import java.awt.event.ItemEvent;
-import java.awt.event.ItemListener;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.stream.Collectors;
 
-public class BankSimulatorUI extends JFrame implements TransactionStatusListener {
+public final class BankSimulatorUI extends JFrame implements TransactionStatusListener {
 
-    private final List<Account> userAccounts;
-    private final TransactionProcessor processor;
-    private final MockAccountRepository repository;
-    private final List<Transaction> completedTransactions;
+    private static final int RENDER_INTERVAL_MILLIS = 33;
+    private static final long serialVersionUID = 1L;
+    private static final int HISTORY_CAPACITY = 5000;
+
+    private final transient List<Account> userAccounts;
+    private final transient TransactionProcessor processor;
+    private final transient AccountRepository repository;
+    private final transient TransactionHistoryStore historyStore;
     private final AtomicLong pendingTransactionCounter;
+    private final transient Map<UUID, Integer> accountIndexByIdentifier;
+    // Завершения копятся здесь потоком доставки и разбираются EDT один раз за кадр.
+    private final ConcurrentLinkedQueue<Transaction> completedRenderQueue;
+    // Дальше поля только для EDT: строки и счета, накопленные до следующего кадра.
+    private final transient List<String> pendingHistoryLines;
+    private final boolean[] dirtyAccounts;
 
     private JLabel balanceLabel;
-    private JTextArea historyTextArea;
+    // Последний показанный снимок: если версия счета не изменилась, метку не перестраиваем.
+    private transient AccountBalanceSnapshot displayedBalanceSnapshot;
+    private JList<String> historyList;
+    private BoundedHistoryListModel historyListModel;
     private JTextField amountInputField;
     private JComboBox<TransactionActionType> actionComboBox;
+    private AccountComboBoxModel accountSelectionModel;
+    private AccountComboBoxModel targetAccountSelectionModel;
     private JComboBox<String> accountSelectionComboBox;
     private JComboBox<String> targetAccountSelectionComboBox;
+    private Timer renderTimer;
 
     private JButton concurrentButton;
 
-    public BankSimulatorUI(List<Account> accounts, TransactionProcessor transactionProcessor, MockAccountRepository repo) {
+    public BankSimulatorUI(List<Account> accounts, TransactionProcessor transactionProcessor, AccountRepository repo) {
         super("Bank Transaction Simulator (Swing)");
         this.userAccounts = accounts;
         this.processor = transactionProcessor;
         this.repository = repo;
-        this.completedTransactions = new ArrayList<>();
+        this.historyStore = new TransactionHistoryStore();
         this.pendingTransactionCounter = new AtomicLong(0);
-
-        this.processor.registerListener(this);
+        this.accountIndexByIdentifier = new HashMap<>();
+        for (int i = 0; i < accounts.size(); i++) {
+            accountIndexByIdentifier.put(accounts.get(i).getAccountIdentifier(), i);
+        }
+        this.completedRenderQueue = new ConcurrentLinkedQueue<>();
+        this.pendingHistoryLines = new ArrayList<>();
+        this.dirtyAccounts = new boolean[accounts.size()];
 
         try {
             UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
@@ -60,16 +96,14 @@ public class BankSimulatorUI extends JFrame implements TransactionStatusListener
 
         initializeUIComponents();
         updateBalanceDisplay();
+
+        renderTimer = new Timer(RENDER_INTERVAL_MILLIS, e -> renderFrame());
+        renderTimer.start();
     }
 
     private Account getSelectedAccount() {
-        if (accountSelectionComboBox.getSelectedItem() == null) return userAccounts.get(0);
-        String selectedIdentifierFull = (String) accountSelectionComboBox.getSelectedItem();
-        String selectedIdentifierPrefix = selectedIdentifierFull.split(" - ")[0];
-        return userAccounts.stream()
-                .filter(a -> a.getAccountIdentifier().toString().substring(0, 8).equals(selectedIdentifierPrefix))
-                .findFirst()
-                .orElse(userAccounts.get(0));
+        int selectedIndex = accountSelectionModel.getSelectedAccountIndex();
+        return userAccounts.get(selectedIndex >= 0 ? selectedIndex : 0);
     }
 
     private void initializeUIComponents() {
@@ -89,12 +123,14 @@ public class BankSimulatorUI extends JFrame implements TransactionStatusListener
 
         mainPanel.add(topControlsWrapper, BorderLayout.NORTH);
 
-        historyTextArea = new JTextArea();
-        historyTextArea.setEditable(false);
-        historyTextArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
-        historyTextArea.setBackground(new Color(230, 230, 230));
+        historyListModel = new BoundedHistoryListModel(HISTORY_CAPACITY);
+        historyList = new JList<>(historyListModel);
+        historyList.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        historyList.setBackground(new Color(230, 230, 230));
+        // Фиксированная высота строки: JList не измеряет каждую строку при прокрутке и вставке.
+        historyList.setPrototypeCellValue("[Completed - 0000 left] [GREEN]0000 - 00:00:00 | Action: MULTI_TRANSFER | Amount: 0000000.00");
 
-        JScrollPane scrollPane = new JScrollPane(historyTextArea);
+        JScrollPane scrollPane = new JScrollPane(historyList);
 
         mainPanel.add(scrollPane, BorderLayout.CENTER);
 
@@ -103,6 +139,7 @@ public class BankSimulatorUI extends JFrame implements TransactionStatusListener
         addWindowListener(new WindowAdapter() {
             @Override
             public void windowClosing(WindowEvent e) {
+                renderTimer.stop();
                 processor.shutdown();
             }
         });
@@ -117,11 +154,8 @@ public class BankSimulatorUI extends JFrame implements TransactionStatusListener
                 "Current Account Status"
         ));
 
-        List<String> accountLabels = userAccounts.stream()
-                .map(a -> a.getAccountIdentifier().toString().substring(0, 8) + " - Balance: " + a.getCurrentBalance().toPlainString())
-                .collect(Collectors.toList());
-
-        accountSelectionComboBox = new JComboBox<>(accountLabels.toArray(new String[0]));
+        accountSelectionModel = new AccountComboBoxModel(userAccounts);
+        accountSelectionComboBox = new JComboBox<>(accountSelectionModel);
         accountSelectionComboBox.addItemListener(e -> {
             if (e.getStateChange() == ItemEvent.SELECTED) {
                 updateBalanceDisplay();
@@ -190,11 +224,8 @@ public class BankSimulatorUI extends JFrame implements TransactionStatusListener
 
         submitButton.addActionListener(e -> processNewTransaction(false));
 
-        List<String> targetLabels = userAccounts.stream()
-                .map(a -> a.getAccountIdentifier().toString().substring(0, 8))
-                .collect(Collectors.toList());
-
-        targetAccountSelectionComboBox = new JComboBox<>(targetLabels.toArray(new String[0]));
+        targetAccountSelectionModel = new AccountComboBoxModel(userAccounts);
+        targetAccountSelectionComboBox = new JComboBox<>(targetAccountSelectionModel);
 
         gbc.gridx = 0;
         gbc.gridy = 1;
@@ -243,6 +274,19 @@ public class BankSimulatorUI extends JFrame implements TransactionStatusListener
         gbc.fill = GridBagConstraints.HORIZONTAL;
         controlPanel.add(visitorButton, gbc);
 
+        JButton statementButton = new JButton("Account Statement (Last Hour)");
+        statementButton.setFont(new Font("Arial", Font.BOLD, 12));
+        statementButton.setBorder(BorderFactory.createLineBorder(new Color(156, 39, 176), 2));
+        statementButton.addActionListener(e -> generateStatement());
+
+        gbc.gridx = 0;
+        gbc.gridy = 4;
+        gbc.gridwidth = 6;
+        gbc.weightx = 1.0;
+        gbc.insets = new Insets(0, 10, 15, 10);
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        controlPanel.add(statementButton, gbc);
+
         return controlPanel;
     }
 
@@ -273,19 +317,18 @@ public class BankSimulatorUI extends JFrame implements TransactionStatusListener
         if (selectedAction != TransactionActionType.FREEZE && !amountText.isEmpty()) {
             try {
                 transactionAmount = new BigDecimal(amountText);
-            } catch (NumberFormatException exception) {
+                MinorUnits.fromBigDecimal(transactionAmount);
+            } catch (IllegalArgumentException exception) {
                 JOptionPane.showMessageDialog(this, "Invalid amount format.", "Input Error", JOptionPane.ERROR_MESSAGE);
                 return;
             }
         }
 
         if (selectedAction == TransactionActionType.TRANSFER) {
-            String selectedTargetPrefix = (String) targetAccountSelectionComboBox.getSelectedItem();
-            targetAccountId = userAccounts.stream()
-                    .filter(a -> selectedTargetPrefix.startsWith(a.getAccountIdentifier().toString().substring(0, 8)))
-                    .map(a -> a.getAccountIdentifier().toString())
-                    .findFirst()
-                    .orElse(null);
+            int targetIndex = targetAccountSelectionModel.getSelectedAccountIndex();
+            if (targetIndex >= 0) {
+                targetAccountId = userAccounts.get(targetIndex).getAccountIdentifier().toString();
+            }
 
             if (targetAccountId == null) {
                 JOptionPane.showMessageDialog(this, "Target account not selected or invalid.", "Transfer Error", JOptionPane.ERROR_MESSAGE);
@@ -302,163 +345,205 @@ public class BankSimulatorUI extends JFrame implements TransactionStatusListener
             for (int i = 0; i < 100; i++) {
                 Transaction depositTransaction = new Transaction(TransactionActionType.DEPOSIT, concurrentAmount, activeAccount.getAccountIdentifier());
                 pendingTransactionCounter.incrementAndGet();
-                historyTextArea.append("\n[Concurrent D] Submitting ID " + depositTransaction.getTransactionIdentifier().toString().substring(0, 4) + "...");
-                processor.submitTransaction(depositTransaction);
+                pendingHistoryLines.add("[Concurrent D] Submitting ID " + depositTransaction.getTransactionIdentifier().toString().substring(0, 4) + "...");
+                processor.submitAsync(depositTransaction).whenComplete((completed, failure) -> pendingTransactionCounter.decrementAndGet());
 
                 Transaction withdrawalTransaction = new Transaction(TransactionActionType.WITHDRAWAL, concurrentAmount, activeAccount.getAccountIdentifier());
                 pendingTransactionCounter.incrementAndGet();
-                historyTextArea.append("\n[Concurrent W] Submitting ID " + withdrawalTransaction.getTransactionIdentifier().toString().substring(0, 4) + "...");
-                processor.submitTransaction(withdrawalTransaction);
+                pendingHistoryLines.add("[Concurrent W] Submitting ID " + withdrawalTransaction.getTransactionIdentifier().toString().substring(0, 4) + "...");
+                processor.submitAsync(withdrawalTransaction).whenComplete((completed, failure) -> pendingTransactionCounter.decrementAndGet());
             }
         } else {
-            Transaction newTransaction = new Transaction(selectedAction, transactionAmount, activeAccount.getAccountIdentifier());
-            if (targetAccountId != null) {
-                newTransaction.setStatusMessage(targetAccountId);
+            Transaction newTransaction;
+            if (selectedAction == TransactionActionType.MULTI_TRANSFER) {
+                // Выплата с выбранного счета на все остальные одной атомарной операцией.
+                List<TransferLeg> payoutLegs = new ArrayList<>();
+                for (Account payee : userAccounts) {
+                    if (payee != activeAccount) {
+                        payoutLegs.add(new TransferLeg(activeAccount.getAccountIdentifier(), payee.getAccountIdentifier(), transactionAmount));
+                    }
+                }
+                newTransaction = new Transaction(activeAccount.getAccountIdentifier(), payoutLegs);
+            } else {
+                UUID targetIdentifier = targetAccountId == null ? null : UUID.fromString(targetAccountId);
+                newTransaction = new Transaction(selectedAction, transactionAmount, activeAccount.getAccountIdentifier(), targetIdentifier);
             }
             pendingTransactionCounter.incrementAndGet();
-            historyTextArea.append("\n[Submitting] " + newTransaction.getActionType().name() + " Transaction ID: " + newTransaction.getTransactionIdentifier().toString().substring(0, 4) + "...");
-            processor.submitTransaction(newTransaction);
+            pendingHistoryLines.add("[Submitting] " + newTransaction.getActionType().name() + " Transaction ID: " + newTransaction.getTransactionIdentifier().toString().substring(0, 4) + "...");
+            processor.submitAsync(newTransaction).whenComplete((completed, failure) -> pendingTransactionCounter.decrementAndGet());
         }
         amountInputField.setText("");
     }
 
+    // Сводка копится по мере завершения транзакций, поэтому отчет доступен и под нагрузкой.
     private void generateReport() {
-        if (pendingTransactionCounter.get() > 0) {
-            JOptionPane.showMessageDialog(this, "Please wait for " + pendingTransactionCounter.get() + " transactions to finish.", "Visitor Running", JOptionPane.INFORMATION_MESSAGE);
-            return;
+        String summaryReport = processor.getLiveSummary().getSummaryReport();
+        long stillPending = pendingTransactionCounter.get();
+        if (stillPending > 0) {
+            summaryReport += "\n\nStill in flight: " + stillPending;
         }
+        JOptionPane.showMessageDialog(this, summaryReport, "Transaction Summary Report (Visitor)", JOptionPane.INFORMATION_MESSAGE);
+    }
 
-        SummaryVisitor reportVisitor = new SummaryVisitor();
-
-        synchronized (completedTransactions) {
-            for (Transaction t : completedTransactions) {
-                t.accept(reportVisitor);
-            }
+    // Выписка читает только строки выбранного счета за последний час через индекс хранилища истории.
+    private void generateStatement() {
+        Account selectedAccount = getSelectedAccount();
+        long toMillis = System.currentTimeMillis() + 1;
+        long fromMillis = toMillis - 60 * 60 * 1000L;
+
+        List<TransactionHistoryEntry> entries = historyStore.findByAccount(selectedAccount.getAccountIdentifier(), fromMillis, toMillis);
+        List<TransactionHistoryEntry> largestEntries = historyStore.findLargestForAccount(selectedAccount.getAccountIdentifier(), fromMillis, toMillis, 5);
+
+        StringBuilder statementBuilder = new StringBuilder();
+        statementBuilder.append("Account ").append(selectedAccount.getAccountIdentifier().toString(), 0, 8)
+                .append(": ").append(entries.size()).append(" transactions in the last hour\n");
+        int shownEntries = Math.min(entries.size(), 20);
+        for (int i = entries.size() - shownEntries; i < entries.size(); i++) {
+            statementBuilder.append('\n').append(entries.get(i));
         }
-
-        JOptionPane.showMessageDialog(this, reportVisitor.getSummaryReport(), "Transaction Summary Report (Visitor)", JOptionPane.INFORMATION_MESSAGE);
+        statementBuilder.append("\n\nLargest:");
+        for (TransactionHistoryEntry entry : largestEntries) {
+            statementBuilder.append('\n').append(entry);
+        }
+        JOptionPane.showMessageDialog(this, statementBuilder.toString(), "Account Statement", JOptionPane.INFORMATION_MESSAGE);
     }
 
     @Override
     public void notifyTransactionUpdate(Transaction updatedTransaction) {
-        SwingUtilities.invokeLater(() -> {
-            long remaining = pendingTransactionCounter.decrementAndGet();
-
-            String statusColor = updatedTransaction.getStatusMessage().startsWith("SUCCESS") ? "[GREEN]" : "[RED]";
-
-            synchronized (completedTransactions) {
-                completedTransactions.add(updatedTransaction);
-            }
-            historyTextArea.append("\n[Completed - " + remaining + " left] " + statusColor + updatedTransaction.toString());
-
-            updateAccountComboBoxes(updatedTransaction);
-            updateBalanceDisplay();
-            historyTextArea.setCaretPosition(historyTextArea.getDocument().getLength());
-        });
+        historyStore.record(updatedTransaction);
+        completedRenderQueue.offer(updatedTransaction);
     }
 
-    private void updateAccountComboBoxes(Transaction completedTransaction) {
-        String sourceAccountId = completedTransaction.getAccountIdentifier().toString();
-
-        String targetAccountId = null;
-        if (completedTransaction.getActionType() == TransactionActionType.TRANSFER && completedTransaction.getStatusMessage().startsWith("SUCCESS")) {
-            String status = completedTransaction.getStatusMessage();
-            try {
-                // Извлечение префикса цели (до '...') из: "SUCCESS: Funds transferred to 3c07a00c. Source New Balance: 956.00"
-                // Префикс - это первая часть статуса, которая идет после 'Funds transferred to ' и до '.'
-                String targetIdPrefix = status.split(" transferred to ")[1].split("\\.")[0].substring(0, 8).trim();
-
-                final String targetIdPrefixFinal = targetIdPrefix;
-
-                targetAccountId = userAccounts.stream()
-                        .filter(a -> a.getAccountIdentifier().toString().substring(0, 8).equals(targetIdPrefixFinal))
-                        .map(a -> a.getAccountIdentifier().toString())
-                        .findFirst()
-                        .orElse(null);
+    @Override
+    public void notifyTransactionBatch(List<Transaction> completedBatch) {
+        historyStore.recordAll(completedBatch);
+        completedRenderQueue.addAll(completedBatch);
+    }
 
-            } catch (ArrayIndexOutOfBoundsException ignored) {}
+    // Один кадр: все завершения с прошлого кадра превращаются в строки, метки затронутых счетов
+    // и баланс обновляются по одному разу, а список получает одно событие вставки.
+    private void renderFrame() {
+        int completedCount = 0;
+        Transaction completedTransaction;
+        while ((completedTransaction = completedRenderQueue.poll()) != null) {
+            completedCount++;
+            markAffectedAccounts(completedTransaction);
+            pendingHistoryLines.add(formatCompletedTransaction(completedTransaction));
+            // Строки сверх емкости истории все равно будут вытеснены в этом же кадре.
+            if (pendingHistoryLines.size() > 2 * HISTORY_CAPACITY) {
+                pendingHistoryLines.subList(0, pendingHistoryLines.size() - HISTORY_CAPACITY).clear();
+            }
+        }
+        if (completedCount == 0 && pendingHistoryLines.isEmpty()) {
+            return;
         }
 
-        updateSingleComboBoxLabel(accountSelectionComboBox, sourceAccountId);
+        historyListModel.appendAll(pendingHistoryLines);
+        pendingHistoryLines.clear();
+        historyList.ensureIndexIsVisible(historyListModel.getSize() - 1);
 
-        if (targetAccountId != null) {
-            updateSingleComboBoxLabel(accountSelectionComboBox, targetAccountId);
-            updateSingleComboBoxLabel(targetAccountSelectionComboBox, targetAccountId);
+        for (int i = 0; i < dirtyAccounts.length; i++) {
+            if (dirtyAccounts[i]) {
+                dirtyAccounts[i] = false;
+                accountSelectionModel.refreshLabel(i);
+                targetAccountSelectionModel.refreshLabel(i);
+            }
+        }
+        if (completedCount > 0) {
+            updateBalanceDisplay();
         }
     }
 
-    private void updateSingleComboBoxLabel(JComboBox<String> comboBox, String accountId) {
-        final String accountIdFinal = accountId;
-
-        String accountPrefix = accountId.substring(0, 8);
-
-        Optional<Account> currentAccountOptional = userAccounts.stream()
-                .filter(a -> a.getAccountIdentifier().toString().equals(accountIdFinal))
-                .findFirst();
-
-        if (currentAccountOptional.isEmpty()) return;
-        Account account = currentAccountOptional.get();
+    private String formatCompletedTransaction(Transaction completedTransaction) {
+        long remaining = pendingTransactionCounter.get();
+        String statusColor = completedTransaction.getOutcome().isSuccess() ? "[GREEN]" : "[RED]";
+        return "[Completed - " + remaining + " left] " + statusColor + completedTransaction.toString();
+    }
 
-        ItemListener listener = comboBox.getItemListeners().length > 0 ? comboBox.getItemListeners()[0] : null;
-        if (listener != null) {
-            comboBox.removeItemListener(listener);
+    private void markAffectedAccounts(Transaction completedTransaction) {
+        markAccountDirty(completedTransaction.getAccountIdentifier());
+        if (completedTransaction.getOutcome() == TransactionOutcome.SUCCESS_TRANSFERRED) {
+            markAccountDirty(completedTransaction.getTargetAccountIdentifier());
         }
-
-        DefaultComboBoxModel<String> model = (DefaultComboBoxModel<String>) comboBox.getModel();
-
-        for (int i = 0; i < model.getSize(); i++) {
-            if (model.getElementAt(i).startsWith(accountPrefix)) {
-                String newLabel = accountPrefix + " - Balance: " + account.getCurrentBalance().toPlainString();
-                String currentSelection = (String) comboBox.getSelectedItem();
-
-                model.removeElementAt(i);
-                model.insertElementAt(newLabel, i);
-
-                if (currentSelection != null && currentSelection.startsWith(accountPrefix)) {
-                    comboBox.setSelectedIndex(i);
-                }
-                break;
+        if (completedTransaction.getOutcome() == TransactionOutcome.SUCCESS_MULTI_TRANSFERRED) {
+            for (TransferLeg leg : completedTransaction.getTransferLegs()) {
+                markAccountDirty(leg.getSourceAccountIdentifier());
+                markAccountDirty(leg.getTargetAccountIdentifier());
             }
         }
+    }
 
-        if (listener != null) {
-            comboBox.addItemListener(listener);
+    private void markAccountDirty(UUID accountIdentifier) {
+        Integer accountIndex = accountIndexByIdentifier.get(accountIdentifier);
+        if (accountIndex != null) {
+            dirtyAccounts[accountIndex] = true;
         }
     }
 
     private void updateBalanceDisplay() {
-        Account activeAccount = getSelectedAccount();
-        String currentSelectionPrefix = activeAccount.getAccountIdentifier().toString().substring(0, 8);
+        AccountBalanceSnapshot activeSnapshot = getSelectedAccount().readBalanceSnapshot();
+        if (displayedBalanceSnapshot != null
+                && displayedBalanceSnapshot.getAccountIdentifier().equals(activeSnapshot.getAccountIdentifier())
+                && displayedBalanceSnapshot.getStateVersion() == activeSnapshot.getStateVersion()) {
+            return;
+        }
+        displayedBalanceSnapshot = activeSnapshot;
+        String currentSelectionPrefix = activeSnapshot.getAccountIdentifier().toString().substring(0, 8);
 
         balanceLabel.setText(String.format("ID: %s | Balance: %s | Frozen: %s",
                 currentSelectionPrefix,
-                activeAccount.getCurrentBalance().toPlainString(),
-                activeAccount.getIsFrozen()));
+                activeSnapshot.getBalance().toPlainString(),
+                activeSnapshot.getIsFrozen()));
 
-        if (activeAccount.getIsFrozen()) {
+        if (activeSnapshot.getIsFrozen()) {
             balanceLabel.setForeground(new Color(255, 69, 0));
         } else {
             balanceLabel.setForeground(new Color(0, 102, 0));
         }
     }
 
-    public static void main(String[] arguments) {
-        Account initialAccount1 = new Account();
-        initialAccount1.setCurrentBalance(new BigDecimal("1000.00"));
+    public static void main(String[] arguments) throws IOException {
+        Path dataDirectory = Paths.get(System.getProperty("bank.dataDirectory", "bank-data"));
+        JournaledAccountRepository repository = JournaledAccountRepository.open(
+                dataDirectory, new StripedAccountRepository(1024), JournalSyncPolicy.groupCommit(256, 50));
+        repository.startPeriodicSnapshots(Long.getLong("bank.snapshotIntervalMillis", 60_000L));
+        Runtime.getRuntime().addShutdownHook(new Thread(repository::close, "transaction-journal-close"));
+
+        List<Account> allUserAccounts = new ArrayList<>();
+        repository.forEachAccount(allUserAccounts::add);
+
+        if (allUserAccounts.isEmpty()) {
+            Account initialAccount1 = new Account();
+            initialAccount1.setCurrentBalance(new BigDecimal("1000.00"));
 
-        Account initialAccount2 = new Account();
-        initialAccount2.setCurrentBalance(new BigDecimal("200.00"));
+            Account initialAccount2 = new Account();
+            initialAccount2.setCurrentBalance(new BigDecimal("200.00"));
 
-        Account initialAccount3 = new Account();
-        initialAccount3.setCurrentBalance(new BigDecimal("5000.00"));
+            Account initialAccount3 = new Account();
+            initialAccount3.setCurrentBalance(new BigDecimal("5000.00"));
+
+            allUserAccounts.addAll(Arrays.asList(initialAccount1, initialAccount2, initialAccount3));
+            allUserAccounts.forEach(repository::saveAccount);
+        }
 
-        List<Account> allUserAccounts = Arrays.asList(initialAccount1, initialAccount2, initialAccount3);
-        MockAccountRepository repository = new MockAccountRepository(allUserAccounts);
         TransactionStrategyFactory factory = new TransactionStrategyFactory();
-        TransactionProcessor processor = TransactionProcessor.getTransactionProcessorInstance(repository, factory);
+        ExecutionMode executionMode = ExecutionMode.valueOf(System.getProperty("bank.executionMode", ExecutionMode.GROUP_COMMIT.name()));
+        // Лимиты допуска: 0 отключает ведро; запас ведра равен секундному лимиту.
+        int accountRateLimit = Integer.getInteger("bank.accountRateLimitPerSecond", 0);
+        int globalRateLimit = Integer.getInteger("bank.globalRateLimitPerSecond", 0);
+        AdmissionPolicy admissionPolicy = new AdmissionPolicy(accountRateLimit, accountRateLimit, globalRateLimit, globalRateLimit,
+                Integer.getInteger("bank.maxInFlightTransactions", AdmissionPolicy.DEFAULT_MAX_IN_FLIGHT));
+        TransactionProcessor processor = new TransactionProcessor(repository, factory, executionMode, admissionPolicy);
+        long metricsDumpIntervalMillis = Long.getLong("bank.metricsDumpIntervalMillis", 0L);
+        if (metricsDumpIntervalMillis > 0) {
+            processor.getMetrics().startPeriodicDump(metricsDumpIntervalMillis, System.out);
+        }
 
         SwingUtilities.invokeLater(() -> {
             BankSimulatorUI ui = new BankSimulatorUI(allUserAccounts, processor, repository);
+            // Слушатель подключается уже к построенному окну. Он ведет историю для выписок, поэтому события
+            // не вытесняются, а сам он только складывает их в очередь и не тормозит исполнение.
+            processor.registerListener(ui, TransactionEventDispatcher.DEFAULT_BUFFER_CAPACITY, ListenerOverflowPolicy.BLOCK);
             ui.setVisible(true);
         });
     }
@@ -0,0 +1,54 @@
+package bank.ui;
+
+import javax.swing.AbstractListModel;
+import java.util.List;
+
+// Кольцевой буфер строк истории для JList: хранит только последние capacity строк.
+// JList рисует лишь видимые строки, поэтому стоимость кадра не зависит от длины истории.
+// Используется только из EDT.
+class BoundedHistoryListModel extends AbstractListModel<String> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String[] historyLines;
+    private int firstLineIndex;
+    private int lineCount;
+
+    BoundedHistoryListModel(int capacity) {
+        this.historyLines = new String[capacity];
+    }
+
+    @Override
+    public int getSize() {
+        return lineCount;
+    }
+
+    @Override
+    public String getElementAt(int index) {
+        return historyLines[(firstLineIndex + index) % historyLines.length];
+    }
+
+    // Добавляет пачку строк с одним событием удаления и одним событием вставки на весь кадр.
+    void appendAll(List<String> newLines) {
+        if (newLines.isEmpty()) {
+            return;
+        }
+        int capacity = historyLines.length;
+        int firstNewLine = Math.max(0, newLines.size() - capacity);
+        int appendedCount = newLines.size() - firstNewLine;
+
+        int evictedCount = Math.max(0, lineCount + appendedCount - capacity);
+        if (evictedCount > 0) {
+            firstLineIndex = (firstLineIndex + evictedCount) % capacity;
+            lineCount -= evictedCount;
+            fireIntervalRemoved(this, 0, evictedCount - 1);
+        }
+
+        int firstAppendedIndex = lineCount;
+        for (int i = firstNewLine; i < newLines.size(); i++) {
+            historyLines[(firstLineIndex + lineCount) % capacity] = newLines.get(i);
+            lineCount++;
+        }
+        fireIntervalAdded(this, firstAppendedIndex, lineCount - 1);
+    }
+}